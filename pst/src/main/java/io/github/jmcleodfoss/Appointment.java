@@ -100,6 +100,25 @@ public class Appointment extends MessageObject {
 		reminderDelta = o == null ? 0 : (Integer)o;
 	}
 
+	/**	Obtain the tags of the contents table columns read when creating an appointment.
+	*
+	*	@return	The tags of the appointment columns used from the folder contents table.
+	*
+	*	@see	MessageObject#contentsTableTags
+	*/
+	static int[] contentsTableTags()
+	{
+		return new int[]{
+			AppointmentStartWholePropertyID,
+			AppointmentEndWholePropertyID,
+			AppointmentDurationPropertyID,
+			RecurrencePatternPropertyID,
+			RecurringPropertyID,
+			RecurrenceTypePropertyID,
+			ReminderDeltaPropertyID
+		};
+	}
+
 	/**	Save named property IDs for IDs of interest.
 	*
 	*	@param	namedProperties	The list of named properties.
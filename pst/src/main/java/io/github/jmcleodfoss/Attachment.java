@@ -199,8 +199,14 @@ public class Attachment {
 	{
 		this.nodeInfo = nodeInfo;
 
-		final PropertyContext pc = new PropertyContext(nodeInfo, bbt, pstFile);
-		final int attachMethod = (Integer)pc.get(PropertyTag.AttachMethod);
+		final int[] attachmentTags = {
+			PropertyTag.AttachMethod,
+			pstFile.unicode() ? PropertyTag.AttachFilenameW : PropertyTag.AttachFilename,
+			PropertyTag.AttachExtension,
+			pstFile.unicode() ? PropertyTag.AttachMimeTagW : PropertyTag.AttachMimeTag
+		};
+		final PropertyContext pc = new PropertyContext(nodeInfo, bbt, pstFile, attachmentTags);
+		final int attachMethod = pc.getInt(PropertyTag.AttachMethod, AF_NONE);
 		int propidData = -1;
 		switch (attachMethod) {
 		case AF_NONE:
@@ -229,19 +235,39 @@ public class Attachment {
 		this.mimeType = mimeType == null ? "" : mimeType.toLowerCase();
 	}
 
-	/**	Retrieve the attachment data.
+	/**	Retrieve the attachment data. The array returned may be shared with other callers, and must not be modified.
 	*
 	*	@param	pc	The attachment property context.
 	*
 	*	@return	A byte array containing the attachment data.
 	*
 	*	@see	#propidData
+	*	@see	PropertyContext#get
 	*/
 	public byte[] data(final PropertyContext pc)
 	{
 		return (byte[])pc.get(propidData);
 	}
 
+	/**	Open a stream through the attachment data, which reads the data a block at a time rather than all at once. This is
+	*	preferable to {@link #data} for large attachments, e.g. to copy them to a file using
+	*	{@link DataTreeInputStream#transferTo}.
+	*
+	*	@param	pc	The attachment property context.
+	*
+	*	@return	A stream through the attachment data, or null if the attachment has no binary data.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the attachment data.
+	*
+	*	@see	#propidData
+	*/
+	public DataTreeInputStream openStream(final PropertyContext pc)
+	throws
+		java.io.IOException
+	{
+		return pc.openStream(propidData);
+	}
+
 	/**	Test the Attachment class by iterating through the messages and displaying information about each attachment.
 	*
 	*	@param	arg	The command line arguments to the test application.
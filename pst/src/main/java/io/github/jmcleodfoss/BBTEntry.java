@@ -68,6 +68,21 @@ class BBTEntry implements BTreeLeaf {
 		refCount = (Short)dc.get(nm_cRef);
 	}
 
+	/**	Create a block B-tree leaf entry from values which have already been read in.
+	*
+	*	@param	bref		The block reference for the block.
+	*	@param	numBytes	The number of raw data bytes in the block.
+	*	@param	refCount	The reference count of the block.
+	*
+	*	@see	BlockIndex
+	*/
+	BBTEntry(final BREF bref, final int numBytes, final int refCount)
+	{
+		this.bref = bref;
+		this.numBytes = numBytes;
+		this.refCount = refCount;
+	}
+
 	/**	Obtain the actual size of a block B-tree leaf node as read in from the input datastream.
 	*
 	*	@param	context	The context to use to find the size (this function uses only the file format information.)
@@ -45,7 +45,7 @@ class BID implements NodeKey {
 	*/
 	BID(final long rawBid)
 	{
-		key = rawBid & SEARCH_MASK;
+		key = key(rawBid);
 		fInternal = (rawBid & 0x02) != 0x00;
 		bid = rawBid >> 2;
 	}
@@ -71,6 +71,17 @@ class BID implements NodeKey {
 		return key;
 	}
 
+	/**	Calculate the lookup key for the given raw block ID without creating a BID object.
+	*
+	*	@param	rawBid	The raw data as read in from the file (a 64-bit little-endian value);
+	*
+	*	@return	The search key for the block ID.
+	*/
+	static long key(final long rawBid)
+	{
+		return rawBid & SEARCH_MASK;
+	}
+
 	/**	Retrieve the size of a block ID object (which is different under Unicode and ANSI).
 	*
 	*	@param	format	The FileFormat object as read in from the PST header and stored in the {@link io.github.jmcleodfoss.pst.Header}
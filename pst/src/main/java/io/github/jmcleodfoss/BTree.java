@@ -16,22 +16,31 @@ abstract class BTree extends ReadOnlyTreeModel implements BTreeNode, TreeCustomN
 		/**	Hold the stream, FileChannel, and header information necessary for reading the B-tree. */
 		protected PSTFile pstFile;
 
-		/**	The base class constructor reads any metadata requested and saves the input stream and file format.
+		/**	The base class constructor for contexts which do not read any metadata saves the input stream and file format.
 		*
 		*	@param	pstFile	The PST {@link Header}, data stream, etc.
-		*	@param	fields	The data fields to read in.
+		*/
+		protected Context(PSTFile pstFile)
+		{
+			dc = new DataContainer();
+			this.pstFile = pstFile;
+		}
+
+		/**	The base class constructor reads any metadata requested and saves the input stream and file format.
+		*
+		*	@param	byteBuffer	The data stream from which to read the metadata.
+		*	@param	pstFile		The PST {@link Header}, data stream, etc.
+		*	@param	fields		The data fields to read in.
 		*
 		*	@throws java.io.IOException	There was a problem reading the PST file.
 		*/
-		protected Context(PSTFile pstFile, final DataDefinition[]... fields)
+		protected Context(java.nio.ByteBuffer byteBuffer, PSTFile pstFile, final DataDefinition[]... fields)
 		throws
 			java.io.IOException
 		{
-			dc = new DataContainer();
+			this(pstFile);
 			for (DataDefinition[] f : fields)
-				dc.read(pstFile.mbb, f);
-	
-			this.pstFile = pstFile;
+				dc.read(byteBuffer, f);
 		}
 
 		/**	Obtain a data stream from which entries may be read.
@@ -96,6 +105,155 @@ abstract class BTree extends ReadOnlyTreeModel implements BTreeNode, TreeCustomN
 		}
 	}
 
+	/**	The Cursor class passes through the leaves of the B-tree whose keys lie in a given range, in key order, optionally
+	*	skipping leaves whose keys do not match a bit pattern. The cursor starts by descending directly to the first leaf in the
+	*	range, and stops at the first leaf past the end of the range, so no part of the tree outside the range is visited.
+	*/
+	static class Cursor {
+
+		/**	The initial depth of the path arrays; they grow if the B-tree is deeper than this. */
+		private static final int INITIAL_DEPTH = 8;
+
+		/**	The smallest key to return. */
+		private final long fromKey;
+
+		/**	The largest key to return. */
+		private final long toKey;
+
+		/**	The bits of each key to compare to {@link #value}. */
+		private final long mask;
+
+		/**	The value which the masked bits of a key must have for its leaf to be returned. */
+		private final long value;
+
+		/**	The nodes from the root to the current leaf-level node. */
+		private BTree[] path;
+
+		/**	The position within each node on the path: the child being visited for intermediate nodes, and the next child to
+		*	examine for the leaf-level node.
+		*/
+		private int[] position;
+
+		/**	The number of nodes on the path. */
+		private int depth;
+
+		/**	Whether every node visited has its children in ascending key order, so that the pass may end at the first key
+		*	past the end of the range.
+		*/
+		private boolean fOrdered;
+
+		/**	The current leaf, or null if the cursor is not positioned on a leaf. */
+		private BTreeLeaf current;
+
+		/**	Create a cursor over the leaves of the given B-tree with keys from fromKey to toKey whose masked bits match the
+		*	given value.
+		*
+		*	@param	root	The root of the B-tree.
+		*	@param	fromKey	The smallest key to return.
+		*	@param	toKey	The largest key to return.
+		*	@param	mask	The bits of each key to compare to value; if 0, all keys in the range are returned.
+		*	@param	value	The value which the masked bits of a key must have.
+		*/
+		Cursor(final BTree root, final long fromKey, final long toKey, final long mask, final long value)
+		{
+			this.fromKey = fromKey;
+			this.toKey = toKey;
+			this.mask = mask;
+			this.value = value;
+			path = new BTree[INITIAL_DEPTH];
+			position = new int[INITIAL_DEPTH];
+			fOrdered = true;
+
+			BTree node = root;
+			while (node != null) {
+				final int i;
+				if (node.childKeys == null) {
+					fOrdered = false;
+					i = 0;
+				} else if (node.children.length > 0 && node.children[0] instanceof BTree) {
+					i = Math.max(0, childIndex(node.childKeys, fromKey));
+				} else {
+					final int j = java.util.Arrays.binarySearch(node.childKeys, fromKey);
+					i = j >= 0 ? j : -(j + 1);
+				}
+				push(node, i);
+				node = i < node.children.length && node.children[i] instanceof BTree ? (BTree)node.children[i] : null;
+			}
+		}
+
+		/**	Retrieve the current leaf.
+		*
+		*	@return	The current leaf of the B-tree, or null if the cursor is not positioned on a leaf.
+		*/
+		BTreeLeaf current()
+		{
+			return current;
+		}
+
+		/**	Descend from the child being visited by the deepest node on the path to the leftmost leaf-level node below it. */
+		private void descendLeftmost()
+		{
+			BTree node = path[depth-1];
+			int i = position[depth-1];
+			while (i < node.children.length && node.children[i] instanceof BTree) {
+				node = (BTree)node.children[i];
+				if (node.childKeys == null)
+					fOrdered = false;
+				push(node, 0);
+				i = 0;
+			}
+		}
+
+		/**	Advance to the next leaf in the range whose key matches.
+		*
+		*	@return	true if the cursor is now positioned on a matching leaf, false if there are no more matching leaves.
+		*/
+		boolean next()
+		{
+			while (depth > 0) {
+				final BTree node = path[depth-1];
+				final int i = position[depth-1];
+				if (i < node.children.length && !(node.children[i] instanceof BTree)) {
+					position[depth-1] = i + 1;
+					final BTreeLeaf leaf = (BTreeLeaf)node.children[i];
+					final long key = leaf.key();
+					if (key > toKey && fOrdered)
+						break;
+					if (key < fromKey || key > toKey || (key & mask) != value)
+						continue;
+					current = leaf;
+					return true;
+				}
+
+				--depth;
+				if (depth > 0) {
+					++position[depth-1];
+					descendLeftmost();
+				}
+			}
+
+			depth = 0;
+			current = null;
+			return false;
+		}
+
+		/**	Add a node to the end of the path.
+		*
+		*	@param	node	The node to add.
+		*	@param	i	The initial position within the node.
+		*/
+		private void push(final BTree node, final int i)
+		{
+			if (depth == path.length) {
+				path = java.util.Arrays.copyOf(path, depth * 2);
+				position = java.util.Arrays.copyOf(position, depth * 2);
+			}
+			path[depth] = node;
+			position[depth] = i;
+			++depth;
+		}
+	}
+
 	/**	The Iterator class allows iteration through the leaves of the B-tree.
 	*/
 	private class Iterator implements java.util.Iterator<BTreeNode> {
@@ -170,6 +328,11 @@ abstract class BTree extends ReadOnlyTreeModel implements BTreeNode, TreeCustomN
 	/**	The key of this node is guaranteed to be the smallest key of any of its children. */
 	protected final long key;
 
+	/**	The keys of the children of this node, for binary search, or null if the children are not in strictly ascending key
+	*	order, in which case they are searched linearly.
+	*/
+	private final long[] childKeys;
+
 	/**	Create a B-tree using the given context.
 	*
 	*	@param	key	The key for this node of the B-tree. All child nodes are guaranteed to have keys greater than or equal
@@ -179,13 +342,35 @@ abstract class BTree extends ReadOnlyTreeModel implements BTreeNode, TreeCustomN
 	*	@throws	java.io.IOException	An I/O error was encoutnered while reading the B-tree.
 	*/
 	protected BTree(final long key, Context<BTree, BTreeLeaf> context)
+	throws
+		java.io.IOException
+	{
+		this(key, context, null);
+	}
+
+	/**	Create a B-tree using the given context, building the subtrees below this node on the given executor. Only the
+	*	subtrees immediately below this node are built in parallel; each is built on a single thread. The subtrees must not
+	*	share any state during construction, which is the case for the paged B-trees, since all reads from the PST file are
+	*	independent of each other.
+	*
+	*	@param	key		The key for this node of the B-tree. All child nodes are guaranteed to have keys greater than or
+	*				equal to this.
+	*	@param	context		Context data used to construct the B-tree
+	*	@param	executor	The executor on which to build the subtrees, or null to build them on this thread.
+	*
+	*	@throws	java.io.IOException	An I/O error was encoutnered while reading the B-tree.
+	*/
+	protected BTree(final long key, Context<BTree, BTreeLeaf> context, java.util.concurrent.ExecutorService executor)
 	throws
 		java.io.IOException
 	{
 		final int numEntries = context.getNumEntries();
 		final int entryWidth = context.getEntrySize();
 		children = new BTreeNode[numEntries];
-		if (numEntries > 0) {
+		if (numEntries > 0 && executor != null && !context.isLeafNode()) {
+			buildSubtrees(context, executor);
+			this.key = key == 0L ? children[0].key() : key;
+		} else if (numEntries > 0) {
 			java.nio.ByteBuffer byteBuffer = context.entryDataStream();
 			for (int i = 0; i < numEntries; ++i) {
 				if (context.isLeafNode())
@@ -202,6 +387,91 @@ abstract class BTree extends ReadOnlyTreeModel implements BTreeNode, TreeCustomN
 		} else {
 			this.key = key;
 		}
+
+		long[] childKeys = new long[numEntries];
+		for (int i = 0; i < numEntries; ++i)
+			childKeys[i] = children[i].key();
+		this.childKeys = ascending(childKeys) ? childKeys : null;
+	}
+
+	/**	Determine whether the given keys are in strictly ascending order, so that they may be searched by {@link #childIndex}.
+	*
+	*	@param	keys	The keys to check.
+	*
+	*	@return	true if each key is greater than the one before it, false otherwise.
+	*/
+	static boolean ascending(final long[] keys)
+	{
+		for (int i = 1; i < keys.length; ++i) {
+			if (keys[i-1] >= keys[i])
+				return false;
+		}
+		return true;
+	}
+
+	/**	Build the subtrees below this node on the given executor, and wait for them all to be built.
+	*
+	*	@param	context		Context data used to construct the B-tree
+	*	@param	executor	The executor on which to build the subtrees.
+	*
+	*	@throws	java.io.IOException	An I/O error was encoutnered while reading the B-tree, or the thread was interrupted.
+	*/
+	private void buildSubtrees(final Context<BTree, BTreeLeaf> context, java.util.concurrent.ExecutorService executor)
+	throws
+		java.io.IOException
+	{
+		final java.nio.ByteBuffer byteBuffer = context.entryDataStream();
+		final int start = byteBuffer.position();
+		final int entryWidth = context.getEntrySize();
+
+		java.util.List<java.util.concurrent.Future<BTree>> subtrees = new java.util.ArrayList<java.util.concurrent.Future<BTree>>(children.length);
+		for (int i = 0; i < children.length; ++i) {
+			final java.nio.ByteBuffer entryStream = byteBuffer.duplicate().order(java.nio.ByteOrder.LITTLE_ENDIAN);
+			entryStream.position(start + i * entryWidth);
+			subtrees.add(executor.submit(new java.util.concurrent.Callable<BTree>() {
+				public BTree call()
+				throws
+					java.io.IOException
+				{
+					return context.intermediateNodeFactory(entryStream);
+				}
+			}));
+		}
+
+		try {
+			for (int i = 0; i < children.length; ++i)
+				children[i] = subtrees.get(i).get();
+		} catch (final InterruptedException e) {
+			for (java.util.concurrent.Future<BTree> subtree : subtrees)
+				subtree.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new java.io.InterruptedIOException("Interrupted while reading B-tree");
+		} catch (final java.util.concurrent.ExecutionException e) {
+			for (java.util.concurrent.Future<BTree> subtree : subtrees)
+				subtree.cancel(true);
+			final Throwable cause = e.getCause();
+			if (cause instanceof java.io.IOException)
+				throw (java.io.IOException)cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException)cause;
+			if (cause instanceof Error)
+				throw (Error)cause;
+			throw new java.io.IOException(cause);
+		}
+	}
+
+	/**	Find the child whose range of keys includes the given key, by binary search of the children's keys. The child at index
+	*	i covers keys from keys[i] up to, but not including, keys[i+1].
+	*
+	*	@param	keys	The keys of the children, in strictly ascending order.
+	*	@param	key	The key to look for.
+	*
+	*	@return	The index of the child whose range includes key, or -1 if key is less than the smallest key.
+	*/
+	static int childIndex(final long[] keys, final long key)
+	{
+		final int i = java.util.Arrays.binarySearch(keys, key);
+		return i >= 0 ? i : -(i + 1) - 1;
 	}
 
 	/**	Retrieve the data the given key in the B-tree, or null if the key is missing.
@@ -215,6 +485,15 @@ abstract class BTree extends ReadOnlyTreeModel implements BTreeNode, TreeCustomN
 		if (key < this.key())
 			return null;
 
+		if (childKeys != null) {
+			final int i = childIndex(childKeys, key);
+			if (i < 0)
+				return null;
+			if (children[i] instanceof BTree)
+				return ((BTree)children[i]).find(key);
+			return childKeys[i] == key ? (BTreeLeaf)children[i] : null;
+		}
+
 		for (int i = 0; i < children.length; ++i) {
 			if (children[i] instanceof BTree) {
 				if (key >= children[i].key() && (i == children.length-1 || key < children[i+1].key()))
@@ -386,4 +665,47 @@ abstract class BTree extends ReadOnlyTreeModel implements BTreeNode, TreeCustomN
 		int numChildren = children != null ? children.length : 0;
 		return String.format("key 0x%08x, %d child%s", key, numChildren, numChildren == 1 ? "" : "ren");
 	}
+
+	/**	Benchmark the search for a child by binary search against the linear search previously used, for increasing numbers
+	*	of children.
+	*
+	*	@param	args	The command line arguments to the benchmark application (ignored).
+	*/
+	public static void main(final String[] args)
+	{
+		final int LOOKUPS = 1 << 20;
+		final java.util.Random random = new java.util.Random(1);
+
+		System.out.println("fan-out\tlinear ns\tbinary ns");
+		for (int fanOut = 2; fanOut <= 4096; fanOut *= 2) {
+			final long[] keys = new long[fanOut];
+			for (int i = 0; i < fanOut; ++i)
+				keys[i] = (i + 1) * 1000L;
+			final long[] targets = new long[LOOKUPS];
+			for (int i = 0; i < LOOKUPS; ++i)
+				targets[i] = 1000L + (long)(random.nextDouble() * fanOut * 1000L);
+
+			long sink = 0;
+			double linearNs = 0;
+			double binaryNs = 0;
+			for (int pass = 0; pass < 3; ++pass) {
+				long start = System.nanoTime();
+				for (int i = 0; i < LOOKUPS; ++i) {
+					int c = 0;
+					while (c < fanOut - 1 && targets[i] >= keys[c + 1])
+						++c;
+					sink += c;
+				}
+				linearNs = (double)(System.nanoTime() - start) / LOOKUPS;
+
+				start = System.nanoTime();
+				for (int i = 0; i < LOOKUPS; ++i)
+					sink += childIndex(keys, targets[i]);
+				binaryNs = (double)(System.nanoTime() - start) / LOOKUPS;
+			}
+			System.out.printf("%d\t%.1f\t\t%.1f\n", fanOut, linearNs, binaryNs);
+			if (sink == 42)
+				System.out.println();
+		}
+	}
 }
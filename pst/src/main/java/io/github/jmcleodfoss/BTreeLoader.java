@@ -0,0 +1,166 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The BTreeLoader class reads in the block and node B-trees of a PST file in parallel. The subtrees below the root page of
+*	each B-tree are independent of each other, since all reads from the PST file are made at absolute positions, so each is built
+*	as a separate task, and the results are gathered into the root node once all have been built.
+*
+*	@see	io.github.jmcleodfoss.pst.BlockBTree
+*	@see	io.github.jmcleodfoss.pst.NodeBTree
+*/
+class BTreeLoader {
+
+	/**	The ThreadFactory class creates daemon threads, so that an abandoned loader does not prevent the JVM from exiting. */
+	private static class ThreadFactory implements java.util.concurrent.ThreadFactory {
+
+		/**	The number of threads created so far. */
+		private final java.util.concurrent.atomic.AtomicInteger threads = new java.util.concurrent.atomic.AtomicInteger();
+
+		/**	Create a daemon thread to run the given task.
+		*
+		*	@param	r	The task for the thread to run.
+		*
+		*	@return	A new daemon thread.
+		*/
+		public Thread newThread(final Runnable r)
+		{
+			final Thread thread = new Thread(r, "pst-btree-loader-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	/**	The block B-tree. */
+	final BlockBTree blockBTree;
+
+	/**	The node B-tree. */
+	final NodeBTree nodeBTree;
+
+	/**	Read in the block and node B-trees of the given PST file, using as many threads as there are processors.
+	*
+	*	@param	pstFile	The PST file's data stream, header, etc.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading in the B-trees.
+	*/
+	BTreeLoader(PSTFile pstFile)
+	throws
+		java.io.IOException
+	{
+		this(pstFile, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**	Read in the block and node B-trees of the given PST file, using the given number of threads.
+	*
+	*	@param	pstFile		The PST file's data stream, header, etc.
+	*	@param	parallelism	The number of threads to use. If this is less than 2, the B-trees are read on this thread.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading in the B-trees.
+	*/
+	BTreeLoader(final PSTFile pstFile, final int parallelism)
+	throws
+		java.io.IOException
+	{
+		if (parallelism < 2) {
+			blockBTree = new BlockBTree(0, pstFile.header.bbtRoot, pstFile);
+			nodeBTree = new NodeBTree(0, pstFile.header.nbtRoot, pstFile);
+			return;
+		}
+
+		// The node B-tree root is built by a pool thread while this thread builds the block B-tree root; both wait for their
+		// subtrees, which are queued on the same pool but never wait themselves, so at least one pool thread is always free
+		// to build them.
+		final java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(parallelism, new ThreadFactory());
+		try {
+			final java.util.concurrent.Future<NodeBTree> nbt = executor.submit(new java.util.concurrent.Callable<NodeBTree>() {
+				public NodeBTree call()
+				throws
+					java.io.IOException
+				{
+					return new NodeBTree(0, pstFile.header.nbtRoot, pstFile, executor);
+				}
+			});
+			blockBTree = new BlockBTree(0, pstFile.header.bbtRoot, pstFile, executor);
+			nodeBTree = get(nbt);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**	Wait for the given task to finish, and retrieve its result.
+	*
+	*	@param	future	The task to wait for.
+	*
+	*	@return	The result of the task.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered by the task, or this thread was interrupted.
+	*/
+	private static <T> T get(final java.util.concurrent.Future<T> future)
+	throws
+		java.io.IOException
+	{
+		try {
+			return future.get();
+		} catch (final InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new java.io.InterruptedIOException("Interrupted while reading B-tree");
+		} catch (final java.util.concurrent.ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof java.io.IOException)
+				throw (java.io.IOException)cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException)cause;
+			if (cause instanceof Error)
+				throw (Error)cause;
+			throw new java.io.IOException(cause);
+		}
+	}
+
+	/**	Test this class by reading in the block and node B-trees on a single thread and in parallel, and comparing the times
+	*	taken and the results.
+	*
+	*	@param	args	The command line arguments to the test application.
+	*/
+	public static void main(final String[] args)
+	{
+		if (args.length == 0) {
+			System.out.println("use:\n\tjava io.github.jmcleodfoss.pst.BTreeLoader pst-file [threads]");
+			System.exit(1);
+		}
+
+		try {
+			PSTFile pstFile = new PSTFile(new java.io.FileInputStream(args[0]));
+			final int parallelism = args.length >= 2 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+			long start = System.nanoTime();
+			final BTreeLoader sequential = new BTreeLoader(pstFile, 1);
+			System.out.printf("1 thread: %.1f ms\n", (System.nanoTime() - start) / 1e6);
+
+			start = System.nanoTime();
+			final BTreeLoader parallel = new BTreeLoader(pstFile, parallelism);
+			System.out.printf("%d threads: %.1f ms\n", parallelism, (System.nanoTime() - start) / 1e6);
+
+			int discrepancies = 0;
+			int leaves = 0;
+			java.util.Iterator<BTreeNode> s = sequential.blockBTree.iterator();
+			java.util.Iterator<BTreeNode> p = parallel.blockBTree.iterator();
+			while (s.hasNext()) {
+				++leaves;
+				if (!p.hasNext() || s.next().toString().compareTo(p.next().toString()) != 0)
+					++discrepancies;
+			}
+			s = sequential.nodeBTree.iterator();
+			p = parallel.nodeBTree.iterator();
+			while (s.hasNext()) {
+				++leaves;
+				if (!p.hasNext() || s.next().toString().compareTo(p.next().toString()) != 0)
+					++discrepancies;
+			}
+			if (discrepancies == 0)
+				System.out.printf("Success: all %d leaves match\n", leaves);
+			else
+				System.out.printf("Failure: %d out of %d leaves do not match\n", discrepancies, leaves);
+		} catch (final Exception e) {
+			e.printStackTrace(System.out);
+		}
+	}
+}
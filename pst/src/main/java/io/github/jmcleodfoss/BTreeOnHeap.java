@@ -55,7 +55,7 @@ public class BTreeOnHeap extends BTree {
 		{
 			super(pstFile);
 			this.hon = hon;
-			header = new Header(PSTFile.makeByteBuffer(hon.heapData(hid)));
+			header = new Header(hon.heapData(hid));
 			fEmpty = !header.hidRoot.isHID();
 			this.hid = header.hidRoot;
 			level = header.levels;// + 1;
@@ -91,7 +91,7 @@ public class BTreeOnHeap extends BTree {
 		throws
 			java.io.IOException
 		{
-			return PSTFile.makeByteBuffer(hon.heapData(hid));
+			return hon.heapData(hid);
 		}
 
 		/**	The size of a single entry in the B-tree-on-heap structure. Note that the size depends on values in the BTH header.
@@ -111,10 +111,14 @@ public class BTreeOnHeap extends BTree {
 		@Override
 		protected int getNumEntries()
 		{
-			if (fEmpty || !hid.isHID() || hon.heapData(hid) == null)
+			if (fEmpty || !hid.isHID())
 				return 0;
 
-			return hon.heapData(hid).length/getEntrySize();
+			final java.nio.ByteBuffer heapData = hon.heapData(hid);
+			if (heapData == null)
+				return 0;
+
+			return heapData.remaining()/getEntrySize();
 		}
 
 		/**	{@inheritDoc} */
@@ -464,6 +468,95 @@ public class BTreeOnHeap extends BTree {
 		return ((BTHContext)context).header.keySize + HeapOnNode.HID.SIZE;
 	}
 
+	/**	Find the leaf record for the given key in the B-tree-on-heap whose header is at the root of the given heap-on-node,
+	*	without reading in the rest of the B-tree.
+	*
+	*	@param	hon	The heap-on-node containing the B-tree-on-heap.
+	*	@param	key	The key to look for.
+	*
+	*	@return	The leaf record for the given key, or null if there is no such key.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the B-tree-on-heap.
+	*
+	*	@see	#lookup(HeapOnNode, HeapOnNode.HID, long)
+	*/
+	static LeafRecord lookup(final HeapOnNode hon, final long key)
+	throws
+		java.io.IOException
+	{
+		return lookup(hon, HeapOnNode.HID.BTreeOnHeapRoot, key);
+	}
+
+	/**	Find the leaf record for the given key in the B-tree-on-heap with the header at the given heap ID by binary search of
+	*	each level of the B-tree, without reading in the rest of the B-tree.
+	*
+	*	@param	hon	The heap-on-node containing the B-tree-on-heap.
+	*	@param	hid	The heap ID of the B-tree-on-heap header.
+	*	@param	key	The key to look for.
+	*
+	*	@return	The leaf record for the given key, or null if there is no such key.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the B-tree-on-heap.
+	*/
+	static LeafRecord lookup(final HeapOnNode hon, final HeapOnNode.HID hid, final long key)
+	throws
+		java.io.IOException
+	{
+		final Header header = new Header(hon.heapData(hid));
+		HeapOnNode.HID hidLevel = header.hidRoot;
+		for (int level = header.levels; ; --level) {
+			if (!hidLevel.isHID())
+				return null;
+
+			final java.nio.ByteBuffer heapData = hon.heapData(hidLevel);
+			if (heapData == null)
+				return null;
+
+			final int entrySize = header.keySize + (level == 0 ? header.dataSize : HeapOnNode.HID.SIZE);
+			int low = 0;
+			int high = heapData.remaining() / entrySize - 1;
+			while (low <= high) {
+				final int mid = (low + high) >>> 1;
+				if (recordKey(heapData, mid * entrySize, header.keySize) <= key)
+					low = mid + 1;
+				else
+					high = mid - 1;
+			}
+
+			// high is now the index of the last record whose key is less than or equal to the key we are looking for.
+			if (high < 0)
+				return null;
+
+			heapData.position(high * entrySize);
+			if (level == 0)
+				return recordKey(heapData, high * entrySize, header.keySize) == key ? new LeafRecord(heapData, header.keySize, header.dataSize) : null;
+
+			hidLevel = new IntermediateRecord(heapData, header.keySize).hidNextLevel;
+		}
+	}
+
+	/**	Read the key of the record at the given position in a B-tree-on-heap node, as {@link RecordBase#key} does.
+	*
+	*	@param	heapData	The heap data for the B-tree-on-heap node.
+	*	@param	position	The position of the record in the heap data.
+	*	@param	keySize		The size of the key.
+	*
+	*	@return	The key of the record.
+	*/
+	private static long recordKey(final java.nio.ByteBuffer heapData, final int position, final int keySize)
+	{
+		switch (keySize) {
+		case 1:
+			return heapData.get(position) & 0xffL;
+
+		case 2:
+			return heapData.getShort(position) & 0xffffL;
+
+		default:
+			return heapData.getInt(position) & 0xffffffffL;
+		}
+	}
+
 	/**	Obtain data for the given leaf node, or null if the given object is not a leaf node.
 	*
 	*	@param	o	The node to retrieve the data for.
@@ -77,6 +77,25 @@ class BlockBTree extends PagedBTree implements BlockMap {
 		super(key, bref, new BBTContext(bref, pstFile));
 	}
 
+	/**	Create a block B-tree node, building the subtrees below it on the given executor.
+	*
+	*	@param	key		The key of this node. The keys of all children of this node will be greater than or equal to
+	*				this value.
+	*	@param	bref		The block reference from which to read the data for this node.
+	*	@param	pstFile		The PST file header, input stream, etc.
+	*	@param	executor	The executor on which to build the subtrees of this node.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading in the block B-tree.
+	*
+	*	@see	BTreeLoader
+	*/
+	BlockBTree(final long key, final BREF bref, PSTFile pstFile, java.util.concurrent.ExecutorService executor)
+	throws
+		java.io.IOException
+	{
+		super(key, bref, new BBTContext(bref, pstFile), executor);
+	}
+
 	/**	Convenience wrapper function to find a block ID in the block B-tree.
 	*
 	*	@param	bid	The block ID to find in the block B-tree.
@@ -53,12 +53,26 @@ abstract class BlockBase {
 		return PSTFile.makeByteBuffer(data());
 	}
 
+	/**	Return the data within the given component data block, returned as a ByteBuffer.
+	*
+	*	@param	i	The index of the data block, from 0 to {@link #numBlocks} - 1.
+	*
+	*	@return	A ByteBuffer object from which the data in the requested data block may be read.
+	*/
+	abstract java.nio.ByteBuffer dataStream(int i);
+
 	/**	Obtain an iterator which steps through the component blocks.
 	*
 	*	@return	An iterator through the block or blocks associated with this {@link SimpleBlock} or {@link XBlock} object.
 	*/
 	abstract java.util.Iterator<java.nio.ByteBuffer> iterator();
 
+	/**	Obtain the number of component data blocks.
+	*
+	*	@return	The number of data blocks making up this block or data tree.
+	*/
+	abstract int numBlocks();
+
 	/**	Retrieve the required block specified by BlockBTree leaf entry.
 	*
 	*	@param	entry	The block B-tree entry from which to read the block.
@@ -75,7 +89,28 @@ abstract class BlockBase {
 	throws
 		java.io.IOException
 	{
-		return entry.bref.bid.fInternal ? new XBlock(entry, bbt, pstFile) : new SimpleBlock(entry, pstFile);
+		return read(entry, bbt, pstFile, false);
+	}
+
+	/**	Retrieve the required block specified by BlockBTree leaf entry, optionally deferring reading the data blocks of an
+	*	XBLOCK or XXBLOCK until they are needed.
+	*
+	*	@param	entry	The block B-tree entry from which to read the block.
+	*	@param	bbt	The PST file's block B-tree
+	*	@param	pstFile	The PST file input stream, etc.
+	*	@param	fLazy	If true, the data blocks of an XBLOCK or XXBLOCK are read only as the {@link #iterator} reaches them.
+	*
+	*	@return	A BlockBase object from which the data may be retrieved.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading in the requested block.
+	*
+	*	@see	XBlock#XBlock(BBTEntry, BlockMap, PSTFile, boolean)
+	*/
+	static BlockBase read(final BBTEntry entry, final BlockMap bbt, PSTFile pstFile, boolean fLazy)
+	throws
+		java.io.IOException
+	{
+		return entry.bref.bid.fInternal ? new XBlock(entry, bbt, pstFile, fLazy) : new SimpleBlock(entry, pstFile);
 	}
 
 	/**	Obtain the string representation of a block is its contents in hex.
@@ -0,0 +1,279 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The BlockCache class holds the decoded (decrypted and CRC-checked) contents of recently-read data blocks, keyed by block ID,
+*	so that re-reading a block, as happens whenever a property context or table context is rebuilt, does not require the block to
+*	be read, checked, and decrypted again.
+*
+*	The cache is bounded by the total number of data bytes it holds; when adding a block would exceed this, blocks are removed as
+*	chosen by the cache's {@link EvictionPolicy} until there is room. The default policy removes the least-recently-used block.
+*
+*	Cached block data is shared by all readers of the block, and must not be modified.
+*
+*	@see	PSTFile#blockCache
+*	@see	SimpleBlock
+*/
+public class BlockCache {
+
+	/**	The default maximum number of data bytes held in the cache. */
+	public static final long DEFAULT_MAXIMUM_BYTES = 16 * 1024 * 1024;
+
+	/**	The EvictionPolicy interface describes the functions a class must provide to choose which blocks are removed from the
+	*	cache when room is needed for new blocks. Blocks are identified by their {@link BID#key key}. All calls to an eviction
+	*	policy are made while holding the cache's lock.
+	*/
+	public interface EvictionPolicy {
+
+		/**	Note that a block has been added to the cache.
+		*
+		*	@param	key	The key of the block which was added.
+		*	@param	size	The number of data bytes in the block.
+		*/
+		void added(long key, int size);
+
+		/**	Note that a block in the cache has been retrieved.
+		*
+		*	@param	key	The key of the block which was retrieved.
+		*/
+		void accessed(long key);
+
+		/**	Note that a block has been removed from the cache.
+		*
+		*	@param	key	The key of the block which was removed.
+		*/
+		void removed(long key);
+
+		/**	Choose the next block to remove from the cache. This is only called when the cache is not empty.
+		*
+		*	@return	The key of the block which should be removed from the cache.
+		*/
+		long victim();
+	}
+
+	/**	The LRUPolicy class is an eviction policy which removes the least-recently used block from the cache. */
+	public static class LRUPolicy implements EvictionPolicy {
+
+		/**	The keys of the blocks in the cache, in order of access, from least- to most-recently used. */
+		private final java.util.LinkedHashMap<Long, Long> order = new java.util.LinkedHashMap<Long, Long>(16, 0.75f, true);
+
+		/**	{@inheritDoc} */
+		public void added(final long key, final int size)
+		{
+			order.put(key, key);
+		}
+
+		/**	{@inheritDoc} */
+		public void accessed(final long key)
+		{
+			order.get(key);
+		}
+
+		/**	{@inheritDoc} */
+		public void removed(final long key)
+		{
+			order.remove(key);
+		}
+
+		/**	{@inheritDoc} */
+		public long victim()
+		{
+			return order.keySet().iterator().next();
+		}
+	}
+
+	/**	The cached block data, keyed by block ID key. */
+	private final java.util.HashMap<Long, byte[]> blocks;
+
+	/**	The policy used to choose which blocks to remove when room is needed. */
+	private final EvictionPolicy policy;
+
+	/**	The maximum number of data bytes to hold in the cache. */
+	private long maximumBytes;
+
+	/**	The number of data bytes currently held in the cache. */
+	private long currentBytes;
+
+	/**	The number of requests for blocks which were found in the cache. */
+	private long hits;
+
+	/**	The number of requests for blocks which were not found in the cache. */
+	private long misses;
+
+	/**	The number of blocks which have been removed to make room for new blocks. */
+	private long evictions;
+
+	/**	Create a block cache with the default size and eviction policy. */
+	public BlockCache()
+	{
+		this(DEFAULT_MAXIMUM_BYTES, new LRUPolicy());
+	}
+
+	/**	Create a block cache with the given maximum size and eviction policy.
+	*
+	*	@param	maximumBytes	The maximum number of data bytes to hold in the cache. If this is 0, nothing is cached.
+	*	@param	policy		The policy used to choose which blocks to remove when room is needed.
+	*/
+	public BlockCache(final long maximumBytes, final EvictionPolicy policy)
+	{
+		blocks = new java.util.HashMap<Long, byte[]>();
+		this.policy = policy;
+		this.maximumBytes = maximumBytes;
+	}
+
+	/**	Remove all blocks from the cache. The statistics are not reset. */
+	public synchronized void clear()
+	{
+		for (java.util.Iterator<Long> iterator = blocks.keySet().iterator(); iterator.hasNext(); )
+			policy.removed(iterator.next());
+		blocks.clear();
+		currentBytes = 0;
+	}
+
+	/**	Retrieve the number of data bytes currently held in the cache.
+	*
+	*	@return	The number of data bytes held in the cache.
+	*/
+	public synchronized long currentBytes()
+	{
+		return currentBytes;
+	}
+
+	/**	Retrieve the number of blocks which have been removed from the cache to make room for other blocks.
+	*
+	*	@return	The number of blocks evicted from the cache.
+	*/
+	public synchronized long evictions()
+	{
+		return evictions;
+	}
+
+	/**	Retrieve the data for the given block, if it is in the cache.
+	*
+	*	@param	bid	The block ID of the block to retrieve.
+	*
+	*	@return	The decoded block data, or null if the block is not in the cache.
+	*/
+	synchronized byte[] get(final BID bid)
+	{
+		final long key = bid.key();
+		final byte[] data = blocks.get(key);
+		if (data == null) {
+			++misses;
+			return null;
+		}
+
+		++hits;
+		policy.accessed(key);
+		return data;
+	}
+
+	/**	Retrieve the number of requests for blocks which were found in the cache.
+	*
+	*	@return	The number of cache hits.
+	*/
+	public synchronized long hits()
+	{
+		return hits;
+	}
+
+	/**	Retrieve the maximum number of data bytes which may be held in the cache.
+	*
+	*	@return	The maximum size of the cache, in bytes.
+	*/
+	public synchronized long maximumBytes()
+	{
+		return maximumBytes;
+	}
+
+	/**	Retrieve the number of requests for blocks which were not found in the cache.
+	*
+	*	@return	The number of cache misses.
+	*/
+	public synchronized long misses()
+	{
+		return misses;
+	}
+
+	/**	Add the data for the given block to the cache, removing other blocks if necessary to make room for it. Blocks larger
+	*	than the cache are not added.
+	*
+	*	@param	bid	The block ID of the block to add.
+	*	@param	data	The decoded block data.
+	*/
+	synchronized void put(final BID bid, final byte[] data)
+	{
+		if (data.length > maximumBytes)
+			return;
+
+		final long key = bid.key();
+		if (blocks.containsKey(key))
+			return;
+
+		blocks.put(key, data);
+		currentBytes += data.length;
+		policy.added(key, data.length);
+		trim();
+	}
+
+	/**	Change the maximum number of data bytes which may be held in the cache, removing blocks if necessary.
+	*
+	*	@param	maximumBytes	The new maximum size of the cache, in bytes.
+	*/
+	public synchronized void setMaximumBytes(final long maximumBytes)
+	{
+		this.maximumBytes = maximumBytes;
+		trim();
+	}
+
+	/**	Remove blocks as chosen by the eviction policy until the cache is no larger than its maximum size. */
+	private void trim()
+	{
+		while (currentBytes > maximumBytes && !blocks.isEmpty()) {
+			final long key = policy.victim();
+			final byte[] data = blocks.remove(key);
+			policy.removed(key);
+			if (data != null) {
+				currentBytes -= data.length;
+				++evictions;
+			}
+		}
+	}
+
+	/**	Provide a summary of the cache state and statistics.
+	*
+	*	@return	A string describing the cache contents and usage.
+	*/
+	@Override
+	public synchronized String toString()
+	{
+		return String.format("%d blocks, %d of %d bytes, %d hits, %d misses, %d evictions", blocks.size(), currentBytes, maximumBytes, hits, misses, evictions);
+	}
+
+	/**	Test the BlockCache class by reading every block in the block B-tree twice and showing the cache statistics.
+	*
+	*	@param	args	The command line arguments to the test application.
+	*/
+	public static void main(final String[] args)
+	{
+		if (args.length < 1) {
+			System.out.println("use:\n\tjava io.github.jmcleodfoss.pst.BlockCache pst-file");
+			System.exit(1);
+		}
+
+		try {
+			PSTFile pstFile = new PSTFile(new java.io.FileInputStream(args[0]));
+			final BlockBTree bbt = new BlockBTree(0, pstFile.header.bbtRoot, pstFile);
+
+			for (int pass = 1; pass <= 2; ++pass) {
+				java.util.Iterator<BTreeNode> iterator = bbt.iterator();
+				while (iterator.hasNext()) {
+					final BBTEntry entry = (BBTEntry)iterator.next();
+					if (!entry.bref.bid.fInternal)
+						SimpleBlock.read(entry, pstFile);
+				}
+				System.out.println("Pass " + pass + ": " + pstFile.blockCache());
+			}
+		} catch (final Exception e) {
+			e.printStackTrace(System.out);
+		}
+	}
+}
@@ -49,6 +49,16 @@ class BlockFinder extends PagedBTreeFinder implements BlockMap {
 		super(pstFile);
 	}
 
+	/**	Construct a BlockFinder object, optionally in lazy mode, in which every page read is kept until the memory is needed.
+	*
+	*	@param	pstFile	The PST file data stream, header, etc.
+	*	@param	fLazy	If true, keep all B-tree pages read; otherwise, keep intermediate pages and a fixed number of leaf pages.
+	*/
+	BlockFinder(PSTFile pstFile, final boolean fLazy)
+	{
+		super(pstFile, fLazy);
+	}
+
 	/**	{@inheritDoc} */
 	protected PagedBTreeFinder.BTreePage bTreePageFactory(BREF bref)
 	throws
@@ -105,6 +115,7 @@ class BlockFinder extends PagedBTreeFinder implements BlockMap {
 				System.out.printf("Success: all %d BIDs found\n", bids);
 			else
 				System.out.printf("Failure: %d out of %d BIDs not found\n", discrepancies, bids);
+			System.out.printf("Page cache: %d pages, %d hits, %d misses\n", bf.cachedPages(), bf.cacheHits(), bf.cacheMisses());
 		} catch (final Exception e) {
 			e.printStackTrace(System.out);
 		}
@@ -0,0 +1,252 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The BlockIndex class holds the leaf entries of the PST file's block B-tree in sorted parallel arrays of primitive values, and
+*	finds blocks by binary search. It uses far less memory than {@link BlockBTree}, which keeps an object graph for every
+*	block, while avoiding the file reads required by {@link BlockFinder} for each search.
+*
+*	@see	io.github.jmcleodfoss.pst.BlockBTree
+*	@see	io.github.jmcleodfoss.pst.BlockFinder
+*/
+class BlockIndex extends PagedBTreeIndex implements BlockMap {
+
+	/**	The search keys (the raw block IDs with the reserved bit cleared) of the blocks, in ascending order. */
+	private long[] key;
+
+	/**	The raw block IDs, as read from the file. */
+	private long[] bid;
+
+	/**	The byte indices of the blocks within the file. */
+	private long[] ib;
+
+	/**	The number of raw data bytes in each block. */
+	private short[] cb;
+
+	/**	The reference count of each block. */
+	private short[] cRef;
+
+	/**	Read in the block B-tree for the given PST file.
+	*
+	*	@param	pstFile	The PST file's data stream, header, etc.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading in the block B-tree.
+	*/
+	BlockIndex(PSTFile pstFile)
+	throws
+		java.io.IOException
+	{
+		key = new long[INITIAL_CAPACITY];
+		bid = new long[INITIAL_CAPACITY];
+		ib = new long[INITIAL_CAPACITY];
+		cb = new short[INITIAL_CAPACITY];
+		cRef = new short[INITIAL_CAPACITY];
+
+		read(pstFile.header.bbtRoot, pstFile);
+	}
+
+	/**	Read in a block index previously saved by {@link #write}.
+	*
+	*	@param	in	The stream from which to read the block index.
+	*
+	*	@see	IndexFile
+	*/
+	BlockIndex(java.nio.ByteBuffer in)
+	{
+		size = in.getInt();
+		key = new long[size];
+		bid = new long[size];
+		ib = new long[size];
+		cb = new short[size];
+		cRef = new short[size];
+
+		in.asLongBuffer().get(key);
+		in.position(in.position() + size * 8);
+		in.asLongBuffer().get(bid);
+		in.position(in.position() + size * 8);
+		in.asLongBuffer().get(ib);
+		in.position(in.position() + size * 8);
+		in.asShortBuffer().get(cb);
+		in.position(in.position() + size * 2);
+		in.asShortBuffer().get(cRef);
+		in.position(in.position() + size * 2);
+	}
+
+	/**	{@inheritDoc} */
+	protected void addLeaf(java.nio.ByteBuffer entryStream, final boolean fUnicode)
+	{
+		if (size == key.length) {
+			final int capacity = size * 2;
+			key = java.util.Arrays.copyOf(key, capacity);
+			bid = java.util.Arrays.copyOf(bid, capacity);
+			ib = java.util.Arrays.copyOf(ib, capacity);
+			cb = java.util.Arrays.copyOf(cb, capacity);
+			cRef = java.util.Arrays.copyOf(cRef, capacity);
+		}
+
+		bid[size] = fUnicode ? entryStream.getLong() : entryStream.getInt();
+		ib[size] = fUnicode ? entryStream.getLong() : entryStream.getInt();
+		cb[size] = entryStream.getShort();
+		cRef[size] = entryStream.getShort();
+		key[size] = BID.key(bid[size]);
+		++size;
+	}
+
+	/**	{@inheritDoc} */
+	protected PagedBTree.PageContext<BTree, BTreeLeaf> contextFactory(final BREF bref, PSTFile pstFile)
+	throws
+		java.io.IOException
+	{
+		return new BlockBTree.BBTContext(bref, pstFile);
+	}
+
+	/**	Create the block B-tree leaf entry for the block at the given position in the index.
+	*
+	*	@param	i	The position of the block in the index.
+	*
+	*	@return	The block B-tree leaf entry for the block.
+	*/
+	private BBTEntry entry(final int i)
+	{
+		return new BBTEntry(new BREF(new BID(bid[i]), new IB(ib[i])), cb[i], cRef[i]);
+	}
+
+	/**	Find the block with the given block ID.
+	*
+	*	@param	bid	The block ID of the block to be found.
+	*
+	*	@return	The block B-tree leaf entry for this block ID, or null if the block ID was not found.
+	*/
+	public BBTEntry find(final BID bid)
+	{
+		final int i = indexOf(bid.key());
+		return i >= 0 ? entry(i) : null;
+	}
+
+	/**	Find the position of the block with the given search key.
+	*
+	*	@param	searchKey	The search key of the block to find.
+	*
+	*	@return	The position of the block in the index, or a negative number if it is not present.
+	*/
+	int indexOf(final long searchKey)
+	{
+		return java.util.Arrays.binarySearch(key, 0, size, searchKey);
+	}
+
+	/**	{@inheritDoc} */
+	protected void reorder(final int[] permutation)
+	{
+		final long[] newKey = new long[size];
+		final long[] newBid = new long[size];
+		final long[] newIb = new long[size];
+		final short[] newCb = new short[size];
+		final short[] newCRef = new short[size];
+		for (int i = 0; i < size; ++i) {
+			newKey[i] = key[permutation[i]];
+			newBid[i] = bid[permutation[i]];
+			newIb[i] = ib[permutation[i]];
+			newCb[i] = cb[permutation[i]];
+			newCRef[i] = cRef[permutation[i]];
+		}
+		key = newKey;
+		bid = newBid;
+		ib = newIb;
+		cb = newCb;
+		cRef = newCRef;
+	}
+
+	/**	{@inheritDoc} */
+	protected long sortKey(final int i)
+	{
+		return key[i];
+	}
+
+	/**	{@inheritDoc} */
+	protected void trim()
+	{
+		key = java.util.Arrays.copyOf(key, size);
+		bid = java.util.Arrays.copyOf(bid, size);
+		ib = java.util.Arrays.copyOf(ib, size);
+		cb = java.util.Arrays.copyOf(cb, size);
+		cRef = java.util.Arrays.copyOf(cRef, size);
+	}
+
+	/**	Save this block index to the given stream, from which it may later be read by {@link #BlockIndex(java.nio.ByteBuffer)}.
+	*
+	*	@param	out	The stream to which to write the block index.
+	*/
+	void write(java.nio.ByteBuffer out)
+	{
+		out.putInt(size);
+		out.asLongBuffer().put(key);
+		out.position(out.position() + size * 8);
+		out.asLongBuffer().put(bid);
+		out.position(out.position() + size * 8);
+		out.asLongBuffer().put(ib);
+		out.position(out.position() + size * 8);
+		out.asShortBuffer().put(cb);
+		out.position(out.position() + size * 2);
+		out.asShortBuffer().put(cRef);
+		out.position(out.position() + size * 2);
+	}
+
+	/**	Retrieve the number of bytes required to save this block index.
+	*
+	*	@return	The number of bytes which {@link #write} will write.
+	*/
+	int writeSize()
+	{
+		return 4 + size * (8 + 8 + 8 + 2 + 2);
+	}
+
+	/**	Test this class by reading in the block B-tree both as a BlockBTree and a BlockIndex, and checking that the same
+	*	blocks are found in each, and comparing the time taken to find all blocks.
+	*
+	*	@param	args	The command line arguments to the test application.
+	*/
+	public static void main(final String[] args)
+	{
+		if (args.length == 0) {
+			System.out.println("use:\n\tjava io.github.jmcleodfoss.pst.BlockIndex pst-file");
+			System.exit(1);
+		}
+
+		try {
+			PSTFile pstFile = new PSTFile(new java.io.FileInputStream(args[0]));
+
+			long start = System.nanoTime();
+			final BlockBTree bbt = new BlockBTree(0, pstFile.header.bbtRoot, pstFile);
+			System.out.printf("BlockBTree read in %.1f ms\n", (System.nanoTime() - start) / 1e6);
+
+			start = System.nanoTime();
+			final BlockIndex index = new BlockIndex(pstFile);
+			System.out.printf("BlockIndex read in %.1f ms, %d blocks\n", (System.nanoTime() - start) / 1e6, index.size());
+
+			java.util.ArrayList<BID> bids = new java.util.ArrayList<BID>();
+			int discrepancies = 0;
+			java.util.Iterator<BTreeNode> iterator = bbt.iterator();
+			while (iterator.hasNext()) {
+				final BBTEntry treeEntry = (BBTEntry)iterator.next();
+				final BBTEntry indexEntry = index.find(treeEntry.bref.bid);
+				bids.add(treeEntry.bref.bid);
+				if (indexEntry == null || treeEntry.toString().compareTo(indexEntry.toString()) != 0)
+					++discrepancies;
+			}
+			if (discrepancies == 0 && bids.size() == index.size())
+				System.out.printf("Success: all %d BIDs found\n", bids.size());
+			else
+				System.out.printf("Failure: %d out of %d BIDs not found or different, %d BIDs in index\n", discrepancies, bids.size(), index.size());
+
+			start = System.nanoTime();
+			for (BID b : bids)
+				bbt.find(b);
+			System.out.printf("BlockBTree found all blocks in %.1f ms\n", (System.nanoTime() - start) / 1e6);
+
+			start = System.nanoTime();
+			for (BID b : bids)
+				index.find(b);
+			System.out.printf("BlockIndex found all blocks in %.1f ms\n", (System.nanoTime() - start) / 1e6);
+		} catch (final Exception e) {
+			e.printStackTrace(System.out);
+		}
+	}
+}
@@ -39,18 +39,19 @@ class BlockTrailer {
 	/**	The CRC of this block. */
 	final int crc;
 
-	/**	Create a BlockTrailer object from the current position in the input datastream.
+	/**	Create a BlockTrailer object from the current position in the given data stream.
 	*
-	*	@param	pstFile	The PST file's header, input stream, etc.
+	*	@param	byteBuffer	The data stream, positioned at the start of the block trailer.
+	*	@param	pstFile		The PST file's header, input stream, etc.
 	*
 	*	@throws	java.io.IOException	An I/O error was encoutered while reading in the block trailer.
 	*/
-	BlockTrailer(PSTFile pstFile)
+	BlockTrailer(java.nio.ByteBuffer byteBuffer, PSTFile pstFile)
 	throws
 		java.io.IOException
 	{
 		DataContainer dc = new DataContainer();
-		dc.read(pstFile.mbb, common_fields, pstFile.unicode() ? unicode_fields : ansi_fields);
+		dc.read(byteBuffer, common_fields, pstFile.unicode() ? unicode_fields : ansi_fields);
 		crc = (Integer)dc.get(nm_dwCRC);
 	}
 
@@ -42,9 +42,97 @@ class CRC {
 		0xB3667A2E, 0xC4614AB8, 0x5D681B02, 0x2A6F2B94, 0xB40BBE37, 0xC30C8EA1, 0x5A05DF1B, 0x2D02EF8D
 	};
 
-	/**	Calculate the CRC for the incoming data. Note that this function uses 8-bit integers for all calculations. This is
-	*	based on the reference (32-bit integer) function found in the PST file format document, but in testing was found to
-	*	be 17.9% faster.
+	/**	The tables used to calculate the CRC eight bytes at a time ("slicing-by-8"). Table 0 is {@link #CrcTableOffset32}; each
+	*	entry in table k is the CRC of the corresponding byte followed by k zero bytes.
+	*/
+	private static final int[][] CrcTableSlice = new int[8][];
+	static {
+		CrcTableSlice[0] = CrcTableOffset32;
+		for (int k = 1; k < CrcTableSlice.length; ++k) {
+			CrcTableSlice[k] = new int[256];
+			for (int i = 0; i < 256; ++i) {
+				final int previous = CrcTableSlice[k-1][i];
+				CrcTableSlice[k][i] = (previous >>> 8) ^ CrcTableOffset32[previous & 0xff];
+			}
+		}
+	}
+
+	/**	Calculate the CRC for the incoming data, processing eight bytes at a time.
+	*
+	*	@param	data	The array of data from which to calculate the CRC.
+	*	@param	iStart	Where in the array to start calculating the CRC.
+	*	@param	size	How many bytes to span when calculating the CRC.
+	*
+	*	@return	The CRC for the block of data provided.
+	*/
+	static int crc(final byte[] data, final int iStart, final int size)
+	{
+		final int[] t0 = CrcTableSlice[0];
+		final int[] t1 = CrcTableSlice[1];
+		final int[] t2 = CrcTableSlice[2];
+		final int[] t3 = CrcTableSlice[3];
+		final int[] t4 = CrcTableSlice[4];
+		final int[] t5 = CrcTableSlice[5];
+		final int[] t6 = CrcTableSlice[6];
+		final int[] t7 = CrcTableSlice[7];
+
+		int crc = 0;
+		int i = iStart;
+		final int end = iStart + size;
+		for (final int end8 = end - 7; i < end8; i += 8) {
+			crc ^= (data[i] & 0xff) | (data[i+1] & 0xff) << 8 | (data[i+2] & 0xff) << 16 | (data[i+3] & 0xff) << 24;
+			crc = t7[crc & 0xff] ^ t6[(crc >>> 8) & 0xff] ^ t5[(crc >>> 16) & 0xff] ^ t4[crc >>> 24]
+				^ t3[data[i+4] & 0xff] ^ t2[data[i+5] & 0xff] ^ t1[data[i+6] & 0xff] ^ t0[data[i+7] & 0xff];
+		}
+		for (; i < end; ++i)
+			crc = t0[(crc ^ data[i]) & 0xff] ^ (crc >>> 8);
+		return crc;
+	}
+
+	/**	Calculate the CRC for the incoming data, processing eight bytes at a time. The buffer's position, limit, and byte order
+	*	are not changed, so the buffer may be shared.
+	*
+	*	@param	byteBuffer	The buffer containing the data from which to calculate the CRC.
+	*	@param	iStart		Where in the buffer (as an absolute index) to start calculating the CRC.
+	*	@param	size		How many bytes to span when calculating the CRC.
+	*
+	*	@return	The CRC for the block of data provided.
+	*/
+	static int crc(final java.nio.ByteBuffer byteBuffer, final int iStart, final int size)
+	{
+		if (iStart + size > byteBuffer.limit())
+			throw new java.nio.BufferUnderflowException();
+
+		if (byteBuffer.hasArray())
+			return crc(byteBuffer.array(), byteBuffer.arrayOffset() + iStart, size);
+
+		final int[] t0 = CrcTableSlice[0];
+		final int[] t1 = CrcTableSlice[1];
+		final int[] t2 = CrcTableSlice[2];
+		final int[] t3 = CrcTableSlice[3];
+		final int[] t4 = CrcTableSlice[4];
+		final int[] t5 = CrcTableSlice[5];
+		final int[] t6 = CrcTableSlice[6];
+		final int[] t7 = CrcTableSlice[7];
+
+		final java.nio.ByteBuffer bb = byteBuffer.duplicate().order(java.nio.ByteOrder.LITTLE_ENDIAN);
+		int crc = 0;
+		int i = iStart;
+		final int end = iStart + size;
+		for (final int end8 = end - 7; i < end8; i += 8) {
+			final long l = bb.getLong(i);
+			crc ^= (int)l;
+			final int high = (int)(l >>> 32);
+			crc = t7[crc & 0xff] ^ t6[(crc >>> 8) & 0xff] ^ t5[(crc >>> 16) & 0xff] ^ t4[crc >>> 24]
+				^ t3[high & 0xff] ^ t2[(high >>> 8) & 0xff] ^ t1[(high >>> 16) & 0xff] ^ t0[high >>> 24];
+		}
+		for (; i < end; ++i)
+			crc = t0[(crc ^ bb.get(i)) & 0xff] ^ (crc >>> 8);
+		return crc;
+	}
+
+	/**	Calculate the CRC for the incoming data one byte at a time. This is the original implementation, based on the
+	*	reference function found in the PST file format document; it is retained for comparison by {@link #main}.
 	*
 	*	@param	byteBuffer	The array of data from which to calculate the CRC.
 	*	@param	iStart		Where in the array to start calculating the CRC.
@@ -52,7 +140,7 @@ class CRC {
 	*
 	*	@return	The CRC for the block of data provided.
 	*/
-	static int crc(java.nio.ByteBuffer byteBuffer, int iStart, int size)
+	static int crcBytewise(java.nio.ByteBuffer byteBuffer, int iStart, int size)
 	{
 		int position = byteBuffer.position();
 		byteBuffer.position(iStart);
@@ -64,4 +152,48 @@ class CRC {
 		byteBuffer.position(position);
 		return crc;
 	}
+
+	/**	Compare the throughput of the CRC implementations on block-sized buffers.
+	*
+	*	@param	args	The command line arguments to the benchmark: the total number of megabytes to process on each pass
+	*			(default 256), and the size of each buffer (default 8192, the maximum block size).
+	*/
+	public static void main(final String[] args)
+	{
+		final int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+		final int bufferSize = args.length > 1 ? Integer.parseInt(args[1]) : BlockBase.MAX_BLOCK_BYTES;
+		final int iterations = (int)((long)megabytes * 1024 * 1024 / bufferSize);
+
+		final byte[] data = new byte[bufferSize];
+		new java.util.Random(0).nextBytes(data);
+		final java.nio.ByteBuffer heap = PSTFile.makeByteBuffer(data);
+		final java.nio.ByteBuffer direct = java.nio.ByteBuffer.allocateDirect(bufferSize);
+		direct.put(data);
+		direct.flip();
+
+		final int expected = crcBytewise(heap, 0, bufferSize);
+		if (crc(data, 0, bufferSize) != expected || crc(heap, 0, bufferSize) != expected || crc(direct, 0, bufferSize) != expected) {
+			System.out.println("CRC implementations disagree");
+			System.exit(1);
+		}
+
+		final String[] names = { "byte-at-a-time (ByteBuffer)", "slicing-by-8 (byte[])", "slicing-by-8 (read-only heap ByteBuffer)", "slicing-by-8 (direct ByteBuffer)" };
+		for (int pass = 0; pass < 3; ++pass) {
+			System.out.printf("Pass %d, %d MB in %d-byte buffers\n", pass + 1, megabytes, bufferSize);
+			for (int impl = 0; impl < names.length; ++impl) {
+				int sink = 0;
+				final long start = System.nanoTime();
+				for (int i = 0; i < iterations; ++i) {
+					switch (impl) {
+					case 0: sink += crcBytewise(heap, 0, bufferSize); break;
+					case 1: sink += crc(data, 0, bufferSize); break;
+					case 2: sink += crc(heap, 0, bufferSize); break;
+					case 3: sink += crc(direct, 0, bufferSize); break;
+					}
+				}
+				final double seconds = (System.nanoTime() - start) / 1e9;
+				System.out.printf("\t%-42s %8.1f MB/s (%08x)\n", names[impl], megabytes / seconds, sink);
+			}
+		}
+	}
 }
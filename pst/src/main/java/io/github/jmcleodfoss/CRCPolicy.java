@@ -0,0 +1,296 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The CRCPolicy class determines whether and how the CRC of each data block read from a PST file is verified. Each
+*	{@link PSTFile} has its own policy, so trusted files may be read without CRC checks while suspect files are still checked.
+*	<ul>
+*	<li>{@link #ALWAYS} checks every block as it is read, throwing an exception if the CRC does not match.</li>
+*	<li>{@link #sampled} checks a fixed fraction of blocks as they are read, chosen by block ID.</li>
+*	<li>{@link #deferred} checks every block on the given executor, recording blocks whose CRC does not match instead of
+*	    throwing an exception on the reading thread.</li>
+*	<li>{@link #OFF} does not check block CRCs, or the header CRCs.</li>
+*	</ul>
+*	Only blocks read from the file are checked; blocks found in the {@link BlockCache} were checked when they were first read.
+*
+*	@see	PSTFile#crcPolicy
+*	@see	SimpleBlock
+*/
+public abstract class CRCPolicy {
+
+	/**	The Failure class describes a block whose stored CRC did not match the CRC calculated from its contents, or whose CRC
+	*	could not be checked at all.
+	*/
+	public static class Failure {
+
+		/**	The block ID of the block. */
+		public final long bid;
+
+		/**	The location of the block in the PST file. */
+		public final long ib;
+
+		/**	The CRC stored in the block's trailer. */
+		public final int crcStored;
+
+		/**	The CRC calculated from the block's contents. */
+		public final int crcCalculated;
+
+		/**	The reason the block's CRC could not be checked, or null if the CRCs were compared (in which case crcStored and
+		*	crcCalculated are meaningful).
+		*/
+		public final Throwable cause;
+
+		/**	Create a description of a block whose CRC did not match.
+		*
+		*	@param	entry		The block B-tree entry describing the block.
+		*	@param	crcStored	The CRC stored in the block's trailer.
+		*	@param	crcCalculated	The CRC calculated from the block's contents.
+		*/
+		private Failure(final BBTEntry entry, final int crcStored, final int crcCalculated)
+		{
+			bid = entry.bref.bid.key();
+			ib = entry.bref.ib.ib;
+			this.crcStored = crcStored;
+			this.crcCalculated = crcCalculated;
+			cause = null;
+		}
+
+		/**	Create a description of a block whose CRC could not be checked.
+		*
+		*	@param	entry	The block B-tree entry describing the block.
+		*	@param	cause	The exception thrown while checking the block.
+		*/
+		private Failure(final BBTEntry entry, final Throwable cause)
+		{
+			bid = entry.bref.bid.key();
+			ib = entry.bref.ib.ib;
+			crcStored = 0;
+			crcCalculated = 0;
+			this.cause = cause;
+		}
+
+		/**	Provide a description of the failure.
+		*
+		*	@return	A string describing the block and its stored and calculated CRCs, or why they could not be compared.
+		*/
+		@Override
+		public String toString()
+		{
+			if (cause != null)
+				return "Block 0x" + Long.toHexString(bid) + " at 0x" + Long.toHexString(ib) + " CRC could not be checked: " + cause;
+			return "Block 0x" + Long.toHexString(bid) + " at 0x" + Long.toHexString(ib) + " CRC " + Integer.toHexString(crcStored) + " does not match calculated value " + Integer.toHexString(crcCalculated);
+		}
+	}
+
+	/**	The Deferred class is a CRC policy which checks blocks on an executor (typically a background thread), and records
+	*	any failures rather than throwing an exception.
+	*/
+	public static class Deferred extends CRCPolicy {
+
+		/**	The executor on which block CRCs are checked. */
+		private final java.util.concurrent.Executor executor;
+
+		/**	The blocks whose CRCs did not match. */
+		private final java.util.List<Failure> failures;
+
+		/**	The number of blocks which have been checked. */
+		private final java.util.concurrent.atomic.AtomicLong blocksChecked;
+
+		/**	Create a deferred CRC policy using the given executor.
+		*
+		*	@param	executor	The executor on which to check block CRCs.
+		*/
+		private Deferred(final java.util.concurrent.Executor executor)
+		{
+			this.executor = executor;
+			failures = java.util.Collections.synchronizedList(new java.util.ArrayList<Failure>());
+			blocksChecked = new java.util.concurrent.atomic.AtomicLong();
+		}
+
+		/**	Retrieve the number of blocks whose CRCs have been checked so far.
+		*
+		*	@return	The number of blocks checked.
+		*/
+		public long blocksChecked()
+		{
+			return blocksChecked.get();
+		}
+
+		/**	Retrieve the blocks whose CRCs have been found not to match so far.
+		*
+		*	@return	A copy of the list of CRC failures.
+		*/
+		public java.util.List<Failure> failures()
+		{
+			synchronized (failures) {
+				return new java.util.ArrayList<Failure>(failures);
+			}
+		}
+
+		/**	{@inheritDoc} */
+		@Override
+		boolean shouldCheck(final BID bid)
+		{
+			return true;
+		}
+
+		/**	Queue a check of the given block on the executor.
+		*
+		*	@param	entry		The block B-tree entry describing the block.
+		*	@param	blockSize	The size of the block, including the block trailer.
+		*	@param	pstFile		The PST file containing the block.
+		*/
+		@Override
+		void verify(final BBTEntry entry, final int blockSize, final PSTFile pstFile)
+		{
+			executor.execute(new Runnable() {
+				public void run()
+				{
+					try {
+						final Failure failure = check(entry, blockSize, pstFile);
+						if (failure != null)
+							failures.add(failure);
+					} catch (final java.io.IOException e) {
+						// The block could not be read at all.
+						failures.add(new Failure(entry, e));
+					} catch (final RuntimeException e) {
+						// The block or its trailer could not be interpreted.
+						failures.add(new Failure(entry, e));
+					} finally {
+						blocksChecked.incrementAndGet();
+					}
+				}
+			});
+		}
+	}
+
+	/**	The Sampled class is a CRC policy which checks a fixed fraction of blocks, chosen by block ID so that the same blocks
+	*	are checked each time the file is read.
+	*/
+	private static class Sampled extends CRCPolicy {
+
+		/**	The threshold below which the hashed block ID must fall for the block to be checked. */
+		private final long threshold;
+
+		/**	Create a sampled CRC policy.
+		*
+		*	@param	fraction	The fraction of blocks to check, from 0 to 1.
+		*/
+		private Sampled(final double fraction)
+		{
+			threshold = (long)(Math.max(0.0, Math.min(1.0, fraction)) * (1L << 24));
+		}
+
+		/**	{@inheritDoc} */
+		@Override
+		boolean shouldCheck(final BID bid)
+		{
+			return ((bid.key() * 0x9e3779b97f4a7c15L) >>> 40) < threshold;
+		}
+	}
+
+	/**	A policy which checks the CRC of every block as it is read. This is the default. */
+	public static final CRCPolicy ALWAYS = new CRCPolicy() {
+		@Override
+		boolean shouldCheck(final BID bid)
+		{
+			return true;
+		}
+	};
+
+	/**	A policy which does not check the CRC of any block, or of the header. */
+	public static final CRCPolicy OFF = new CRCPolicy() {
+		@Override
+		boolean checkHeader()
+		{
+			return false;
+		}
+
+		@Override
+		boolean shouldCheck(final BID bid)
+		{
+			return false;
+		}
+	};
+
+	/**	Create a policy which checks the CRCs of all blocks on the given executor, recording any failures.
+	*
+	*	@param	executor	The executor on which to check block CRCs; the caller remains responsible for shutting it down.
+	*
+	*	@return	A CRC policy which checks blocks on the given executor.
+	*/
+	public static Deferred deferred(final java.util.concurrent.Executor executor)
+	{
+		return new Deferred(executor);
+	}
+
+	/**	Create a policy which checks the CRCs of a fraction of the blocks as they are read.
+	*
+	*	@param	fraction	The fraction of blocks to check, from 0 (none) to 1 (all).
+	*
+	*	@return	A CRC policy which checks the requested fraction of blocks.
+	*/
+	public static CRCPolicy sampled(final double fraction)
+	{
+		return new Sampled(fraction);
+	}
+
+	/**	Indicate whether the CRCs in the PST file header should be checked.
+	*
+	*	@return	true if the header CRCs should be checked, false otherwise.
+	*/
+	boolean checkHeader()
+	{
+		return true;
+	}
+
+	/**	Indicate whether the given block should be checked.
+	*
+	*	@param	bid	The block ID of the block.
+	*
+	*	@return	true if the block's CRC should be checked, false otherwise.
+	*/
+	abstract boolean shouldCheck(BID bid);
+
+	/**	Check the CRC of the given block, if this policy requires it.
+	*
+	*	@param	entry		The block B-tree entry describing the block.
+	*	@param	blockSize	The size of the block, including the block trailer.
+	*	@param	pstFile		The PST file containing the block.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the block.
+	*/
+	void verify(final BBTEntry entry, final int blockSize, final PSTFile pstFile)
+	throws
+		java.io.IOException
+	{
+		if (!shouldCheck(entry.bref.bid))
+			return;
+
+		final Failure failure = check(entry, blockSize, pstFile);
+		if (failure != null)
+			throw new RuntimeException(failure.toString());
+	}
+
+	/**	Calculate the CRC of the given block's (encrypted) data in the PST file, and compare it to the CRC stored in the block
+	*	trailer.
+	*
+	*	@param	entry		The block B-tree entry describing the block.
+	*	@param	blockSize	The size of the block, including the block trailer.
+	*	@param	pstFile		The PST file containing the block.
+	*
+	*	@return	A description of the failure if the CRCs do not match, or null if they do.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the block.
+	*/
+	static Failure check(final BBTEntry entry, final int blockSize, final PSTFile pstFile)
+	throws
+		java.io.IOException
+	{
+		final java.nio.ByteBuffer data = pstFile.dataStream(entry.bref.ib.ib, entry.numBytes);
+		final int crcCalculated = CRC.crc(data, data.position(), entry.numBytes);
+		final int trailerSize = BlockTrailer.size(pstFile);
+		final BlockTrailer trailer = new BlockTrailer(pstFile.dataStream(entry.bref.ib.ib + blockSize - trailerSize, trailerSize), pstFile);
+		if (crcCalculated == trailer.crc)
+			return null;
+		return new Failure(entry, trailer.crc, crcCalculated);
+	}
+}
@@ -0,0 +1,200 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The ChildIndex class maps the node ID of each node in the node B-tree which is the parent of other nodes to the node IDs of
+*	its children, using the parent node ID held in every node B-tree leaf entry. This allows the sub-folders and messages in a
+*	folder to be found without reading the folder's hierarchy or contents table.
+*
+*	The index is held as three arrays of primitive values: the distinct parent node IDs in ascending order, the position in the
+*	array of children at which each parent's children start, and the children of each parent, in ascending order.
+*
+*	@see	PST#messageNodes
+*	@see	PST#subfolderNodes
+*/
+class ChildIndex {
+
+	/**	The initial capacity of the array of parent / child pairs, which grows as required while the node B-tree is read. */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**	The node IDs of the parent nodes, in ascending order. */
+	private final int[] parents;
+
+	/**	The position in {@link #children} of the first child of each parent, followed by the total number of children. */
+	private final int[] start;
+
+	/**	The node IDs of the children of each parent, in ascending order for each parent. */
+	private final int[] children;
+
+	/**	Build the child index for the given node B-tree.
+	*
+	*	@param	nbt	The PST file's node B-tree.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the node B-tree.
+	*/
+	ChildIndex(final NodeMap nbt)
+	throws
+		java.io.IOException
+	{
+		// Each parent / child pair is packed into a long with the parent in the high-order word, so that sorting the pairs
+		// groups the children of each parent together, in order.
+		long[] pairs = new long[INITIAL_CAPACITY];
+		int numPairs = 0;
+		final NodeCursor cursor = nbt.cursor(Integer.MIN_VALUE, Integer.MAX_VALUE);
+		while (cursor.next()) {
+			final int nid = cursor.nidKey();
+			final int nidParent = (int)cursor.entry().nidParent.key();
+
+			// Nodes without a parent have a parent node ID of 0, and the root folder is its own parent.
+			if (nidParent == 0 || nidParent == nid)
+				continue;
+
+			if (numPairs == pairs.length)
+				pairs = java.util.Arrays.copyOf(pairs, numPairs * 2);
+			pairs[numPairs++] = (long)nidParent << 32 | nid & 0xffffffffL;
+		}
+		java.util.Arrays.sort(pairs, 0, numPairs);
+
+		int numParents = 0;
+		for (int i = 0; i < numPairs; ++i) {
+			if (i == 0 || (int)(pairs[i] >> 32) != (int)(pairs[i - 1] >> 32))
+				++numParents;
+		}
+
+		parents = new int[numParents];
+		start = new int[numParents + 1];
+		children = new int[numPairs];
+		int parent = -1;
+		for (int i = 0; i < numPairs; ++i) {
+			if (i == 0 || (int)(pairs[i] >> 32) != (int)(pairs[i - 1] >> 32)) {
+				parents[++parent] = (int)(pairs[i] >> 32);
+				start[parent] = i;
+			}
+			children[i] = (int)pairs[i];
+		}
+		start[numParents] = numPairs;
+	}
+
+	/**	Retrieve the node IDs of all children of the given node.
+	*
+	*	@param	nidParent	The node ID of the parent node.
+	*
+	*	@return	The node IDs of the children of the given node, in ascending order.
+	*/
+	int[] children(final int nidParent)
+	{
+		final int i = java.util.Arrays.binarySearch(parents, nidParent);
+		if (i < 0)
+			return new int[0];
+		return java.util.Arrays.copyOfRange(children, start[i], start[i + 1]);
+	}
+
+	/**	Retrieve the node IDs of the children of the given node which are of the given types.
+	*
+	*	@param	nidParent	The node ID of the parent node.
+	*	@param	types		The node types to include, as a bit mask in which bit n is set to include nodes of type n.
+	*
+	*	@return	The node IDs of the children of the given node which are of the given types, in ascending order.
+	*/
+	int[] children(final int nidParent, final int types)
+	{
+		final int i = java.util.Arrays.binarySearch(parents, nidParent);
+		if (i < 0)
+			return new int[0];
+
+		int numChildren = 0;
+		for (int c = start[i]; c < start[i + 1]; ++c) {
+			if ((types & 1 << (children[c] & NID.TYPE_MASK)) != 0)
+				++numChildren;
+		}
+
+		final int[] selected = new int[numChildren];
+		numChildren = 0;
+		for (int c = start[i]; c < start[i + 1]; ++c) {
+			if ((types & 1 << (children[c] & NID.TYPE_MASK)) != 0)
+				selected[numChildren++] = children[c];
+		}
+		return selected;
+	}
+
+	/**	Retrieve the number of children of the given node.
+	*
+	*	@param	nidParent	The node ID of the parent node.
+	*
+	*	@return	The number of children of the given node.
+	*/
+	int numberOfChildren(final int nidParent)
+	{
+		final int i = java.util.Arrays.binarySearch(parents, nidParent);
+		return i >= 0 ? start[i + 1] - start[i] : 0;
+	}
+
+	/**	Retrieve the number of nodes with children.
+	*
+	*	@return	The number of parent nodes in the index.
+	*/
+	int numberOfParents()
+	{
+		return parents.length;
+	}
+
+	/**	Retrieve the bit mask which selects nodes of the given type in {@link #children(int, int)}.
+	*
+	*	@param	type	The node type to select.
+	*
+	*	@return	The bit mask selecting nodes of the given type.
+	*/
+	static int typeMask(final byte type)
+	{
+		return 1 << type;
+	}
+
+	/**	Test this class by building the child index for a PST file and comparing the sub-folders found for each folder with
+	*	those in the folder's hierarchy table.
+	*
+	*	@param	args	The command line arguments to the test application.
+	*/
+	public static void main(final String[] args)
+	{
+		if (args.length == 0) {
+			System.out.println("use:\n\tjava io.github.jmcleodfoss.pst.ChildIndex pst-file");
+			System.exit(1);
+		}
+
+		try {
+			PSTFile pstFile = new PSTFile(new java.io.FileInputStream(args[0]));
+			final BlockMap bbt = new BlockIndex(pstFile);
+			final NodeIndex nbt = new NodeIndex(pstFile);
+
+			final long start = System.nanoTime();
+			final ChildIndex index = new ChildIndex(nbt);
+			System.out.printf("ChildIndex built in %.1f ms, %d parents\n", (System.nanoTime() - start) / 1e6, index.numberOfParents());
+
+			final int folderTypes = typeMask(NID.NORMAL_FOLDER) | typeMask(NID.SEARCH_FOLDER);
+			int folders = 0;
+			int discrepancies = 0;
+			final NodeCursor cursor = nbt.cursor(NID.NORMAL_FOLDER);
+			while (cursor.next()) {
+				++folders;
+				final NBTEntry hierarchyTableNode = nbt.find(new NID(cursor.entry().nid, NID.HIERARCHY_TABLE));
+				final int[] subfolders = index.children(cursor.nidKey(), folderTypes);
+				if (hierarchyTableNode == null) {
+					if (subfolders.length != 0)
+						++discrepancies;
+					continue;
+				}
+
+				final TableContext hierarchyTable = new TableContext(hierarchyTableNode, bbt, pstFile);
+				final int[] rows = new int[hierarchyTable.getRowCount()];
+				for (int row = 0; row < rows.length; ++row)
+					rows[row] = (Integer)hierarchyTable.get(row, PropertyTag.LtpRowId);
+				java.util.Arrays.sort(rows);
+				if (!java.util.Arrays.equals(rows, subfolders)) {
+					System.out.printf("folder %s: hierarchy table %s, child index %s\n", cursor.entry().nid, java.util.Arrays.toString(rows), java.util.Arrays.toString(subfolders));
+					++discrepancies;
+				}
+			}
+			System.out.printf("%d out of %d folders differ\n", discrepancies, folders);
+		} catch (final Exception e) {
+			e.printStackTrace(System.out);
+		}
+	}
+}
@@ -142,6 +142,36 @@ public class Contact extends MessageObject {
 		return String.format("%s", subject);
 	}
 
+	/**	Obtain the tags of the contents table columns read when creating a contact.
+	*
+	*	@param	fUnicode	Whether the PST file is a Unicode or ANSI PST file.
+	*
+	*	@return	The tags of the contact columns used from the folder contents table.
+	*
+	*	@see	MessageObject#contentsTableTags
+	*/
+	static int[] contentsTableTags(final boolean fUnicode)
+	{
+		return new int[]{
+			fUnicode ? PropertyTag.DisplayNameW : PropertyTag.DisplayName,
+			fUnicode ? PropertyTag.CompanyNameW : PropertyTag.CompanyName,
+			fUnicode ? PropertyTag.ConversationTopicW : PropertyTag.ConversationTopic,
+			fUnicode ? PropertyTag.GivenNameW : PropertyTag.GivenName,
+			fUnicode ? PropertyTag.MiddleNameW : PropertyTag.MiddleName,
+			fUnicode ? PropertyTag.SurnameW : PropertyTag.Surname,
+			fUnicode ? PropertyTag.HomeTelephoneNumberW : PropertyTag.HomeTelephoneNumber,
+			PropertyTag.HomeFaxNumberW,
+			fUnicode ? PropertyTag.MobileTelephoneNumberW : PropertyTag.MobileTelephoneNumber,
+			fUnicode ? PropertyTag.BusinessTelephoneNumberW : PropertyTag.BusinessTelephoneNumber,
+			fUnicode ? PropertyTag.BusinessFaxNumberW : PropertyTag.BusinessFaxNumber,
+			fUnicode ? PropertyTag.PostalAddressW : PropertyTag.PostalAddress,
+			fUnicode ? PropertyTag.OtherTelephoneNumberW : PropertyTag.OtherTelephoneNumber,
+			emailAddressPropertyIDs[0],
+			emailAddressPropertyIDs[1],
+			emailAddressPropertyIDs[2]
+		};
+	}
+
 	/**	Save named property IDs for IDs of interest.
 	*
 	*	@param	namedProperties	The list of named properties.
@@ -0,0 +1,231 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The DataTreeInputStream class provides sequential access to a large property value, such as attachment data, which is
+*	stored in a data block or a data tree (XBLOCK or XXBLOCK) in the PST file. Each data block is read and decrypted only when
+*	the stream reaches it, and is not kept afterwards, so the whole value is never held in memory at once.
+*
+*	The stream may be read either as a java.io.InputStream or as a java.nio.channels.ReadableByteChannel, and
+*	{@link #transferTo} copies the remainder of the value to a channel a block at a time.
+*
+*	@see	Attachment#openStream
+*	@see	PropertyContext#openStream
+*	@see	XBlock
+*/
+public class DataTreeInputStream extends java.io.InputStream implements java.nio.channels.ReadableByteChannel {
+
+	/**	The iterator through the blocks which have not yet been reached. */
+	private final java.util.Iterator<java.nio.ByteBuffer> blockIterator;
+
+	/**	The unread data in the current block, or null if there is no current block. */
+	private java.nio.ByteBuffer current;
+
+	/**	Whether the stream has been closed. */
+	private boolean fClosed;
+
+	/**	Create a stream through the data in the given block or data tree.
+	*
+	*	@param	entry	The block B-tree entry for the data block or the root of the data tree.
+	*	@param	bbt	The PST file's block B-tree.
+	*	@param	pstFile	The PST file's data stream, etc.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the data tree.
+	*/
+	DataTreeInputStream(final BBTEntry entry, final BlockMap bbt, PSTFile pstFile)
+	throws
+		java.io.IOException
+	{
+		this(BlockBase.read(entry, bbt, pstFile, true).iterator());
+	}
+
+	/**	Create a stream through the given data, which has already been read.
+	*
+	*	@param	data	The data to return from the stream.
+	*/
+	DataTreeInputStream(final byte[] data)
+	{
+		this(java.util.Collections.singletonList(java.nio.ByteBuffer.wrap(data)).iterator());
+	}
+
+	/**	Create a stream through the blocks returned by the given iterator.
+	*
+	*	@param	blockIterator	The iterator through the data for each block.
+	*/
+	private DataTreeInputStream(final java.util.Iterator<java.nio.ByteBuffer> blockIterator)
+	{
+		this.blockIterator = blockIterator;
+	}
+
+	/**	Obtain the unread data in the current block, moving on to the next block if the current block has been read.
+	*
+	*	@return	The unread data in the current block, or null if the end of the data has been reached.
+	*
+	*	@throws	java.io.IOException	The stream has been closed, or an I/O error was encountered while reading the next block.
+	*/
+	private java.nio.ByteBuffer block()
+	throws
+		java.io.IOException
+	{
+		if (fClosed)
+			throw new java.nio.channels.ClosedChannelException();
+
+		while (current == null || !current.hasRemaining()) {
+			if (!blockIterator.hasNext()) {
+				current = null;
+				return null;
+			}
+
+			try {
+				current = blockIterator.next();
+			} catch (final RuntimeException e) {
+				if (e.getCause() instanceof java.io.IOException)
+					throw (java.io.IOException)e.getCause();
+				throw e;
+			}
+		}
+
+		return current;
+	}
+
+	/**	Obtain the number of bytes which may be read without reading another block.
+	*
+	*	@return	The number of unread bytes in the current block.
+	*/
+	@Override
+	public int available()
+	{
+		return fClosed || current == null ? 0 : current.remaining();
+	}
+
+	/**	Close the stream. Any blocks which have not been reached are not read. */
+	@Override
+	public void close()
+	{
+		fClosed = true;
+		current = null;
+	}
+
+	/**	Indicate whether the stream is open.
+	*
+	*	@return	true if the stream has not been closed, false if it has.
+	*/
+	public boolean isOpen()
+	{
+		return !fClosed;
+	}
+
+	/**	Read the next byte.
+	*
+	*	@return	The next byte, as a value between 0 and 255, or -1 if the end of the data has been reached.
+	*
+	*	@throws	java.io.IOException	The stream has been closed, or an I/O error was encountered while reading the next block.
+	*/
+	@Override
+	public int read()
+	throws
+		java.io.IOException
+	{
+		final java.nio.ByteBuffer block = block();
+		return block == null ? -1 : block.get() & 0xff;
+	}
+
+	/**	Read up to len bytes into the given array. No more than the rest of the current block is read.
+	*
+	*	@param	b	The array into which to read the data.
+	*	@param	off	The offset in b at which to store the first byte read.
+	*	@param	len	The maximum number of bytes to read.
+	*
+	*	@return	The number of bytes read, or -1 if the end of the data has been reached.
+	*
+	*	@throws	java.io.IOException	The stream has been closed, or an I/O error was encountered while reading the next block.
+	*/
+	@Override
+	public int read(final byte[] b, final int off, final int len)
+	throws
+		java.io.IOException
+	{
+		if (off < 0 || len < 0 || len > b.length - off)
+			throw new IndexOutOfBoundsException();
+		if (len == 0)
+			return 0;
+
+		final java.nio.ByteBuffer block = block();
+		if (block == null)
+			return -1;
+
+		final int n = Math.min(len, block.remaining());
+		block.get(b, off, n);
+		return n;
+	}
+
+	/**	Read data into the given buffer. No more than the rest of the current block is read.
+	*
+	*	@param	dst	The buffer into which to read the data.
+	*
+	*	@return	The number of bytes read, or -1 if the end of the data has been reached.
+	*
+	*	@throws	java.io.IOException	The stream has been closed, or an I/O error was encountered while reading the next block.
+	*/
+	public int read(final java.nio.ByteBuffer dst)
+	throws
+		java.io.IOException
+	{
+		final java.nio.ByteBuffer block = block();
+		if (block == null)
+			return -1;
+
+		final int n = Math.min(dst.remaining(), block.remaining());
+		final java.nio.ByteBuffer src = block.duplicate();
+		src.limit(src.position() + n);
+		dst.put(src);
+		block.position(block.position() + n);
+		return n;
+	}
+
+	/**	Skip over up to n bytes of data, reading only the blocks which contain the data skipped over.
+	*
+	*	@param	n	The number of bytes to skip.
+	*
+	*	@return	The number of bytes skipped.
+	*
+	*	@throws	java.io.IOException	The stream has been closed, or an I/O error was encountered while reading the next block.
+	*/
+	@Override
+	public long skip(final long n)
+	throws
+		java.io.IOException
+	{
+		long skipped = 0;
+		while (skipped < n) {
+			final java.nio.ByteBuffer block = block();
+			if (block == null)
+				break;
+
+			final int step = (int)Math.min(n - skipped, block.remaining());
+			block.position(block.position() + step);
+			skipped += step;
+		}
+		return skipped;
+	}
+
+	/**	Write the rest of the data to the given channel, one block at a time.
+	*
+	*	@param	target	The channel to write the data to.
+	*
+	*	@return	The number of bytes written.
+	*
+	*	@throws	java.io.IOException	The stream has been closed, or an I/O error was encountered while reading a block or writing
+	*					to the channel.
+	*/
+	public long transferTo(final java.nio.channels.WritableByteChannel target)
+	throws
+		java.io.IOException
+	{
+		long transferred = 0;
+		java.nio.ByteBuffer block;
+		while ((block = block()) != null) {
+			while (block.hasRemaining())
+				transferred += target.write(block);
+		}
+		return transferred;
+	}
+}
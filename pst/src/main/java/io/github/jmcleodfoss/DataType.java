@@ -1226,10 +1226,7 @@ abstract class DataType {
 		*/
 		public Object read(java.nio.ByteBuffer byteBuffer)
 		{
-			long hundred_ns = byteBuffer.getLong();
-			long ms = hundred_ns/10000;
-			ms += PST_BASE_TIME.getTime();
-			return new java.util.Date(ms);
+			return new java.util.Date(timeMillis(byteBuffer.getLong()));
 		}
 
 		/**	Obtain the size in bytes of an MS time object in a PST file.
@@ -1245,6 +1242,17 @@ abstract class DataType {
 		private static final Time reader = new Time();
 	}
 
+	/**	Convert an MS time to a Java time.
+	*
+	*	@param	hundred_ns	The MS time, in hundreds of nanoseconds since January 1, 1601.
+	*
+	*	@return	The Java time, in milliseconds since January 1, 1970.
+	*/
+	static long timeMillis(final long hundred_ns)
+	{
+		return hundred_ns/10000 + Time.PST_BASE_TIME.getTime();
+	}
+
 
 	/**	The SizedInteger16Array class described how to read and display an array of 16-bit integers whose size is known. */
 	static class SizedInt16Array extends SizedObject {
@@ -305,6 +305,15 @@ class Encryption {
 		}
 	}
 
+	/**	Indicate whether this encryption method leaves data unchanged, so that data may be used directly from the PST file.
+	*
+	*	@return	true if this is the {@link #NOB_CRYPT_NONE} encryption method, false otherwise.
+	*/
+	boolean isNone()
+	{
+		return translator instanceof TranslaterNone;
+	}
+
 	/**	Obtain a description of the encryption method.
 	*
 	*	@return	A description of the encryption method.
@@ -103,12 +103,18 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 		java.io.IOException
 	{
 		this.nodeFolderObject = nodeFolderObject;
-		PropertyContext folderObject = new PropertyContext(nodeFolderObject, bbt, pstFile);
+		final int[] folderTags = {
+			pstFile.unicode() ? PropertyTag.DisplayNameW : PropertyTag.DisplayName,
+			pstFile.unicode() ? PropertyTag.ContainerClassW : PropertyTag.ContainerClass,
+			PropertyTag.Subfolders,
+			PropertyTag.ContentCount
+		};
+		PropertyContext folderObject = new PropertyContext(nodeFolderObject, bbt, pstFile, folderTags);
 
 		displayName = (String)folderObject.get(pstFile.unicode() ? PropertyTag.DisplayNameW : PropertyTag.DisplayName);
 		containerClass = (String)folderObject.get(pstFile.unicode() ? PropertyTag.ContainerClassW : PropertyTag.ContainerClass);
 
-		if ((Boolean)folderObject.get(PropertyTag.Subfolders) && levelsToRead.readSubfolders()) {
+		if (folderObject.getBoolean(PropertyTag.Subfolders, false) && levelsToRead.readSubfolders()) {
 			NID nidHierarchyTable = new NID(nodeFolderObject.nid, NID.HIERARCHY_TABLE);
 			nodeHierarchyTable = nbt.find(nidHierarchyTable);
 			subfolders = readSubfolders(nodeHierarchyTable, bbt, nbt, pstFile, levelsToRead, fReadContents);
@@ -117,7 +123,7 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 			subfolders = new java.util.Vector<Folder>();
 		}
 
-		if ((Integer)folderObject.get(PropertyTag.ContentCount) > 0 && fReadContents) {
+		if (folderObject.getInt(PropertyTag.ContentCount, 0) > 0 && fReadContents) {
 			NID nidContentsTable = new NID(nodeFolderObject.nid, NID.CONTENTS_TABLE);
 			nodeContentsTable = nbt.find(nidContentsTable);
 			contents = readContents(nodeContentsTable, bbt, nbt, pstFile);
@@ -353,7 +359,7 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 		UnparseableTableContextException,
 		java.io.IOException
 	{
-		TableContext contentsTable = new TableContext(nodeContentsTable, bbt, pstFile);
+		TableContext contentsTable = new TableContext(nodeContentsTable, bbt, pstFile, MessageObject.contentsTableTags(pstFile.unicode()));
 
 		java.util.Vector<MessageObject> contents = new java.util.Vector<MessageObject>(contentsTable.getRowCount());
 		for (int row = 0; row < contentsTable.getRowCount(); ++row)
@@ -361,6 +367,45 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 		return contents;
 	}
 
+	/**	Read in a single message object from the given folder contents table. The message's row is found through the table's
+	*	row index, so no other rows are decoded.
+	*
+	*	@param	nodeContentsTable	The description of the folder contents table.
+	*	@param	nidMessage		The node ID of the message object to read.
+	*	@param	bbt			The PST file's block B-tree.
+	*	@param	nbt			The PST file's node B-tree.
+	*	@param	pstFile			The PST file's incoming data stream, header, etc.
+	*
+	*	@return	The message object, or null if the contents table has no row for the given node ID.
+	*
+	*	@throws NotHeapNodeException			A node which was not a heap node was found when reading in the message object.
+	*	@throws NotPropertyContextNodeException		A node without the Property Context client signature was found when building a property context.
+	*	@throws NotTableContextNodeException		A node without the Table Context client signature was found when building a table context.
+	*	@throws NullDataBlockException			A null data block was found when building a property context.
+	*	@throws UnknownClientSignatureException		An unrecognized client signature was encountered.
+	*	@throws UnparseablePropertyContextException	The property context could not be read.
+	*	@throws UnparseableTableContextException	The table context could not be read.
+	*	@throws java.io.IOException			There was a problem reading the PST file.
+	*
+	*	@see	TableContext#rowForId
+	*/
+	public static MessageObject readMessage(final NBTEntry nodeContentsTable, final NID nidMessage, final BlockMap bbt, final NodeMap nbt, PSTFile pstFile)
+	throws
+		NotHeapNodeException,
+		NotPropertyContextNodeException,
+		NotTableContextNodeException,
+		NullDataBlockException,
+		UnknownClientSignatureException,
+		UnparseablePropertyContextException,
+		UnparseableTableContextException,
+		java.io.IOException
+	{
+		TableContext contentsTable = new TableContext(nodeContentsTable, bbt, pstFile, MessageObject.contentsTableTags(pstFile.unicode()));
+
+		final int row = contentsTable.rowForId((int)nidMessage.key());
+		return row == -1 ? null : MessageObject.factory(contentsTable, row, bbt, nbt, pstFile);
+	}
+
 	/**	Read in the sub-folders of the given folder.
 	*
 	*	@param	nodeHierarchyTable	The description of the folder.
@@ -392,7 +437,7 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 		UnparseableTableContextException,
 		java.io.IOException
 	{
-		TableContext hierarchyTable = new TableContext(nodeHierarchyTable, bbt, pstFile);
+		TableContext hierarchyTable = new TableContext(nodeHierarchyTable, bbt, pstFile, new int[]{PropertyTag.LtpRowId});
 
 		java.util.Vector<Folder> subfolders = new java.util.Vector<Folder>(hierarchyTable.getRowCount());
 		levelsToRead.decrement();
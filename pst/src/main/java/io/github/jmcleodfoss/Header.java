@@ -135,6 +135,12 @@ public class Header {
 	/**	The location of the root of the block B-tree. */
 	public final BREF bbtRoot;
 
+	/**	The partial CRC stored in the header. */
+	public final int crcPartial;
+
+	/**	The full CRC stored in the header, or 0 for ANSI files, which do not have one. */
+	public final int crcFull;
+
 	/**	Read in the header data and save the fields we need for later.
 	*
 	*	@param	byteBuffer	The data stream from which to read the PST header.
@@ -143,13 +149,29 @@ public class Header {
 	*	@throws	java.io.IOException	An I/O error was encountered when reading the pst header.
 	*/
 	Header(java.nio.ByteBuffer byteBuffer)
+	throws
+		NotPSTFileException,
+		java.io.IOException
+	{
+		this(byteBuffer, true);
+	}
+
+	/**	Read in the header data and save the fields we need for later.
+	*
+	*	@param	byteBuffer	The data stream from which to read the PST header.
+	*	@param	checkCRC	Whether to check the header's CRCs.
+	*
+	*	@throws	NotPSTFileException	This is not a pst file.
+	*	@throws	java.io.IOException	An I/O error was encountered when reading the pst header.
+	*/
+	Header(java.nio.ByteBuffer byteBuffer, final boolean checkCRC)
 	throws
 		NotPSTFileException,
 		java.io.IOException
 	{
 		int crcPartialCalculated = 0;
 		int crcFullCalculated = 0;
-		if (Options.checkCRC) {
+		if (checkCRC) {
 			crcPartialCalculated = CRC.crc(byteBuffer, CRC_START_OFFSET, CRC_PARTIAL_BYTES);
 			crcFullCalculated = CRC.crc(byteBuffer, CRC_START_OFFSET, CRC_FULL_BYTES);
 		}
@@ -157,17 +179,19 @@ public class Header {
 		DataContainer dc = new DataContainer();
 		dc.read(byteBuffer, common_fields);
 		validate_dwMagic(dc);
-		validate_CRC(crcPartialCalculated, nm_dwCRCPartial, dc);
+		validate_CRC(checkCRC, crcPartialCalculated, nm_dwCRCPartial, dc);
 
 		fileFormat = new FileFormat((Short)dc.get(nm_wVer));
 
 		dc.read(byteBuffer, fileFormat.fUnicode ? unicode_fields : ansi_fields);
 		if (fileFormat.fUnicode)
-			validate_CRC(crcFullCalculated, nm_dwCRCFull, dc);
+			validate_CRC(checkCRC, crcFullCalculated, nm_dwCRCFull, dc);
 
 		encryption = new Encryption((Byte)dc.get(nm_bCryptMethod));
 		nbtRoot = (BREF)dc.get(BREFRootNBT);
 		bbtRoot = (BREF)dc.get(BREFRootBBT);
+		crcPartial = (Integer)dc.get(nm_dwCRCPartial);
+		crcFull = fileFormat.fUnicode ? (Integer)dc.get(nm_dwCRCFull) : 0;
 	}
 
 	/**	Calculate the size of the header block.
@@ -206,13 +230,14 @@ public class Header {
 
 	/**	Ensure that the header's initial (partial) CRC is correct. Note that this is used for both the partial and full CRCs.
 	*
+	*	@param	checkCRC	Whether the CRC should be checked.
 	*	@param	crcCalculated	The CRC of the header caculated from its contents.
 	*	@param	nm_field	The field name of the CRC to check.
 	*	@param	dc		The DataContainer object holding the values read in from the header.
 	*/
-	private void validate_CRC(final int crcCalculated, final String nm_field, final DataContainer dc)
+	private void validate_CRC(final boolean checkCRC, final int crcCalculated, final String nm_field, final DataContainer dc)
 	{
-		if (Options.checkCRC && crcCalculated != (Integer)dc.get(nm_field))
+		if (checkCRC && crcCalculated != (Integer)dc.get(nm_field))
 			throw new RuntimeException(nm_field + " "  + Integer.toHexString((Integer)dc.get(nm_field)) + " does not match calculated value " + Integer.toHexString(crcCalculated));
 	}
 
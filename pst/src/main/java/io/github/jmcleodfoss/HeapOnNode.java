@@ -314,13 +314,29 @@ public class HeapOnNode implements javax.swing.ListModel<Object> {
 	/**	The heap-on-node header for this heap-on-node object. This is used only in toString. */
 	private final Header hnhdr;
 
-	/**	The heap data for this heap-on-node object. */
-	private final byte[][] heap;
+	/**	The iterator through the blocks making up the heap which have not yet been read. */
+	private final java.util.Iterator<java.nio.ByteBuffer> blockIterator;
+
+	/**	The data for each block making up the heap which has been read, as read-only views of the block data. */
+	private java.nio.ByteBuffer[] blocks;
+
+	/**	The position within the block data of the start of each heap allocation in each block, followed by the position of
+	*	the end of the last allocation in the block.
+	*/
+	private int[][] allocationOffset;
 
 	/**	The offsets into the heap corresponding to each block */
-	private final int[] blockOffset;
+	private int[] blockOffset;
+
+	/**	The number of blocks which have been read. */
+	private int numBlocks;
+
+	/**	The number of allocations in the blocks which have been read. */
+	private int heapLength;
 
-	/**	Create a heap-on-node for the given block.
+	/**	Create a heap-on-node for the given block. If the PST file's {@link PSTFile#lazyHeaps lazyHeaps} setting is true,
+	*	only the first block is read here, and each subsequent block is read and its page map parsed when an allocation in
+	*	it (or in a later block) is first requested.
 	*
 	*	@param	entry	The entry from the block B-tree from which to construct the heap-on-node.
 	*	@param	bbt	The PST file's block B-tree.
@@ -336,74 +352,127 @@ public class HeapOnNode implements javax.swing.ListModel<Object> {
 		UnknownClientSignatureException,
 		java.io.IOException
 	{
-		final BlockBase blocks = BlockBase.read(entry, bbt, pstFile);
-		java.util.Iterator<java.nio.ByteBuffer> blockIterator = blocks.iterator();
+		final boolean fLazy = pstFile.lazyHeaps();
+		blockIterator = BlockBase.read(entry, bbt, pstFile, fLazy).iterator();
+
+		blocks = new java.nio.ByteBuffer[1];
+		allocationOffset = new int[1][];
+		blockOffset = new int[1];
 
 		Header hnhdr = null;
+		final java.nio.ByteBuffer blockDataStream = nextBlock();
+		if (blockDataStream != null) {
+			final int blockStart = blockDataStream.position();
+			hnhdr = new Header(blockDataStream);
+			addBlock(blockDataStream, blockStart, Header.size, hnhdr.ibHnpm);
+		}
+		this.hnhdr = hnhdr;
 
-		// Get the number of entries in the heap
-		int heapLength = 0;
-		int iBlock = 0;
-		java.util.ArrayList<PageMap> pageMaps = new java.util.ArrayList<PageMap>();
-		java.util.ArrayList<java.nio.ByteBuffer> dataStreams = new java.util.ArrayList<java.nio.ByteBuffer>();
-		while(blockIterator.hasNext()) {
-			java.nio.ByteBuffer blockDataStream = blockIterator.next();
-			if (blockDataStream == null)
-				continue;
-			blockDataStream.mark();
-
-			int offsetData;
-			int offsetPageMap;
-			if (iBlock == 0) {
-				hnhdr = new Header(blockDataStream);
-				offsetData = Header.size;
-				offsetPageMap = hnhdr.ibHnpm;
-			} else if (iBlock - 8 % 128 == 0) {
-				final HNBitmapHeader hnbmh = new HNBitmapHeader(blockDataStream);
-				offsetData = HNBitmapHeader.size;
-				offsetPageMap = hnbmh.ibHnpm;
-			} else {
-				final PageHeader ph = new PageHeader(blockDataStream);
-				offsetData = PageHeader.hdrSize;
-				offsetPageMap = ph.ibHnpm;
+		if (!fLazy)
+			readBlocks(Integer.MAX_VALUE);
+
+		if (logger.isLoggable(java.util.logging.Level.FINER)) {
+			readBlocks(Integer.MAX_VALUE);
+			for (int iHeap = 0; iHeap < heapLength; ++iHeap) {
+				final String heapEntry = heapEntryString(iHeap);
+				if (heapEntry != null)
+					logger.log(java.util.logging.Level.FINER, "HeapOnNode heap block " + iHeap + heapEntry);
 			}
+		}
+	}
 
-			// read heap page map
-			blockDataStream.position(blockDataStream.position() + offsetPageMap - offsetData);
-			PageMap hnpm = new PageMap(blockDataStream);
-			pageMaps.add(hnpm);
+	/**	Add the given block to the heap, reading its page map to find the location of each allocation in the block.
+	*
+	*	@param	blockDataStream	The data for the block.
+	*	@param	blockStart	The position of the start of the block within blockDataStream.
+	*	@param	offsetData	The offset from the start of the block to the first allocation.
+	*	@param	offsetPageMap	The offset from the start of the block to the page map.
+	*
+	* 	@throws java.io.IOException	An I/O error was encountered while reading the page map.
+	*/
+	private void addBlock(final java.nio.ByteBuffer blockDataStream, final int blockStart, final int offsetData, final int offsetPageMap)
+	throws
+		java.io.IOException
+	{
+		// read heap page map
+		blockDataStream.position(blockStart + offsetPageMap);
+		PageMap hnpm = new PageMap(blockDataStream);
+
+		// The heap entries are laid out one after the other from the end of the page header.
+		final int[] offsets = new int[hnpm.numEntries + 1];
+		for (int i = 0; i <= hnpm.numEntries; ++i)
+			offsets[i] = blockStart + offsetData + hnpm.heapOffset[i] - hnpm.heapOffset[0];
+
+		if (numBlocks == blocks.length) {
+			blocks = java.util.Arrays.copyOf(blocks, 2 * numBlocks);
+			allocationOffset = java.util.Arrays.copyOf(allocationOffset, 2 * numBlocks);
+			blockOffset = java.util.Arrays.copyOf(blockOffset, 2 * numBlocks);
+		}
+		blocks[numBlocks] = blockDataStream;
+		allocationOffset[numBlocks] = offsets;
+		blockOffset[numBlocks] = heapLength;
+		++numBlocks;
 
-			// Skip to start of data for the next loop
-			blockDataStream.reset();
-			blockDataStream.position(blockDataStream.position() + offsetData);
-			dataStreams.add(blockDataStream);
+		heapLength += hnpm.numEntries;
+	}
 
-			heapLength += hnpm.numEntries;
-			++iBlock;
+	/**	Obtain the data for the next non-empty block making up the heap.
+	*
+	*	@return	The data for the next block, or null if there are no more blocks.
+	*/
+	private java.nio.ByteBuffer nextBlock()
+	{
+		while (blockIterator.hasNext()) {
+			final java.nio.ByteBuffer blockDataStream = blockIterator.next();
+			if (blockDataStream != null)
+				return blockDataStream;
 		}
+		return null;
+	}
 
-		this.hnhdr = hnhdr;
+	/**	Read blocks making up the heap until the given block has been read.
+	*
+	*	@param	iBlock	The index of the block which is required.
+	*
+	*	@return	true if the block exists, false if the heap has fewer blocks.
+	*
+	* 	@throws java.io.IOException	An I/O error was encountered while reading the blocks.
+	*/
+	private synchronized boolean readBlocks(final int iBlock)
+	throws
+		java.io.IOException
+	{
+		while (numBlocks <= iBlock) {
+			final java.nio.ByteBuffer blockDataStream = nextBlock();
+			if (blockDataStream == null)
+				return false;
+			final int blockStart = blockDataStream.position();
 
-		heap = new byte[heapLength][];
-		blockOffset = new int[heapLength];
-
-		// Read in heap data
-		int iHeap = 0;
-		for (iBlock = 0; iBlock < dataStreams.size(); ++iBlock) {
-			blockOffset[iBlock] = iHeap;
-			final PageMap hnpm = pageMaps.get(iBlock);
-			for (int i = 0; i < hnpm.numEntries; ++i) {
-				int offset = hnpm.heapOffset[i];
-				int size = hnpm.heapOffset[i+1] - offset;
-				if (size > 0) {
-					heap[iHeap] = new byte[size];
-					dataStreams.get(iBlock).get(heap[iHeap]);
-					if (logger.isLoggable(java.util.logging.Level.FINER))
-						logger.log(java.util.logging.Level.FINER, "HeapOnNode heap block " + iHeap + ByteUtil.createHexByteString(heap[iHeap]));
-				}
-				++iHeap;
+			if (numBlocks >= 8 && (numBlocks - 8) % 128 == 0) {
+				final HNBitmapHeader hnbmh = new HNBitmapHeader(blockDataStream);
+				addBlock(blockDataStream, blockStart, HNBitmapHeader.size, hnbmh.ibHnpm);
+			} else {
+				final PageHeader ph = new PageHeader(blockDataStream);
+				addBlock(blockDataStream, blockStart, PageHeader.hdrSize, ph.ibHnpm);
 			}
 		}
+		return true;
+	}
+
+	/**	Ensure the given block has been read, if it exists. An I/O error is reported as a RuntimeException, as the heap
+	*	accessors do not throw java.io.IOException.
+	*
+	*	@param	iBlock	The index of the block which is required.
+	*
+	*	@return	true if the block exists, false if the heap has fewer blocks.
+	*/
+	private boolean blockAvailable(final int iBlock)
+	{
+		try {
+			return readBlocks(iBlock);
+		} catch (final java.io.IOException e) {
+			throw new RuntimeException("Error reading heap-on-node block " + iBlock, e);
+		}
 	}
 
 	/**	A convenience wrapper returning the client signature for this heap.
@@ -424,26 +493,72 @@ public class HeapOnNode implements javax.swing.ListModel<Object> {
 		return hnhdr != null;
 	}
 
-	/**	Return the data associated with the given HID
+	/**	Return the data associated with the given HID as a read-only view of the block containing it, without copying it.
 	*
 	*	@param	hid	The heap ID to retrieve the data from.
 	*
-	*	@return	The data for the given heap index in this heap-on-node.
+	*	@return	The data for the given heap index in this heap-on-node, or null if the heap entry is empty.
+	*/
+	java.nio.ByteBuffer heapData(final HID hid)
+	{
+		blockAvailable(hid.blockIndex);
+		return heapData(hid.blockIndex, hid.index - 1);
+	}
+
+	/**	Return the data for the given allocation in the given block as a read-only view of the block, without copying it.
+	*	The block must already have been read.
+	*
+	*	@param	iBlock		The index of the block containing the allocation.
+	*	@param	allocation	The index of the allocation within the block.
+	*
+	*	@return	The data for the given allocation, or null if the allocation is empty.
 	*/
-	byte[] heapData(final HID hid)
+	private synchronized java.nio.ByteBuffer heapData(final int iBlock, final int allocation)
 	{
-		return heap[heapIndex(hid)];
+		if (iBlock >= numBlocks)
+			throw new ArrayIndexOutOfBoundsException(iBlock);
+
+		final int start = allocationOffset[iBlock][allocation];
+		final int end = allocationOffset[iBlock][allocation + 1];
+		if (end <= start)
+			return null;
+
+		final java.nio.ByteBuffer data = blocks[iBlock].duplicate();
+		data.limit(end);
+		data.position(start);
+		return data.slice().order(java.nio.ByteOrder.LITTLE_ENDIAN);
 	}
 
-	/**	Obtain the index into the entire heap from an HID
+	/**	Return the data for the given entry in the heap, numbering the entries in all blocks consecutively. All blocks must
+	*	already have been read.
 	*
-	*	@param	hid	The heap ID to retrieve the over-all heap offset of.
+	*	@param	index	The index of the entry in the entire heap.
 	*
-	*	@return	The index into the data block list of the entire heap.
+	*	@return	The data for the given heap entry, or null if the entry is empty.
 	*/
-	private int heapIndex(final HID hid)
+	private synchronized java.nio.ByteBuffer heapData(final int index)
 	{
-		return blockOffset[hid.blockIndex] + hid.index - 1;
+		int iBlock = numBlocks - 1;
+		while (blockOffset[iBlock] > index)
+			--iBlock;
+		return heapData(iBlock, index - blockOffset[iBlock]);
+	}
+
+	/**	Obtain a hexadecimal representation of the data for the given entry in the heap.
+	*
+	*	@param	index	The index of the entry in the entire heap.
+	*
+	*	@return	A string containing the data bytes of the heap entry in hexadecimal, or null if the entry is empty.
+	*/
+	private String heapEntryString(final int index)
+	{
+		final java.nio.ByteBuffer data = heapData(index);
+		if (data == null)
+			return null;
+
+		final byte[] bytes = new byte[data.remaining()];
+		data.get(bytes);
+		return ByteUtil.createHexByteString(bytes);
 	}
 
 	/**	Determine this heap-on-node contain a property context.
@@ -528,12 +643,14 @@ public class HeapOnNode implements javax.swing.ListModel<Object> {
 		if (hnhdr == null)
 			return "Empty Heap-on-Node";
 
+		blockAvailable(Integer.MAX_VALUE);
 		StringBuilder s = new StringBuilder(hnhdr.toString());
-		for (int i = 0; i < heap.length; ++i) {
+		for (int i = 0; i < heapLength; ++i) {
+			final String entry = heapEntryString(i);
 			s.append('\n');
 			s.append(i);
 			s.append(':');
-			s.append(heap[i] != null ? ByteUtil.createHexByteString(heap[i]) : "empty");
+			s.append(entry != null ? entry : "empty");
 		}
 
 		return s.toString();
@@ -543,7 +660,7 @@ public class HeapOnNode implements javax.swing.ListModel<Object> {
 	*
 	*	@return	The heap data for the user root entry in the heap-on-node.
 	*/
-	byte[] userRootHeapData()
+	java.nio.ByteBuffer userRootHeapData()
 	{
 		return heapData(hnhdr.hidUserRoot);
 	}
@@ -556,7 +673,11 @@ public class HeapOnNode implements javax.swing.ListModel<Object> {
 	*/
 	boolean validHID(HID hid)
 	{
-		return hid.type == NID.HID && hid.blockIndex < blockOffset.length && hid.index > 0 && blockOffset[hid.blockIndex] + hid.index <= heap.length;
+		if (hid.type != NID.HID || hid.index <= 0 || !blockAvailable(hid.blockIndex))
+			return false;
+		synchronized (this) {
+			return hid.index < allocationOffset[hid.blockIndex].length;
+		}
 	}
 
 	/**	The list presented by the HeapOnNode object is immutable, so it does not support adding ListDataListeners.
@@ -578,18 +699,18 @@ public class HeapOnNode implements javax.swing.ListModel<Object> {
 	*/
 	public Object getElementAt(int index)
 	{
-		if (heap[index] != null)
-			return ByteUtil.createHexByteString(heap[index]);
-		return null;
+		blockAvailable(Integer.MAX_VALUE);
+		return heapEntryString(index);
 	}
 
 	/**	Obtain the number of list elements.
 	*
 	*	@return	The number of entries in the heap.
 	*/
-	public int getSize()
+	public synchronized int getSize()
 	{
-		return heap.length;
+		blockAvailable(Integer.MAX_VALUE);
+		return heapLength;
 	}
 
 	/**	The list presented by the HeapOnNode object is immutable, so it is impossible to add or remove listeners.
@@ -0,0 +1,263 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The IndexFile class saves the compact block and node indices and the named property map of a PST file to a separate
+*	"sidecar" file, so that when the PST file is opened again they may be read back in directly rather than rebuilt by walking
+*	the B-trees and reading the named property map.
+*
+*	The index file records the size of the PST file, the CRCs stored in its header, and the locations of the roots of its block
+*	and node B-trees. Since any change to the PST file changes at least one of these, an index file whose values do not match
+*	the PST file is stale; it is ignored, and the index is rebuilt and saved again. The contents of the index file are protected
+*	by a CRC, so a damaged index file is treated the same way.
+*
+*	@see	PST#PST(java.io.FileInputStream, CRCPolicy, java.io.File)
+*/
+class IndexFile {
+
+	/**	Logger for this class. */
+	private static java.util.logging.Logger logger = Debug.getLogger("io.github.jmcleodfoss.pst.IndexFile");
+
+	/**	The magic number identifying an index file ("PSTX"). */
+	private static final int MAGIC = 0x58545350;
+
+	/**	The index file format version. */
+	private static final int VERSION = 1;
+
+	/**	The size of the index file header: magic number, version, PST file size, header CRCs, and B-tree root BREFs. */
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4 + 4 * 8;
+
+	/**	The size of the CRC at the end of the index file. */
+	private static final int CRC_SIZE = 4;
+
+	/**	The block B-tree of the PST file. */
+	final BlockIndex blockIndex;
+
+	/**	The node B-tree of the PST file. */
+	final NodeIndex nodeIndex;
+
+	/**	The named property map of the PST file. */
+	final NameToIDMap namedProperties;
+
+	/**	Create an index file object from its constituents.
+	*
+	*	@param	blockIndex	The block B-tree of the PST file.
+	*	@param	nodeIndex	The node B-tree of the PST file.
+	*	@param	namedProperties	The named property map of the PST file.
+	*/
+	private IndexFile(final BlockIndex blockIndex, final NodeIndex nodeIndex, final NameToIDMap namedProperties)
+	{
+		this.blockIndex = blockIndex;
+		this.nodeIndex = nodeIndex;
+		this.namedProperties = namedProperties;
+	}
+
+	/**	Read the index of the given PST file from the given index file, or, if the index file does not exist or is stale,
+	*	build the index from the PST file and save it in the index file. Failure to save the index file is logged but is not
+	*	an error.
+	*
+	*	@param	file	The index file.
+	*	@param	pstFile	The PST file's data stream, header, etc.
+	*
+	*	@return	The block and node indices and named property map of the PST file.
+	*
+	*	@throws NotHeapNodeException			A node which is not a heap node was found while reading the named property map.
+	* 	@throws NotPropertyContextNodeException		A node without the Property Context client signature was found while reading the named property map.
+	*	@throws NullDataBlockException			A null data block was found while reading the named property map.
+	*	@throws UnknownClientSignatureException		The client signature for the block was not recognized.
+	*	@throws UnparseablePropertyContextException	The named property map property context could not be parsed.
+	*	@throws java.io.IOException			There was a problem reading the PST file.
+	*/
+	static IndexFile open(final java.io.File file, PSTFile pstFile)
+	throws
+		NotHeapNodeException,
+		NotPropertyContextNodeException,
+		NullDataBlockException,
+		UnknownClientSignatureException,
+		UnparseablePropertyContextException,
+		java.io.IOException
+	{
+		IndexFile index = read(file, pstFile);
+		if (index != null)
+			return index;
+
+		final BlockIndex blockIndex = new BlockIndex(pstFile);
+		final NodeIndex nodeIndex = new NodeIndex(pstFile);
+		index = new IndexFile(blockIndex, nodeIndex, new NameToIDMap(blockIndex, nodeIndex, pstFile));
+		try {
+			index.write(file, pstFile);
+		} catch (final java.io.IOException e) {
+			logger.log(java.util.logging.Level.WARNING, "Could not save index file " + file + ": " + e.getMessage());
+		}
+		return index;
+	}
+
+	/**	Read the index of the given PST file from the given index file.
+	*
+	*	@param	file	The index file.
+	*	@param	pstFile	The PST file's data stream, header, etc.
+	*
+	*	@return	The block and node indices and named property map of the PST file, or null if the index file does not exist, is
+	*		damaged, or is stale.
+	*/
+	static IndexFile read(final java.io.File file, PSTFile pstFile)
+	{
+		if (!file.isFile())
+			return null;
+
+		java.io.RandomAccessFile raf = null;
+		try {
+			raf = new java.io.RandomAccessFile(file, "r");
+			final long size = raf.length();
+			if (size < HEADER_SIZE + CRC_SIZE || size > Integer.MAX_VALUE)
+				return null;
+
+			// Check the header before mapping the file, so that a stale index file is not left mapped (which would prevent it
+			// from being replaced on some systems).
+			final byte[] headerData = new byte[HEADER_SIZE];
+			raf.readFully(headerData);
+			final java.nio.ByteBuffer header = java.nio.ByteBuffer.wrap(headerData);
+			header.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+
+			if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+				logger.log(java.util.logging.Level.INFO, "Ignoring index file " + file + ": not an index file or wrong version");
+				return null;
+			}
+			if (header.getLong() != pstFile.size()
+				|| header.getInt() != pstFile.header.crcPartial
+				|| header.getInt() != pstFile.header.crcFull
+				|| header.getLong() != pstFile.header.bbtRoot.bid.bid
+				|| header.getLong() != pstFile.header.bbtRoot.ib.ib
+				|| header.getLong() != pstFile.header.nbtRoot.bid.bid
+				|| header.getLong() != pstFile.header.nbtRoot.ib.ib) {
+				logger.log(java.util.logging.Level.INFO, "Ignoring stale index file " + file);
+				return null;
+			}
+
+			java.nio.ByteBuffer in = raf.getChannel().map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, size);
+			in.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+			in.position(HEADER_SIZE);
+
+			final int crcOffset = (int)size - CRC_SIZE;
+			if (CRC.crc(in, 0, crcOffset) != in.getInt(crcOffset)) {
+				logger.log(java.util.logging.Level.INFO, "Ignoring damaged index file " + file);
+				return null;
+			}
+
+			in.limit(crcOffset);
+			final IndexFile index = new IndexFile(new BlockIndex(in), new NodeIndex(in), new NameToIDMap(in));
+			if (in.hasRemaining())
+				return null;
+			return index;
+		} catch (final java.io.IOException e) {
+			logger.log(java.util.logging.Level.INFO, "Could not read index file " + file + ": " + e.getMessage());
+			return null;
+		} catch (final RuntimeException e) {
+			logger.log(java.util.logging.Level.INFO, "Could not read index file " + file + ": " + e.toString());
+			return null;
+		} finally {
+			if (raf != null) {
+				try {
+					raf.close();
+				} catch (final java.io.IOException e) {
+				}
+			}
+		}
+	}
+
+	/**	Save the index to the given file. The index is written to a temporary file which is then renamed to the index file,
+	*	so that a reader never sees a partially-written index file. Where the temporary file cannot be renamed over an
+	*	existing index file, the existing file is deleted first and the rename retried; a reader which opens the PST file in
+	*	the meantime finds no index file and builds the index itself.
+	*
+	*	@param	file	The index file.
+	*	@param	pstFile	The PST file's data stream, header, etc.
+	*
+	*	@throws	java.io.IOException	The index file could not be written, or the existing index file could not be replaced.
+	*/
+	void write(final java.io.File file, PSTFile pstFile)
+	throws
+		java.io.IOException
+	{
+		final int size = HEADER_SIZE + blockIndex.writeSize() + nodeIndex.writeSize() + namedProperties.writeSize() + CRC_SIZE;
+		final byte[] data = new byte[size];
+		final java.nio.ByteBuffer out = java.nio.ByteBuffer.wrap(data);
+		out.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+
+		out.putInt(MAGIC);
+		out.putInt(VERSION);
+		out.putLong(pstFile.size());
+		out.putInt(pstFile.header.crcPartial);
+		out.putInt(pstFile.header.crcFull);
+		out.putLong(pstFile.header.bbtRoot.bid.bid);
+		out.putLong(pstFile.header.bbtRoot.ib.ib);
+		out.putLong(pstFile.header.nbtRoot.bid.bid);
+		out.putLong(pstFile.header.nbtRoot.ib.ib);
+		blockIndex.write(out);
+		nodeIndex.write(out);
+		namedProperties.write(out);
+		out.putInt(CRC.crc(data, 0, size - CRC_SIZE));
+
+		final java.io.File temp = new java.io.File(file.getPath() + ".tmp");
+		final java.io.FileOutputStream stream = new java.io.FileOutputStream(temp);
+		try {
+			stream.write(data);
+		} finally {
+			stream.close();
+		}
+
+		if (temp.renameTo(file))
+			return;
+
+		if (file.exists() && !file.delete()) {
+			temp.delete();
+			throw new java.io.IOException("Could not delete " + file + " to replace it");
+		}
+
+		if (!temp.renameTo(file)) {
+			temp.delete();
+			throw new java.io.IOException("Could not rename " + temp + " to " + file);
+		}
+	}
+
+	/**	Test this class by opening a PST file's index file twice, first (if necessary) building it, then reading it back in,
+	*	and checking that the indices read are the same as those built from the PST file.
+	*
+	*	@param	args	The command line arguments to the test application.
+	*/
+	public static void main(final String[] args)
+	{
+		if (args.length < 2) {
+			System.out.println("use:\n\tjava io.github.jmcleodfoss.pst.IndexFile pst-file index-file");
+			System.exit(1);
+		}
+
+		try {
+			PSTFile pstFile = new PSTFile(new java.io.FileInputStream(args[0]));
+			final java.io.File file = new java.io.File(args[1]);
+
+			for (int pass = 1; pass <= 2; ++pass) {
+				final long start = System.nanoTime();
+				final IndexFile index = open(file, pstFile);
+				System.out.printf("Pass %d: %d blocks, %d nodes in %.1f ms\n", pass, index.blockIndex.size(), index.nodeIndex.size(), (System.nanoTime() - start) / 1e6);
+			}
+
+			final IndexFile saved = read(file, pstFile);
+			final BlockIndex blockIndex = new BlockIndex(pstFile);
+			final NodeIndex nodeIndex = new NodeIndex(pstFile);
+			int discrepancies = 0;
+			java.util.Iterator<BTreeNode> iterator = nodeIndex.iterator();
+			while (iterator.hasNext()) {
+				final NBTEntry entry = (NBTEntry)iterator.next();
+				final NBTEntry savedEntry = saved.nodeIndex.find(entry.nid);
+				if (savedEntry == null || entry.toString().compareTo(savedEntry.toString()) != 0)
+					++discrepancies;
+				final BBTEntry block = blockIndex.find(entry.bidData);
+				final BBTEntry savedBlock = saved.blockIndex.find(entry.bidData);
+				if (block != null && (savedBlock == null || block.toString().compareTo(savedBlock.toString()) != 0))
+					++discrepancies;
+			}
+			System.out.printf("%d discrepancies\n", discrepancies);
+		} catch (final Exception e) {
+			e.printStackTrace(System.out);
+		}
+	}
+}
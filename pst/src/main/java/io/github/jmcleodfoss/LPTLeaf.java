@@ -41,6 +41,19 @@ public abstract class LPTLeaf implements BTreeLeaf {
 		bidSubnode = (BID)dc.get(nm_bidSubnode);
 	}
 
+	/**	Create the base object from values which have already been read in.
+	*
+	*	@param	nid		The node ID of this node.
+	*	@param	bidData		The block ID of the data block for this node.
+	*	@param	bidSubnode	The block ID of the subnode B-tree for this node.
+	*/
+	protected LPTLeaf(final NID nid, final BID bidData, final BID bidSubnode)
+	{
+		this.nid = nid;
+		this.bidData = bidData;
+		this.bidSubnode = bidSubnode;
+	}
+
 	/**	{@inheritDoc} */
 	public javax.swing.table.TableModel getNodeTableModel()
 	{
@@ -105,7 +105,7 @@ public class Message extends MessageObjectWithBody {
 				if (subnode.nid.isAttachmentTable()) {
 					nodeAttachmentTable = subnode;
 
-					final TableContext tcAttachments = new TableContext(nodeAttachmentTable, bbt, pstFile);
+					final TableContext tcAttachments = new TableContext(nodeAttachmentTable, bbt, pstFile, new int[]{PropertyTag.LtpRowId});
 
 					attachments = new java.util.Vector<Attachment>(tcAttachments.getRowCount());
 					for (int i = 0; i < tcAttachments.getRowCount(); ++i) {
@@ -127,6 +127,21 @@ public class Message extends MessageObjectWithBody {
 		recipients = null;
 	}
 
+	/**	Obtain the tags of the contents table columns read when creating a message.
+	*
+	*	@return	The tags of the message columns used from the folder contents table.
+	*
+	*	@see	MessageObject#contentsTableTags
+	*/
+	static int[] contentsTableTags()
+	{
+		return new int[]{
+			PropertyTag.MessageDeliveryTime,
+			PropertyTag.SentRepresentingNameW,
+			PropertyTag.MessageFlags
+		};
+	}
+
 	/**	Return the requested attachment as specified by the index. This is for use by other classes in this package; client
 	*	code is expected to use {@link #attachmentIterator} when processing attachments.
 	*
@@ -54,6 +54,42 @@ public class MessageObject {
 		nodeMessageObject = nbt.find(new NID(nidMessageObject));
 	}
 
+	/**	Obtain the tags of the contents table columns read by {@link #factory} when creating message objects of any type,
+	*	so that the contents table may be opened with only these columns.
+	*
+	*	@param	fUnicode	Whether the PST file is a Unicode or ANSI PST file.
+	*
+	*	@return	The tags of the columns used from the folder contents table.
+	*
+	*	@see	TableContext#TableContext(LPTLeaf, BlockMap, PSTFile, int[])
+	*/
+	static int[] contentsTableTags(final boolean fUnicode)
+	{
+		final int[][] typeTags = {
+			{
+				fUnicode ? PropertyTag.MessageClassW : PropertyTag.MessageClass,
+				fUnicode ? PropertyTag.SubjectW : PropertyTag.Subject,
+				PropertyTag.LtpRowId
+			},
+			Appointment.contentsTableTags(),
+			Contact.contentsTableTags(fUnicode),
+			Message.contentsTableTags(),
+			Task.contentsTableTags()
+		};
+
+		int n = 0;
+		for (int[] tags : typeTags)
+			n += tags.length;
+
+		final int[] contentsTableTags = new int[n];
+		n = 0;
+		for (int[] tags : typeTags) {
+			System.arraycopy(tags, 0, contentsTableTags, n, tags.length);
+			n += tags.length;
+		}
+		return contentsTableTags;
+	}
+
 	/**	Create a message object of the appropriate derived type.
 	*
 	*	@param	contentsTable	The containing folder's contents table
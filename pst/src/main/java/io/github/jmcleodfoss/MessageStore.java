@@ -81,7 +81,7 @@ public class MessageStore {
 		this.nbt = nbt;
 		this.pstFile = pstFile;
 
-		passwordHashed = (Integer)messageStore.get(PROPID_PASSWORD);
+		passwordHashed = messageStore.getInt(PROPID_PASSWORD, 0);
 		rootMailboxEntry = new EntryID((byte[])messageStore.get(PROPID_ROOT_ENTRY_ID));
 	}
 
@@ -65,6 +65,21 @@ public class NBTEntry extends LPTLeaf {
 		nidParent = (NID)dc.get(nm_nidParent);
 	}
 
+	/**	Create a node B-tree leaf entry from values which have already been read in.
+	*
+	*	@param	nid		The node ID of the node.
+	*	@param	bidData		The block ID of the data block for the node.
+	*	@param	bidSubnode	The block ID of the subnode B-tree for the node.
+	*	@param	nidParent	The node ID of the parent node.
+	*
+	*	@see	NodeIndex
+	*/
+	NBTEntry(final NID nid, final BID bidData, final BID bidSubnode, final NID nidParent)
+	{
+		super(nid, bidData, bidSubnode);
+		this.nidParent = nidParent;
+	}
+
 	/**	Obtain the actual size of a node B-tree leaf node as read in from the input datastream.
 	*
 	*	@param	context	The context to use to find the size (this function uses only the file format information.)
@@ -15,6 +15,9 @@ public class NID implements NodeKey {
 	*/
 	private static final boolean fStrict = false;
 
+	/**	The bits of a node ID key which hold the node type. */
+	static final int TYPE_MASK = 0x1f;
+
 	/**	Node type: Heap node.
 	*
 	*	@see	io.github.jmcleodfoss.pst.HeapOnNode
@@ -181,7 +184,7 @@ public class NID implements NodeKey {
 	NID(final int key)
 	{
 		this.key = key;
-		type = (byte)(key & 0x1f);
+		type = (byte)(key & TYPE_MASK);
 		nid = (key >> 5) & 0x07ffffff;
 		description = description(type);
 		logger.log(java.util.logging.Level.INFO, String.format("NID %08x => type 0x%02x nid %08x %s", key, type, nid, description));
@@ -268,6 +268,32 @@ public class NameToIDMap {
 		this.canonicalIDToNPID = canonicalIDToNPID;
 	}
 
+	/**	Read in a named property map previously saved by {@link #write}.
+	*
+	*	@param	in	The stream from which to read the named property map.
+	*
+	*	@see	IndexFile
+	*/
+	NameToIDMap(java.nio.ByteBuffer in)
+	{
+		namedProperties = new java.util.HashMap<Short, String>();
+		final int numNames = in.getInt();
+		for (int i = 0; i < numNames; ++i) {
+			final short id = in.getShort();
+			final char[] name = new char[in.getInt()];
+			in.asCharBuffer().get(name);
+			in.position(in.position() + name.length * 2);
+			namedProperties.put(id, new String(name));
+		}
+
+		canonicalIDToNPID = new java.util.HashMap<Short, Short>();
+		final int numCanonicalIDs = in.getInt();
+		for (int i = 0; i < numCanonicalIDs; ++i) {
+			final short canonicalID = in.getShort();
+			canonicalIDToNPID.put(canonicalID, in.getShort());
+		}
+	}
+
 	/**	Retrieve the bytes corresponding to the given property ID.
 	*
 	*	@param	pc		The property context containing the named property list.
@@ -354,6 +380,40 @@ public class NameToIDMap {
 		return new TableModel(this);
 	}
 
+	/**	Save the named property map to the given stream, from which it may later be read by
+	*	{@link #NameToIDMap(java.nio.ByteBuffer)}.
+	*
+	*	@param	out	The stream to which to write the named property map.
+	*/
+	void write(java.nio.ByteBuffer out)
+	{
+		out.putInt(namedProperties.size());
+		for (java.util.Map.Entry<Short, String> entry : namedProperties.entrySet()) {
+			out.putShort(entry.getKey());
+			out.putInt(entry.getValue().length());
+			out.asCharBuffer().put(entry.getValue());
+			out.position(out.position() + entry.getValue().length() * 2);
+		}
+
+		out.putInt(canonicalIDToNPID.size());
+		for (java.util.Map.Entry<Short, Short> entry : canonicalIDToNPID.entrySet()) {
+			out.putShort(entry.getKey());
+			out.putShort(entry.getValue());
+		}
+	}
+
+	/**	Retrieve the number of bytes required to save the named property map.
+	*
+	*	@return	The number of bytes which {@link #write} will write.
+	*/
+	int writeSize()
+	{
+		int size = 4 + 4 + canonicalIDToNPID.size() * 4;
+		for (String name : namedProperties.values())
+			size += 2 + 4 + name.length() * 2;
+		return size;
+	}
+
 	/**	Test the NameIDToMap class by reading the Named Properties map in and displaying the mapping.
 	*
 	*	@param	args	The command line arguments to the test application.
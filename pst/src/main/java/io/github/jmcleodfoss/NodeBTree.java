@@ -11,6 +11,42 @@ package io.github.jmcleodfoss.pst;
 */
 class NodeBTree extends PagedBTree implements NodeMap {
 
+	/**	The Cursor class provides the {@link NodeCursor} interface for a pass through part of the node B-tree. */
+	private static class Cursor implements NodeCursor {
+
+		/**	The cursor through the leaves of the B-tree. */
+		private final BTree.Cursor cursor;
+
+		/**	Create a node cursor from a B-tree cursor.
+		*
+		*	@param	cursor	The cursor through the leaves of the node B-tree.
+		*/
+		private Cursor(final BTree.Cursor cursor)
+		{
+			this.cursor = cursor;
+		}
+
+		/**	{@inheritDoc} */
+		public NBTEntry entry()
+		{
+			if (cursor.current() == null)
+				throw new java.util.NoSuchElementException();
+			return (NBTEntry)cursor.current();
+		}
+
+		/**	{@inheritDoc} */
+		public boolean next()
+		{
+			return cursor.next();
+		}
+
+		/**	{@inheritDoc} */
+		public int nidKey()
+		{
+			return (int)entry().key();
+		}
+	}
+
 	/**	The base class of the context used for node B-Tree construction. */
 	protected abstract static class NBTContextBase<I, L> extends PagedBTree.PageContext<BTree, BTreeLeaf> {
 
@@ -94,6 +130,24 @@ class NodeBTree extends PagedBTree implements NodeMap {
 		super(key, bref, new NBTContext(bref, pstFile));
 	}
 
+	/**	Create a node B-tree node, building the subtrees below it on the given executor.
+	*
+	*	@param	key		The key for this node. All child node keys are greater than or equal to this key.
+	*	@param	bref		The block reference indicating where to read this node B-tree node from.
+	*	@param	pstFile		The PST file's data stream, header, etc.
+	*	@param	executor	The executor on which to build the subtrees of this node.
+	*
+	*	@throws	java.io.IOException	The data for the node B-tree could not be read.
+	*
+	*	@see	BTreeLoader
+	*/
+	NodeBTree(final long key, final BREF bref, PSTFile pstFile, java.util.concurrent.ExecutorService executor)
+	throws
+		java.io.IOException
+	{
+		super(key, bref, new NBTContext(bref, pstFile), executor);
+	}
+
 	/**	Create a node B-Tree using the given context rather than creating one.
 	*
 	*	@param	key	The key for this node. All child node keys are greater than or equal to this key.
@@ -109,6 +163,18 @@ class NodeBTree extends PagedBTree implements NodeMap {
 		super(key, bref, context);
 	}
 
+	/**	{@inheritDoc} */
+	public NodeCursor cursor(final byte type)
+	{
+		return new Cursor(new BTree.Cursor(this, Integer.MIN_VALUE, Integer.MAX_VALUE, NID.TYPE_MASK, type));
+	}
+
+	/**	{@inheritDoc} */
+	public NodeCursor cursor(final int fromKey, final int toKey)
+	{
+		return new Cursor(new BTree.Cursor(this, fromKey, toKey, 0, 0));
+	}
+
 	/**	This is a convenience wrapper function to find a node ID in the node B-tree.
 	*
 	*	@param	nid	The node ID to find.
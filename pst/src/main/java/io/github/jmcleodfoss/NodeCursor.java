@@ -0,0 +1,42 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The NodeCursor interface describes an ordered pass through the nodes of a node B-tree which lie in a range of node IDs,
+*	optionally restricted to nodes of a single type. A cursor is positioned before the first matching node when it is created,
+*	and is advanced by {@link #next}:
+*	<pre>
+*	NodeCursor cursor = nodeMap.cursor(NID.NORMAL_MESSAGE);
+*	while (cursor.next())
+*		... cursor.entry() ...
+*	</pre>
+*
+*	@see	NodeMap#cursor(byte)
+*	@see	NodeMap#cursor(int, int)
+*/
+public interface NodeCursor {
+
+	/**	Retrieve the current node.
+	*
+	*	@return	The node B-tree leaf entry for the current node.
+	*
+	*	@throws	java.util.NoSuchElementException	The cursor is not positioned on a node.
+	*/
+	NBTEntry entry();
+
+	/**	Advance to the next matching node.
+	*
+	*	@return	true if the cursor is now positioned on a matching node, false if there are no more matching nodes.
+	*
+	*	@throws	java.io.IOException	There was a problem reading the node B-tree.
+	*/
+	boolean next()
+	throws
+		java.io.IOException;
+
+	/**	Retrieve the node ID of the current node, without creating a node B-tree leaf entry for it.
+	*
+	*	@return	The node ID (search key) of the current node.
+	*
+	*	@throws	java.util.NoSuchElementException	The cursor is not positioned on a node.
+	*/
+	int nidKey();
+}
@@ -6,6 +6,49 @@ package io.github.jmcleodfoss.pst;
 */
 class NodeFinder extends PagedBTreeFinder implements NodeMap {
 
+	/**	The Cursor class provides the {@link NodeCursor} interface for a pass through part of the node B-tree. */
+	private class Cursor extends PagedBTreeFinder.Cursor implements NodeCursor {
+
+		/**	Create a cursor over the nodes with keys from fromKey to toKey whose masked bits match the given value.
+		*
+		*	@param	fromKey	The smallest node ID (search key) to return.
+		*	@param	toKey	The largest node ID (search key) to return.
+		*	@param	mask	The bits of each node ID to compare to value; if 0, all nodes in the range are returned.
+		*	@param	value	The value which the masked bits of a node ID must have.
+		*
+		*	@throws	java.io.IOException	An I/O error was encountered while reading in a B-tree page.
+		*/
+		private Cursor(final long fromKey, final long toKey, final long mask, final long value)
+		throws
+			java.io.IOException
+		{
+			super(pstFile.header.nbtRoot, fromKey, toKey, mask, value);
+		}
+
+		/**	{@inheritDoc} */
+		public NBTEntry entry()
+		{
+			if (current() == null)
+				throw new java.util.NoSuchElementException();
+			return (NBTEntry)current();
+		}
+
+		/**	{@inheritDoc} */
+		@Override
+		public boolean next()
+		throws
+			java.io.IOException
+		{
+			return super.next();
+		}
+
+		/**	{@inheritDoc} */
+		public int nidKey()
+		{
+			return (int)entry().key();
+		}
+	}
+
 	/**	The BTreePage class holds information about paged (block &amp; node) B-trees. */
 	private class BTreePage extends PagedBTreeFinder.BTreePage {
 
@@ -49,6 +92,16 @@ class NodeFinder extends PagedBTreeFinder implements NodeMap {
 		super(pstFile);
 	}
 
+	/**	Construct a NodeFinder object, optionally in lazy mode, in which every page read is kept until the memory is needed.
+	*
+	*	@param	pstFile	The PST file data stream, header, etc.
+	*	@param	fLazy	If true, keep all B-tree pages read; otherwise, keep intermediate pages and a fixed number of leaf pages.
+	*/
+	NodeFinder(PSTFile pstFile, final boolean fLazy)
+	{
+		super(pstFile, fLazy);
+	}
+
 	/**	{@inheritDoc} */
 	protected PagedBTreeFinder.BTreePage bTreePageFactory(BREF bref)
 	throws
@@ -57,6 +110,22 @@ class NodeFinder extends PagedBTreeFinder implements NodeMap {
 		return new BTreePage(bref, pstFile);
 	}
 
+	/**	{@inheritDoc} */
+	public NodeCursor cursor(final byte type)
+	throws
+		java.io.IOException
+	{
+		return new Cursor(Integer.MIN_VALUE, Integer.MAX_VALUE, NID.TYPE_MASK, type);
+	}
+
+	/**	{@inheritDoc} */
+	public NodeCursor cursor(final int fromKey, final int toKey)
+	throws
+		java.io.IOException
+	{
+		return new Cursor(fromKey, toKey, 0, 0);
+	}
+
 	/**	Return the requested block, or null if the block was not found.
 	*
 	*	@param	nid	The node ID of the node to look for.
@@ -105,6 +174,7 @@ class NodeFinder extends PagedBTreeFinder implements NodeMap {
 				System.out.printf("Success: all %d NIDs found\n", nids);
 			else
 				System.out.printf("Failure: %d out of %d NIDs not found\n", discrepancies, nids);
+			System.out.printf("Page cache: %d pages, %d hits, %d misses\n", nf.cachedPages(), nf.cacheHits(), nf.cacheMisses());
 		} catch (final Exception e) {
 			e.printStackTrace(System.out);
 		}
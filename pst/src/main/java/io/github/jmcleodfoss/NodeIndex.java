@@ -0,0 +1,450 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The NodeIndex class holds the leaf entries of the PST file's node B-tree in sorted parallel arrays of primitive values, and
+*	finds nodes by binary search. It uses far less memory than {@link NodeBTree}, which keeps an object graph for every node,
+*	while avoiding the file reads required by {@link NodeFinder} for each search.
+*
+*	The nodes of a given {@link NID} type may be visited without creating any objects:
+*	<pre>
+*	for (int n = 0; n &lt; index.numberOfType(NID.NORMAL_FOLDER); ++n) {
+*		final int i = index.positionOfType(NID.NORMAL_FOLDER, n);
+*		... index.nid(i), index.bidData(i), index.nidParent(i) ...
+*	}
+*	</pre>
+*
+*	@see	io.github.jmcleodfoss.pst.NodeBTree
+*	@see	io.github.jmcleodfoss.pst.NodeFinder
+*/
+class NodeIndex extends PagedBTreeIndex implements NodeMap {
+
+	/**	The Cursor class passes through a range of positions in the index, either directly or through the ordering by type. */
+	private class Cursor implements NodeCursor {
+
+		/**	The ordering through which positions are found, or null if the positions are used directly. */
+		private final int[] order;
+
+		/**	The next position (or index into {@link #order}) to visit. */
+		private int next;
+
+		/**	The position (or index into {@link #order}) after the last one to visit. */
+		private final int end;
+
+		/**	The position in the index of the current node, or -1 if the cursor is not positioned on a node. */
+		private int current;
+
+		/**	Create a cursor over the given range of positions.
+		*
+		*	@param	order	The ordering through which positions are found, or null if the positions are used directly.
+		*	@param	start	The first position (or index into order) to visit.
+		*	@param	end	The position (or index into order) after the last one to visit.
+		*/
+		private Cursor(final int[] order, final int start, final int end)
+		{
+			this.order = order;
+			next = start;
+			this.end = Math.max(start, end);
+			current = -1;
+		}
+
+		/**	{@inheritDoc} */
+		public NBTEntry entry()
+		{
+			if (current < 0)
+				throw new java.util.NoSuchElementException();
+			return NodeIndex.this.entry(current);
+		}
+
+		/**	{@inheritDoc} */
+		public boolean next()
+		{
+			if (next >= end) {
+				current = -1;
+				return false;
+			}
+			current = order == null ? next : order[next];
+			++next;
+			return true;
+		}
+
+		/**	{@inheritDoc} */
+		public int nidKey()
+		{
+			if (current < 0)
+				throw new java.util.NoSuchElementException();
+			return nid[current];
+		}
+	}
+
+	/**	The number of distinct node types (the node type is held in the low five bits of a node ID). */
+	private static final int NUM_TYPES = 0x20;
+
+	/**	The node IDs (the node B-tree search keys) of the nodes, in ascending order. */
+	private int[] nid;
+
+	/**	The raw block IDs of the nodes' data blocks. */
+	private long[] bidData;
+
+	/**	The raw block IDs of the nodes' subnode B-trees. */
+	private long[] bidSubnode;
+
+	/**	The node IDs of the nodes' parents. */
+	private int[] nidParent;
+
+	/**	The positions of the nodes in the index, grouped by node type and in ascending node ID order within each type. */
+	private int[] typeOrder;
+
+	/**	The position in {@link #typeOrder} of the first node of each type; the nodes of type t are found from typeStart[t] up
+	*	to typeStart[t+1].
+	*/
+	private int[] typeStart;
+
+	/**	Read in the node B-tree for the given PST file.
+	*
+	*	@param	pstFile	The PST file's data stream, header, etc.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading in the node B-tree.
+	*/
+	NodeIndex(PSTFile pstFile)
+	throws
+		java.io.IOException
+	{
+		nid = new int[INITIAL_CAPACITY];
+		bidData = new long[INITIAL_CAPACITY];
+		bidSubnode = new long[INITIAL_CAPACITY];
+		nidParent = new int[INITIAL_CAPACITY];
+
+		read(pstFile.header.nbtRoot, pstFile);
+		sortByType();
+	}
+
+	/**	Read in a node index previously saved by {@link #write}.
+	*
+	*	@param	in	The stream from which to read the node index.
+	*
+	*	@see	IndexFile
+	*/
+	NodeIndex(java.nio.ByteBuffer in)
+	{
+		size = in.getInt();
+		nid = new int[size];
+		bidData = new long[size];
+		bidSubnode = new long[size];
+		nidParent = new int[size];
+
+		in.asLongBuffer().get(bidData);
+		in.position(in.position() + size * 8);
+		in.asLongBuffer().get(bidSubnode);
+		in.position(in.position() + size * 8);
+		in.asIntBuffer().get(nid);
+		in.position(in.position() + size * 4);
+		in.asIntBuffer().get(nidParent);
+		in.position(in.position() + size * 4);
+
+		sortByType();
+	}
+
+	/**	{@inheritDoc} */
+	protected void addLeaf(java.nio.ByteBuffer entryStream, final boolean fUnicode)
+	{
+		if (size == nid.length) {
+			final int capacity = size * 2;
+			nid = java.util.Arrays.copyOf(nid, capacity);
+			bidData = java.util.Arrays.copyOf(bidData, capacity);
+			bidSubnode = java.util.Arrays.copyOf(bidSubnode, capacity);
+			nidParent = java.util.Arrays.copyOf(nidParent, capacity);
+		}
+
+		nid[size] = entryStream.getInt();
+		if (fUnicode)
+			entryStream.getInt();
+		bidData[size] = fUnicode ? entryStream.getLong() : entryStream.getInt();
+		bidSubnode[size] = fUnicode ? entryStream.getLong() : entryStream.getInt();
+		nidParent[size] = entryStream.getInt();
+		++size;
+	}
+
+	/**	Retrieve the raw block ID of the data block of the node at the given position.
+	*
+	*	@param	i	The position of the node in the index.
+	*
+	*	@return	The raw block ID of the node's data block.
+	*/
+	long bidData(final int i)
+	{
+		return bidData[i];
+	}
+
+	/**	Retrieve the raw block ID of the subnode B-tree of the node at the given position.
+	*
+	*	@param	i	The position of the node in the index.
+	*
+	*	@return	The raw block ID of the node's subnode B-tree.
+	*/
+	long bidSubnode(final int i)
+	{
+		return bidSubnode[i];
+	}
+
+	/**	{@inheritDoc} */
+	protected PagedBTree.PageContext<BTree, BTreeLeaf> contextFactory(final BREF bref, PSTFile pstFile)
+	throws
+		java.io.IOException
+	{
+		return new NodeBTree.NBTContext(bref, pstFile);
+	}
+
+	/**	{@inheritDoc} */
+	public NodeCursor cursor(final byte type)
+	{
+		return new Cursor(typeOrder, typeStart[type], typeStart[type + 1]);
+	}
+
+	/**	{@inheritDoc} */
+	public NodeCursor cursor(final int fromKey, final int toKey)
+	{
+		final int from = indexOf(fromKey);
+		final int to = indexOf(toKey);
+		return new Cursor(null, from >= 0 ? from : -(from + 1), to >= 0 ? to + 1 : -(to + 1));
+	}
+
+	/**	Create the node B-tree leaf entry for the node at the given position in the index.
+	*
+	*	@param	i	The position of the node in the index.
+	*
+	*	@return	The node B-tree leaf entry for the node.
+	*/
+	NBTEntry entry(final int i)
+	{
+		return new NBTEntry(new NID(nid[i]), new BID(bidData[i]), new BID(bidSubnode[i]), new NID(nidParent[i]));
+	}
+
+	/**	Find the node with the given node ID.
+	*
+	*	@param	nid	The node ID of the node to be found.
+	*
+	*	@return	The node B-tree leaf entry for this node ID, or null if the node ID was not found.
+	*/
+	public NBTEntry find(final NID nid)
+	{
+		final int i = indexOf(nid.key);
+		return i >= 0 ? entry(i) : null;
+	}
+
+	/**	Find the position of the node with the given node ID.
+	*
+	*	@param	nidKey	The node ID (search key) of the node to find.
+	*
+	*	@return	The position of the node in the index, or a negative number if it is not present.
+	*/
+	int indexOf(final int nidKey)
+	{
+		return java.util.Arrays.binarySearch(nid, 0, size, nidKey);
+	}
+
+	/**	Obtain an iterator through the node B-tree leaf entries, in node ID order. Unlike the other functions of this class,
+	*	this creates an entry object for each node.
+	*
+	*	@return	An iterator through the nodes in the index.
+	*/
+	java.util.Iterator<BTreeNode> iterator()
+	{
+		return new java.util.Iterator<BTreeNode>() {
+			private int i = 0;
+
+			public boolean hasNext()
+			{
+				return i < size;
+			}
+
+			public BTreeNode next()
+			{
+				if (i >= size)
+					throw new java.util.NoSuchElementException();
+				return entry(i++);
+			}
+
+			public void remove()
+			{
+				throw new UnsupportedOperationException("remove not suported");
+			}
+		};
+	}
+
+	/**	Retrieve the node ID of the node at the given position.
+	*
+	*	@param	i	The position of the node in the index.
+	*
+	*	@return	The node ID (search key) of the node.
+	*/
+	int nid(final int i)
+	{
+		return nid[i];
+	}
+
+	/**	Retrieve the parent node ID of the node at the given position.
+	*
+	*	@param	i	The position of the node in the index.
+	*
+	*	@return	The node ID of the node's parent.
+	*/
+	int nidParent(final int i)
+	{
+		return nidParent[i];
+	}
+
+	/**	Retrieve the number of nodes of the given type.
+	*
+	*	@param	type	The node type, e.g. {@link NID#NORMAL_FOLDER}.
+	*
+	*	@return	The number of nodes of the given type.
+	*/
+	int numberOfType(final byte type)
+	{
+		return typeStart[type + 1] - typeStart[type];
+	}
+
+	/**	Retrieve the position in the index of the n'th node (in node ID order) of the given type.
+	*
+	*	@param	type	The node type, e.g. {@link NID#NORMAL_FOLDER}.
+	*	@param	n	Which node of this type to retrieve, from 0 to {@link #numberOfType numberOfType(type)}-1.
+	*
+	*	@return	The position of the node in the index.
+	*/
+	int positionOfType(final byte type, final int n)
+	{
+		return typeOrder[typeStart[type] + n];
+	}
+
+	/**	{@inheritDoc} */
+	protected void reorder(final int[] permutation)
+	{
+		final int[] newNid = new int[size];
+		final long[] newBidData = new long[size];
+		final long[] newBidSubnode = new long[size];
+		final int[] newNidParent = new int[size];
+		for (int i = 0; i < size; ++i) {
+			newNid[i] = nid[permutation[i]];
+			newBidData[i] = bidData[permutation[i]];
+			newBidSubnode[i] = bidSubnode[permutation[i]];
+			newNidParent[i] = nidParent[permutation[i]];
+		}
+		nid = newNid;
+		bidData = newBidData;
+		bidSubnode = newBidSubnode;
+		nidParent = newNidParent;
+	}
+
+	/**	Build the secondary ordering of the nodes by type. */
+	private void sortByType()
+	{
+		typeStart = new int[NUM_TYPES + 1];
+		for (int i = 0; i < size; ++i)
+			++typeStart[type(i) + 1];
+		for (int t = 1; t <= NUM_TYPES; ++t)
+			typeStart[t] += typeStart[t-1];
+
+		typeOrder = new int[size];
+		final int[] next = java.util.Arrays.copyOf(typeStart, NUM_TYPES);
+		for (int i = 0; i < size; ++i)
+			typeOrder[next[type(i)]++] = i;
+	}
+
+	/**	{@inheritDoc} */
+	protected long sortKey(final int i)
+	{
+		return nid[i];
+	}
+
+	/**	{@inheritDoc} */
+	protected void trim()
+	{
+		nid = java.util.Arrays.copyOf(nid, size);
+		bidData = java.util.Arrays.copyOf(bidData, size);
+		bidSubnode = java.util.Arrays.copyOf(bidSubnode, size);
+		nidParent = java.util.Arrays.copyOf(nidParent, size);
+	}
+
+	/**	Retrieve the type of the node at the given position.
+	*
+	*	@param	i	The position of the node in the index.
+	*
+	*	@return	The node type, e.g. {@link NID#NORMAL_FOLDER}.
+	*/
+	int type(final int i)
+	{
+		return nid[i] & NID.TYPE_MASK;
+	}
+
+	/**	Save this node index to the given stream, from which it may later be read by {@link #NodeIndex(java.nio.ByteBuffer)}.
+	*
+	*	@param	out	The stream to which to write the node index.
+	*/
+	void write(java.nio.ByteBuffer out)
+	{
+		out.putInt(size);
+		out.asLongBuffer().put(bidData);
+		out.position(out.position() + size * 8);
+		out.asLongBuffer().put(bidSubnode);
+		out.position(out.position() + size * 8);
+		out.asIntBuffer().put(nid);
+		out.position(out.position() + size * 4);
+		out.asIntBuffer().put(nidParent);
+		out.position(out.position() + size * 4);
+	}
+
+	/**	Retrieve the number of bytes required to save this node index.
+	*
+	*	@return	The number of bytes which {@link #write} will write.
+	*/
+	int writeSize()
+	{
+		return 4 + size * (8 + 8 + 4 + 4);
+	}
+
+	/**	Test this class by reading in the node B-tree both as a NodeBTree and a NodeIndex, checking that the same nodes are
+	*	found in each, and listing the number of nodes of each type.
+	*
+	*	@param	args	The command line arguments to the test application.
+	*/
+	public static void main(final String[] args)
+	{
+		if (args.length == 0) {
+			System.out.println("use:\n\tjava io.github.jmcleodfoss.pst.NodeIndex pst-file");
+			System.exit(1);
+		}
+
+		try {
+			PSTFile pstFile = new PSTFile(new java.io.FileInputStream(args[0]));
+
+			long start = System.nanoTime();
+			final NodeBTree nbt = new NodeBTree(0, pstFile.header.nbtRoot, pstFile);
+			System.out.printf("NodeBTree read in %.1f ms\n", (System.nanoTime() - start) / 1e6);
+
+			start = System.nanoTime();
+			final NodeIndex index = new NodeIndex(pstFile);
+			System.out.printf("NodeIndex read in %.1f ms, %d nodes\n", (System.nanoTime() - start) / 1e6, index.size());
+
+			int nodes = 0;
+			int discrepancies = 0;
+			java.util.Iterator<BTreeNode> iterator = nbt.iterator();
+			while (iterator.hasNext()) {
+				final NBTEntry treeEntry = (NBTEntry)iterator.next();
+				final NBTEntry indexEntry = index.find(treeEntry.nid);
+				++nodes;
+				if (indexEntry == null || treeEntry.toString().compareTo(indexEntry.toString()) != 0)
+					++discrepancies;
+			}
+			if (discrepancies == 0 && nodes == index.size())
+				System.out.printf("Success: all %d NIDs found\n", nodes);
+			else
+				System.out.printf("Failure: %d out of %d NIDs not found or different, %d NIDs in index\n", discrepancies, nodes, index.size());
+
+			for (byte type = 0; type < NUM_TYPES; ++type) {
+				if (index.numberOfType(type) > 0)
+					System.out.printf("type 0x%02x: %d nodes\n", type, index.numberOfType(type));
+			}
+		} catch (final Exception e) {
+			e.printStackTrace(System.out);
+		}
+	}
+}
@@ -3,6 +3,32 @@ package io.github.jmcleodfoss.pst;
 /**	The NodeMap interface describes classes which allow a node to be found in the node B-tree. */
 public interface NodeMap {
 
+	/**	Obtain a cursor over the nodes of the given type, in node ID order. Nodes of other types are skipped without being
+	*	returned.
+	*
+	*	@param	type	The node type, e.g. {@link NID#NORMAL_MESSAGE}.
+	*
+	*	@return	A cursor positioned before the first node of the given type.
+	*
+	*	@throws java.io.IOException	There was a problem reading the node B-tree.
+	*/
+	NodeCursor cursor(final byte type)
+	throws
+		java.io.IOException;
+
+	/**	Obtain a cursor over the nodes with node IDs in the given range, in node ID order.
+	*
+	*	@param	fromKey	The smallest node ID (search key) to include.
+	*	@param	toKey	The largest node ID (search key) to include.
+	*
+	*	@return	A cursor positioned before the first node in the given range.
+	*
+	*	@throws java.io.IOException	There was a problem reading the node B-tree.
+	*/
+	NodeCursor cursor(final int fromKey, final int toKey)
+	throws
+		java.io.IOException;
+
 	/**	Find the node with the given node ID.
 	*
 	*	@param	nid	The node ID of the node to be found.
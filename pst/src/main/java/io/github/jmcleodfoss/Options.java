@@ -4,9 +4,6 @@ package io.github.jmcleodfoss.pst;
 
 class Options {
 
-	/**	This veriable dictates whether the CRC should be checked. */
-	static boolean checkCRC = true;
-
 	/**	This variable enables or disabling full debugging from the beginning of main. */
 	static boolean fullDebugging = false;
 
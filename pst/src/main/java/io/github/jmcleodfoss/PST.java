@@ -3,6 +3,29 @@ package io.github.jmcleodfoss.pst;
 /**	The PST class is a convenience collection of entities describing a PST file. */
 public class PST extends PSTFile {
 
+	/**	The Footprint enumeration lists the ways in which the block and node B-trees may be held in memory. */
+	public static enum Footprint {
+		/**	Read the B-trees in all at once, using one thread per processor, and hold them as {@link BlockBTree} and
+		*	{@link NodeBTree} objects.
+		*/
+		LARGE,
+
+		/**	Hold the B-trees in {@link BlockFinder} and {@link NodeFinder} objects, which read B-tree pages from the PST
+		*	file as needed, keeping only the intermediate pages and a limited number of leaf pages.
+		*/
+		SMALL,
+
+		/**	Hold the B-trees in {@link BlockFinder} and {@link NodeFinder} objects which read each page of the B-tree the
+		*	first time it is needed and keep it afterwards, until the memory is needed for something else.
+		*/
+		LAZY,
+
+		/**	Read the B-trees in all at once and hold them as sorted arrays of primitive values in {@link BlockIndex} and
+		*	{@link NodeIndex} objects.
+		*/
+		COMPACT
+	}
+
 	/**	The block B-tree in this PST file. */
 	public final BlockMap blockBTree;
 
@@ -15,6 +38,12 @@ public class PST extends PSTFile {
 	/**	The PST MessageStore */
 	public final MessageStore messageStore;
 
+	/**	The index of the children of each node, built the first time it is needed.
+	*
+	*	@see	#childIndex
+	*/
+	private ChildIndex childIndex;
+
 	/**	Create a "large footprint" PST object from the given filename.
 	*
 	*	@param	fn		The file name of the PST file to read.
@@ -101,18 +130,135 @@ public class PST extends PSTFile {
 		UnparseableTableContextException,
 		java.io.IOException
 	{
-		super(fis);
+		this(fis, fSmallFootprint ? Footprint.SMALL : Footprint.LARGE);
+	}
+
+	/**	Create a PST object from the given FileInputStream, holding the block and node B-trees as requested.
+	*
+	*	@param	fis		The FileInputStream of the PST file to read.
+	*	@param	footprint	How the block and node B-trees should be held in memory.
+	*
+	*	@throws	NotHeapNodeException			An invalid or corrupt heap node was found.
+	*	@throws NotPSTFileException			The file is not a PST file.
+	*	@throws	NotPropertyContextNodeException		A node without the Property Context client signature was found while building a property context.
+	*	@throws	NullDataBlockException			A null data block was found while building a property context.
+	*	@throws UnknownClientSignatureException		The client signature of a node was not recognized.
+	*	@throws UnparseablePropertyContextException	A property context block could not be read.
+	*	@throws UnparseableTableContextException	A table context block could not be read.
+	*	@throws java.io.IOException			There was an I/O error reading the file.
+	*/
+	public PST(final java.io.FileInputStream fis, final Footprint footprint)
+	throws
+		NotHeapNodeException,
+		NotPSTFileException,
+		NotPropertyContextNodeException,
+		NullDataBlockException,
+		UnknownClientSignatureException,
+		UnparseablePropertyContextException,
+		UnparseableTableContextException,
+		java.io.IOException
+	{
+		this(fis, footprint, CRCPolicy.ALWAYS);
+	}
 
-		blockBTree = fSmallFootprint ? new BlockFinder((PSTFile)this) : new BlockBTree(0, header.bbtRoot, (PSTFile)this);
-		nodeBTree = fSmallFootprint ? new NodeFinder((PSTFile)this) : new NodeBTree(0, header.nbtRoot, (PSTFile)this);
+	/**	Create a PST object from the given FileInputStream, holding the block and node B-trees as requested and checking CRCs
+	*	according to the given policy.
+	*
+	*	@param	fis		The FileInputStream of the PST file to read.
+	*	@param	footprint	How the block and node B-trees should be held in memory.
+	*	@param	crcPolicy	The policy to use when checking the CRCs of the header and data blocks.
+	*
+	*	@throws	NotHeapNodeException			An invalid or corrupt heap node was found.
+	*	@throws NotPSTFileException			The file is not a PST file.
+	*	@throws	NotPropertyContextNodeException		A node without the Property Context client signature was found while building a property context.
+	*	@throws	NullDataBlockException			A null data block was found while building a property context.
+	*	@throws UnknownClientSignatureException		The client signature of a node was not recognized.
+	*	@throws UnparseablePropertyContextException	A property context block could not be read.
+	*	@throws UnparseableTableContextException	A table context block could not be read.
+	*	@throws java.io.IOException			There was an I/O error reading the file.
+	*/
+	public PST(final java.io.FileInputStream fis, final Footprint footprint, final CRCPolicy crcPolicy)
+	throws
+		NotHeapNodeException,
+		NotPSTFileException,
+		NotPropertyContextNodeException,
+		NullDataBlockException,
+		UnknownClientSignatureException,
+		UnparseablePropertyContextException,
+		UnparseableTableContextException,
+		java.io.IOException
+	{
+		super(fis, crcPolicy);
+
+		switch (footprint) {
+		case SMALL:
+			blockBTree = new BlockFinder((PSTFile)this);
+			nodeBTree = new NodeFinder((PSTFile)this);
+			break;
+
+		case LAZY:
+			blockBTree = new BlockFinder((PSTFile)this, true);
+			nodeBTree = new NodeFinder((PSTFile)this, true);
+			break;
+
+		case COMPACT:
+			blockBTree = new BlockIndex((PSTFile)this);
+			nodeBTree = new NodeIndex((PSTFile)this);
+			break;
+
+		default:
+			final BTreeLoader loader = new BTreeLoader((PSTFile)this);
+			blockBTree = loader.blockBTree;
+			nodeBTree = loader.nodeBTree;
+			break;
+		}
 
 		namedProperties = new NameToIDMap(blockBTree, nodeBTree, this);
 		messageStore = new MessageStore(blockBTree, nodeBTree, this);
 
-		Appointment.initConstants(namedProperties);
-		Contact.initConstants(namedProperties);
-		DistributionList.initConstants(namedProperties);
-		Task.initConstants(namedProperties);
+		initNamedPropertyConstants();
+	}
+
+	/**	Create a PST object from the given FileInputStream, holding the block and node B-trees as for
+	*	{@link Footprint#COMPACT}, and reading them and the named property map from the given index file if possible. If the
+	*	index file does not exist or does not match the PST file, the B-trees and named property map are read from the PST
+	*	file and saved in the index file for next time.
+	*
+	*	@param	fis		The FileInputStream of the PST file to read.
+	*	@param	crcPolicy	The policy to use when checking the CRCs of the header and data blocks.
+	*	@param	indexFile	The file in which the index of the PST file is kept.
+	*
+	*	@throws	NotHeapNodeException			An invalid or corrupt heap node was found.
+	*	@throws NotPSTFileException			The file is not a PST file.
+	*	@throws	NotPropertyContextNodeException		A node without the Property Context client signature was found while building a property context.
+	*	@throws	NullDataBlockException			A null data block was found while building a property context.
+	*	@throws UnknownClientSignatureException		The client signature of a node was not recognized.
+	*	@throws UnparseablePropertyContextException	A property context block could not be read.
+	*	@throws UnparseableTableContextException	A table context block could not be read.
+	*	@throws java.io.IOException			There was an I/O error reading the file.
+	*
+	*	@see	IndexFile
+	*/
+	public PST(final java.io.FileInputStream fis, final CRCPolicy crcPolicy, final java.io.File indexFile)
+	throws
+		NotHeapNodeException,
+		NotPSTFileException,
+		NotPropertyContextNodeException,
+		NullDataBlockException,
+		UnknownClientSignatureException,
+		UnparseablePropertyContextException,
+		UnparseableTableContextException,
+		java.io.IOException
+	{
+		super(fis, crcPolicy);
+
+		final IndexFile index = IndexFile.open(indexFile, (PSTFile)this);
+		blockBTree = index.blockIndex;
+		nodeBTree = index.nodeIndex;
+		namedProperties = index.namedProperties;
+		messageStore = new MessageStore(blockBTree, nodeBTree, this);
+
+		initNamedPropertyConstants();
 	}
 
 	/**	Check whether the given password matches the stored password.
@@ -128,6 +274,45 @@ public class PST extends PSTFile {
 		return messageStore.checkPassword(testPassword);
 	}
 
+	/**	Retrieve the index of the children of each node, building it if this is the first time it has been requested.
+	*
+	*	@return	The index of the children of each node in the node B-tree.
+	*
+	*	@throws	java.io.IOException	There was an I/O error reading the node B-tree.
+	*/
+	private synchronized ChildIndex childIndex()
+	throws
+		java.io.IOException
+	{
+		if (childIndex == null)
+			childIndex = new ChildIndex(nodeBTree);
+		return childIndex;
+	}
+
+	/**	Retrieve the nodes of the given types which are children of the given node.
+	*
+	*	@param	parent	The description of the parent node.
+	*	@param	types	The node types to include, as a bit mask in which bit n is set to include nodes of type n.
+	*
+	*	@return	The node B-tree leaf entries for the children of the given node which are of the given types, in node ID
+	*		order, or null if the node B-tree could not be read.
+	*/
+	private java.util.List<NBTEntry> childNodes(final NBTEntry parent, final int types)
+	{
+		try {
+			final int[] children = childIndex().children((int)parent.nid.key(), types);
+			java.util.List<NBTEntry> nodes = new java.util.ArrayList<NBTEntry>(children.length);
+			for (final int nid : children) {
+				final NBTEntry node = nodeBTree.find(new NID(nid));
+				if (node != null)
+					nodes.add(node);
+			}
+			return nodes;
+		} catch (final java.io.IOException e) {
+			return null;
+		}
+	}
+
 	/**	Get a folder and its first set of descendent sub-folders.
 	*
 	*	@param	nodeFolder	The description of the folder node.
@@ -185,6 +370,30 @@ public class PST extends PSTFile {
 		return null;
 	}
 
+	/**	Initialize the constants which depend on the named property map in the classes which use them. */
+	private void initNamedPropertyConstants()
+	{
+		Appointment.initConstants(namedProperties);
+		Contact.initConstants(namedProperties);
+		DistributionList.initConstants(namedProperties);
+		Task.initConstants(namedProperties);
+	}
+
+	/**	Retrieve the messages in the given folder using the parent node ID held in each node B-tree entry, without reading the
+	*	folder's contents table. The messages are returned in node ID order, which need not be the order of the rows in the
+	*	contents table.
+	*
+	*	@param	folder	The description of the folder node.
+	*
+	*	@return	The node B-tree leaf entries for the messages in the folder, or null if the node B-tree could not be read.
+	*
+	*	@see	#subfolderNodes
+	*/
+	public java.util.List<NBTEntry> messageNodes(final NBTEntry folder)
+	{
+		return childNodes(folder, ChildIndex.typeMask(NID.NORMAL_MESSAGE));
+	}
+
 	/**	Convenience function to retrieve a table model for the PST file's message store.
 	*
 	*	@return	A table model for the {@link #messageStore} memeber.
@@ -221,9 +430,12 @@ public class PST extends PSTFile {
 	*	@return	An iterator over the leaves of the node B-tree.
 	*
 	*	@see	NodeBTree
+	*	@see	NodeIndex
 	*/
 	java.util.Iterator<BTreeNode> nodeIterator()
 	{
+		if (nodeBTree instanceof NodeIndex)
+			return ((NodeIndex)nodeBTree).iterator();
 		return ((NodeBTree)nodeBTree).iterator();
 	}
 
@@ -294,6 +506,31 @@ public class PST extends PSTFile {
 		return null;
 	}
 
+	/**	Convenience function to obtain the given properties from the property context for the given node, without reading
+	*	the rest of the property context.
+	*
+	*	@param	node	The node or sub-node B-tree leaf from which to retrieve the property context.
+	*	@param	tags	The tags of the properties to read.
+	*
+	*	@return	The property context from the given node, containing only the requested properties.
+	*
+	*	@see	#propertyContext(LPTLeaf)
+	*/
+	public PropertyContext propertyContext(LPTLeaf node, final int[] tags)
+	{
+		try {
+			return new PropertyContext(node, blockBTree, this, tags);
+		} catch (final NotHeapNodeException e) {
+		} catch (final NotPropertyContextNodeException e) {
+		} catch (final NullDataBlockException e) {
+		} catch (final UnknownClientSignatureException e) {
+		} catch (final UnparseablePropertyContextException e) {
+		} catch (final java.io.IOException e) {
+		}
+
+		return null;
+	}
+
 	/**	Convenience function to obtain the property context for the given node in the node B-tree.
 	*
 	*	@param	nid	A node ID in the node B-tree.
@@ -322,6 +559,22 @@ public class PST extends PSTFile {
 		return namedProperties.name(tag);
 	}
 
+	/**	Retrieve the sub-folders of the given folder using the parent node ID held in each node B-tree entry, without reading
+	*	the folder's hierarchy table. The sub-folders are returned in node ID order, which need not be the order of the rows in
+	*	the hierarchy table.
+	*
+	*	@param	folder	The description of the folder node.
+	*
+	*	@return	The node B-tree leaf entries for the sub-folders of the folder, or null if the node B-tree could not be read.
+	*
+	*	@see	#getFolder
+	*	@see	#messageNodes
+	*/
+	public java.util.List<NBTEntry> subfolderNodes(final NBTEntry folder)
+	{
+		return childNodes(folder, ChildIndex.typeMask(NID.NORMAL_FOLDER) | ChildIndex.typeMask(NID.SEARCH_FOLDER));
+	}
+
 	/**	Convenience function to obtain sub-node B-Tree for the given node ID.
 	*
 	*	@param	nid	The node ID in the node B-tree to construct the sub-node B-tree for.
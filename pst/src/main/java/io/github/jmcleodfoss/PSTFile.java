@@ -1,16 +1,46 @@
 package io.github.jmcleodfoss.pst;
 
-/**	The PSTFile class is a convenience container class used to read later data from the file. */
+/**	The PSTFile class is a convenience container class used to read later data from the file. All reads are made at absolute
+*	offsets through independent views of the memory-mapped file, so a single PSTFile object may be shared between threads.
+*/
 public class PSTFile {
 
+	/**	The size of each memory-mapped window onto the PST file. A single MappedByteBuffer cannot address more than
+	*	Integer.MAX_VALUE bytes, so larger files are mapped as a sequence of windows of this size.
+	*/
+	private static final long SEGMENT_SIZE = 1L << 30;
+
+	/**	The number of bytes by which each window extends into the next one. Since no single structure read from a PST
+	*	file (block, XBLOCK, or B-tree page) exceeds this size, any read starting within a window may be completed without
+	*	crossing into the next one.
+	*/
+	private static final int SEGMENT_OVERLAP = 1 << 16;
+
 	/**	The data stream for the PST file. */
 	private java.io.FileInputStream stream;
 
 	/**	The FileChannel of the data stream, used to jump around the file. */
 	private java.nio.channels.FileChannel fc;
 
-	/**	The file, as a memory-mapped byte file. */
-	java.nio.MappedByteBuffer mbb;
+	/**	The file, as a list of overlapping memory-mapped windows, each starting at a multiple of {@link #SEGMENT_SIZE}. The
+	*	position and limit of these buffers are never changed after construction; reads are made through duplicates.
+	*/
+	private final java.nio.MappedByteBuffer[] segments;
+
+	/**	The size of the PST file, in bytes. */
+	private final long fileSize;
+
+	/**	The cache of decoded data blocks read from this file. */
+	private BlockCache blockCache;
+
+	/**	The policy used to check the CRCs of data blocks read from this file. */
+	private CRCPolicy crcPolicy;
+
+	/**	Whether data blocks which need neither decryption nor a CRC check should be used directly from the memory-mapped file. */
+	private boolean zeroCopy;
+
+	/**	Whether the blocks making up a heap-on-node should be read only when an allocation in them is first needed. */
+	private boolean lazyHeaps;
 
 	/**	The PST header, which contains encryption and file format information as well as other useful data. */
 	public final Header header;
@@ -23,6 +53,22 @@ public class PSTFile {
 	* 	@throws java.io.IOException	There was an I/O error reading the input stream.
 	*/
 	public PSTFile(java.io.FileInputStream stream)
+	throws
+		NotPSTFileException,
+		java.io.IOException
+	{
+		this(stream, CRCPolicy.ALWAYS);
+	}
+
+	/**	Create a FileChannel for the given filename and read in the PST header, checking CRCs according to the given policy.
+	*
+	*	@param	stream		The PST file to read.
+	*	@param	crcPolicy	The policy to use when checking the CRCs of the header and data blocks.
+	*
+	*	@throws NotPSTFileException	The input stream does not contain a PST file.
+	* 	@throws java.io.IOException	There was an I/O error reading the input stream.
+	*/
+	public PSTFile(java.io.FileInputStream stream, final CRCPolicy crcPolicy)
 	throws
 		NotPSTFileException,
 		java.io.IOException
@@ -31,10 +77,18 @@ public class PSTFile {
 
 		fc = this.stream.getChannel();
 
-		mbb = fc.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, fc.size());
-		mbb.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+		fileSize = fc.size();
+		segments = new java.nio.MappedByteBuffer[(int)Math.max(1, (fileSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+		for (int i = 0; i < segments.length; ++i) {
+			final long start = i * SEGMENT_SIZE;
+			final long size = Math.min(SEGMENT_SIZE + SEGMENT_OVERLAP, fileSize - start);
+			segments[i] = fc.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, start, size);
+			segments[i].order(java.nio.ByteOrder.LITTLE_ENDIAN);
+		}
 
-		header = new io.github.jmcleodfoss.pst.Header(mbb);
+		blockCache = new BlockCache();
+		this.crcPolicy = crcPolicy;
+		header = new io.github.jmcleodfoss.pst.Header(segments[0].duplicate().order(java.nio.ByteOrder.LITTLE_ENDIAN), crcPolicy.checkHeader());
 	}
 
 	/**	A convenience method to return the encryption method in the header.
@@ -46,17 +100,33 @@ public class PSTFile {
 		return header.encryption;
 	}
 
-	/**	A convenience method to move to the given point in the PST file.
+	/**	Obtain a view of the given range of the PST file from which data may be read. The view has its own position and
+	*	limit, so reading from it does not affect any other reader of the file.
 	*
-	*	@param	position	The location in the PST file to move the mapped byte buffer pointer to.
+	*	@param	position	The location in the PST file at which the view should start.
+	*	@param	length		The number of bytes which may be read from the view.
 	*
-	*	@throws	java.io.IOException	An I/O error was encountered while trying to move to the requested location in the file.
+	*	@return	A little-endian ByteBuffer positioned at the requested location in the file and limited to the requested length.
+	*
+	*	@throws	java.io.IOException	The requested range is not within the PST file.
 	*/
-	void position(final long position)
+	java.nio.ByteBuffer dataStream(final long position, final int length)
 	throws
 		java.io.IOException
 	{
-		mbb.position((int)position);
+		final int segment = (int)(position / SEGMENT_SIZE);
+		if (position < 0 || length < 0 || length > SEGMENT_OVERLAP || segment >= segments.length)
+			throw new java.io.IOException("Range " + Long.toHexString(position) + "+" + Integer.toHexString(length) + " is outside the PST file");
+
+		final int offset = (int)(position - segment * SEGMENT_SIZE);
+		if (offset + length > segments[segment].capacity())
+			throw new java.io.IOException("Range " + Long.toHexString(position) + "+" + Integer.toHexString(length) + " is outside the PST file");
+
+		java.nio.ByteBuffer byteBuffer = segments[segment].duplicate();
+		byteBuffer.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+		byteBuffer.limit(offset + length);
+		byteBuffer.position(offset);
+		return byteBuffer;
 	}
 
 	/**	Read data from the given position as a ByteBuffer
@@ -66,14 +136,94 @@ public class PSTFile {
 	*
 	*	@return	A ByteBuffer providing access to the requested bytes
 	*/
-	public java.nio.ByteBuffer read(final int position, final int length)
+	public java.nio.ByteBuffer read(final long position, final int length)
 	{
 		byte[] data = new byte[length];
-		mbb.position(position);
-		mbb.get(data);
+		try {
+			dataStream(position, length).get(data);
+		} catch (final java.io.IOException e) {
+			throw new IndexOutOfBoundsException(e.getMessage());
+		}
 		return java.nio.ByteBuffer.wrap(data).asReadOnlyBuffer();
 	}
 
+	/**	Obtain the cache of decoded data blocks for this file, e.g. to examine the cache statistics or change its size.
+	*
+	*	@return	The block cache for this file.
+	*/
+	public BlockCache blockCache()
+	{
+		return blockCache;
+	}
+
+	/**	Replace the cache of decoded data blocks for this file, e.g. with one using a different eviction policy.
+	*
+	*	@param	blockCache	The new block cache for this file.
+	*/
+	public void setBlockCache(final BlockCache blockCache)
+	{
+		this.blockCache = blockCache;
+	}
+
+	/**	Obtain the policy used to check the CRCs of data blocks read from this file.
+	*
+	*	@return	The CRC policy for this file.
+	*/
+	public CRCPolicy crcPolicy()
+	{
+		return crcPolicy;
+	}
+
+	/**	Change the policy used to check the CRCs of data blocks subsequently read from this file.
+	*
+	*	@param	crcPolicy	The new CRC policy for this file.
+	*/
+	public void setCRCPolicy(final CRCPolicy crcPolicy)
+	{
+		this.crcPolicy = crcPolicy;
+	}
+
+	/**	Change whether data blocks which do not need to be decrypted are used directly from the memory-mapped file rather than
+	*	being copied. This is off by default. Only blocks which the {@link #crcPolicy CRC policy} does not check are used in
+	*	place, so it is most useful with {@link CRCPolicy#OFF} or {@link CRCPolicy#sampled}; blocks which are checked are
+	*	copied and kept in the block cache as usual.
+	*
+	*	@param	zeroCopy	true to use unencrypted, unchecked block data in place, false to copy it (and keep it in the block
+	*				cache).
+	*/
+	public void setZeroCopy(final boolean zeroCopy)
+	{
+		this.zeroCopy = zeroCopy;
+	}
+
+	/**	Indicate whether data blocks which do not need to be decrypted are used directly from the memory-mapped file.
+	*
+	*	@return	true if unencrypted block data is used in place, false if it is copied.
+	*/
+	public boolean zeroCopy()
+	{
+		return zeroCopy;
+	}
+
+	/**	Change whether the blocks making up each subsequently-read {@link HeapOnNode heap-on-node} are read and their page
+	*	maps parsed only when an allocation in the block is first requested, rather than all at once.
+	*
+	*	@param	lazyHeaps	true to read heap-on-node blocks as they are needed, false to read them all at once.
+	*/
+	public void setLazyHeaps(final boolean lazyHeaps)
+	{
+		this.lazyHeaps = lazyHeaps;
+	}
+
+	/**	Indicate whether the blocks making up a heap-on-node are read only as they are needed.
+	*
+	*	@return	true if heap-on-node blocks are read as they are needed, false if they are all read at once.
+	*/
+	public boolean lazyHeaps()
+	{
+		return lazyHeaps;
+	}
+
 	/**	Close the PSTFile file.
 	*
 	* 	@throws java.io.IOException	There was a problem closing the file.
@@ -85,6 +235,15 @@ public class PSTFile {
 		fc.close();
 	}
 
+	/**	Retrieve the size of the PST file.
+	*
+	*	@return	The size of the PST file, in bytes.
+	*/
+	public long size()
+	{
+		return fileSize;
+	}
+
 	/**	A convenience method to indicate whether the PST file uses Unicode or ANSI encoding.
 	*
 	*	@return	true if the PST file read in is a Unicode PST file, false if it is ANSI.
@@ -38,25 +38,6 @@ public abstract class PagedBTree extends BTree {
 			new DataDefinition(nm_cLevel, DataType.integer8Reader, true),
 		};
 
-		/**	Move to the start of this page so that the parent class can read in the header.
-		*
-		*	@param	bref	The block reference for this page.
-		*	@param	pstFile	The PST file's data stream, header, etc.
-		*
-		*	@return	The passed in pstFile object, for use as a parameter to the constructor.
-		*
-		*	@throws	java.io.IOException	An I/O error was encountered when seeking the new position in the file.
-		*
-		*	@see	PageContext
-		*/
-		private static PSTFile gotoPage(final BREF bref, PSTFile pstFile)
-		throws
-			java.io.IOException
-		{
-			pstFile.position(bref.ib.ib);
-			return pstFile;
-		}
-
 		/**	Create a PageContext object form the given pstFile and bref.
 		*
 		*	@param	bref	The block reference for this page.
@@ -68,7 +49,7 @@ public abstract class PagedBTree extends BTree {
 		throws
 			java.io.IOException
 		{
-			super(gotoPage(bref, pstFile), pstFile.unicode() ? unicode_fields : ansi_fields, common_fields);
+			super(pstFile.dataStream(bref.ib.ib, PAGE_SIZE), pstFile, pstFile.unicode() ? unicode_fields : ansi_fields, common_fields);
 		}
 
 		/**	Obtain a data stream from which the B-tree entries may be read.
@@ -215,6 +196,24 @@ public abstract class PagedBTree extends BTree {
 		this.bref = bref;
 	}
 
+	/**	Construct a PageBTree object with the given search key from the given position using the given context, building the
+	*	subtrees below it on the given executor.
+	*
+	*	@param	key		The key for this node.
+	*	@param	bref		The block reference for this page.
+	*	@param	context		The context from which to construct this B-Tree.
+	*	@param	executor	The executor on which to build the subtrees of this node, or null to build them on this thread.
+	*
+	*	@throws java.io.IOException	There was a problem reading the B-tree.
+	*/
+	protected PagedBTree(final long key, final BREF bref, final PageContext<BTree, BTreeLeaf> context, java.util.concurrent.ExecutorService executor)
+	throws
+		java.io.IOException
+	{
+		super(key, context, executor);
+		this.bref = bref;
+	}
+
 	/**	Return the actual size of an intermediate B-tree entry as read in from the input datastream.
 	*
 	*	@param	context	The construction context for this B-tree.
@@ -246,9 +245,8 @@ public abstract class PagedBTree extends BTree {
 	throws
 		java.io.IOException
 	{
-		pstFile.position(bref.ib.ib);
 		byte[] data = new byte[PAGE_SIZE];
-		pstFile.mbb.get(data);
+		pstFile.dataStream(bref.ib.ib, PAGE_SIZE).get(data);
 		return PSTFile.makeByteBuffer(data);
 	}
 
@@ -2,15 +2,214 @@ package io.github.jmcleodfoss.pst;
 
 /**	The PagedBTreeFinder class contains code shared by the {@link io.github.jmcleodfoss.pst.BlockFinder} and {@link io.github.jmcleodfoss.pst.NodeFinder}
 *	classes.
+*
+*	Parsed B-tree pages are kept in a page cache so that each search does not re-read the pages above the leaf it needs.
+*	Intermediate pages, of which there are few, are never removed from the cache; leaf pages are held up to a fixed limit,
+*	with the least-recently used leaf page removed when room is needed. In lazy mode, leaf pages are instead held through soft
+*	references, so every page read is kept until the garbage collector needs the memory, and lookups approach the speed of a
+*	B-tree read in all at once as more of the tree is visited.
 */
 abstract class PagedBTreeFinder {
 
+	/**	The default maximum number of leaf pages held in the page cache. */
+	static final int DEFAULT_MAXIMUM_LEAF_PAGES = 256;
+
+	/**	The Cursor class passes through the leaves of the B-tree whose keys lie in a given range, in key order, optionally
+	*	skipping leaves whose keys do not match a bit pattern. Pages are read through the page cache as they are reached; the
+	*	cursor descends directly to the first leaf in the range and stops at the first leaf past the end of it, so pages outside
+	*	the range are not read.
+	*/
+	protected class Cursor {
+
+		/**	The initial depth of the path arrays; they grow if the B-tree is deeper than this. */
+		private static final int INITIAL_DEPTH = 8;
+
+		/**	The smallest key to return. */
+		private final long fromKey;
+
+		/**	The largest key to return. */
+		private final long toKey;
+
+		/**	The bits of each key to compare to {@link #value}. */
+		private final long mask;
+
+		/**	The value which the masked bits of a key must have for its leaf to be returned. */
+		private final long value;
+
+		/**	The pages from the root to the current leaf page. */
+		private BTreePage[] path;
+
+		/**	The position within each page on the path: the child being visited for intermediate pages, and the next child to
+		*	examine for the leaf page.
+		*/
+		private int[] position;
+
+		/**	The number of pages on the path. */
+		private int depth;
+
+		/**	Whether every page visited has its children in ascending key order, so that the pass may end at the first key
+		*	past the end of the range.
+		*/
+		private boolean fOrdered;
+
+		/**	The current leaf, or null if the cursor is not positioned on a leaf. */
+		private BTreeLeaf current;
+
+		/**	Create a cursor over the leaves of the B-tree with the given root with keys from fromKey to toKey whose masked
+		*	bits match the given value.
+		*
+		*	@param	root	The block reference of the root page of the B-tree.
+		*	@param	fromKey	The smallest key to return.
+		*	@param	toKey	The largest key to return.
+		*	@param	mask	The bits of each key to compare to value; if 0, all keys in the range are returned.
+		*	@param	value	The value which the masked bits of a key must have.
+		*
+		*	@throws	java.io.IOException	An I/O error was encountered while reading in a B-tree page.
+		*/
+		protected Cursor(final BREF root, final long fromKey, final long toKey, final long mask, final long value)
+		throws
+			java.io.IOException
+		{
+			this.fromKey = fromKey;
+			this.toKey = toKey;
+			this.mask = mask;
+			this.value = value;
+			path = new BTreePage[INITIAL_DEPTH];
+			position = new int[INITIAL_DEPTH];
+			fOrdered = true;
+
+			BTreePage btp = page(root);
+			while (btp != null) {
+				final int i;
+				if (btp.keys == null) {
+					fOrdered = false;
+					i = 0;
+				} else if (!btp.fLeaf) {
+					i = Math.max(0, BTree.childIndex(btp.keys, fromKey));
+				} else {
+					final int j = java.util.Arrays.binarySearch(btp.keys, fromKey);
+					i = j >= 0 ? j : -(j + 1);
+				}
+				push(btp, i);
+				btp = !btp.fLeaf && i < btp.children.length ? page(((PagedBTree.BTEntry)btp.children[i]).bref) : null;
+			}
+		}
+
+		/**	Retrieve the current leaf.
+		*
+		*	@return	The current leaf of the B-tree, or null if the cursor is not positioned on a leaf.
+		*/
+		protected BTreeLeaf current()
+		{
+			return current;
+		}
+
+		/**	Descend from the child being visited by the deepest page on the path to the leftmost leaf page below it.
+		*
+		*	@throws	java.io.IOException	An I/O error was encountered while reading in a B-tree page.
+		*/
+		private void descendLeftmost()
+		throws
+			java.io.IOException
+		{
+			BTreePage btp = path[depth-1];
+			int i = position[depth-1];
+			while (!btp.fLeaf && i < btp.children.length) {
+				btp = page(((PagedBTree.BTEntry)btp.children[i]).bref);
+				if (btp.keys == null)
+					fOrdered = false;
+				push(btp, 0);
+				i = 0;
+			}
+		}
+
+		/**	Advance to the next leaf in the range whose key matches.
+		*
+		*	@return	true if the cursor is now positioned on a matching leaf, false if there are no more matching leaves.
+		*
+		*	@throws	java.io.IOException	An I/O error was encountered while reading in a B-tree page.
+		*/
+		protected boolean next()
+		throws
+			java.io.IOException
+		{
+			while (depth > 0) {
+				final BTreePage btp = path[depth-1];
+				final int i = position[depth-1];
+				if (btp.fLeaf && i < btp.children.length) {
+					position[depth-1] = i + 1;
+					final BTreeLeaf leaf = (BTreeLeaf)btp.children[i];
+					final long key = leaf.key();
+					if (key > toKey && fOrdered)
+						break;
+					if (key < fromKey || key > toKey || (key & mask) != value)
+						continue;
+					current = leaf;
+					return true;
+				}
+
+				--depth;
+				if (depth > 0) {
+					++position[depth-1];
+					descendLeftmost();
+				}
+			}
+
+			depth = 0;
+			current = null;
+			return false;
+		}
+
+		/**	Add a page to the end of the path.
+		*
+		*	@param	btp	The page to add.
+		*	@param	i	The initial position within the page.
+		*/
+		private void push(final BTreePage btp, final int i)
+		{
+			if (depth == path.length) {
+				path = java.util.Arrays.copyOf(path, depth * 2);
+				position = java.util.Arrays.copyOf(position, depth * 2);
+			}
+			path[depth] = btp;
+			position[depth] = i;
+			++depth;
+		}
+	}
+
+	/**	The PageReference class is a soft reference to a leaf page which remembers the page's key, so that its entry in the
+	*	cache can be removed once the page has been collected.
+	*/
+	private static class PageReference extends java.lang.ref.SoftReference<PagedBTreeFinder.BTreePage> {
+
+		/**	The block ID key of the page. */
+		private final Long key;
+
+		/**	Create a soft reference to the given page.
+		*
+		*	@param	key	The block ID key of the page.
+		*	@param	page	The page to refer to.
+		*	@param	queue	The queue on which to place this reference once the page has been collected.
+		*/
+		private PageReference(final Long key, final PagedBTreeFinder.BTreePage page, final java.lang.ref.ReferenceQueue<PagedBTreeFinder.BTreePage> queue)
+		{
+			super(page, queue);
+			this.key = key;
+		}
+	}
+
 	/**	The BTreePage class holds information about paged (block &amp; node) B-trees. */
 	protected abstract class BTreePage {
 
 		/**	The children (BTEntry or BBTEntry/NBTEntry) of this BTreePage */
 		private Object[] children;
 
+		/**	Whether this is a leaf page (i.e. its children are BBTEntry or NBTEntry objects). */
+		private boolean fLeaf;
+
+		/**	The keys of the children, for binary search, or null if they are not in strictly ascending order. */
+		private long[] keys;
+
 		/**	Create a BTreePage object form the given pstFile and bref.
 		*
 		*	@param	bref	The block reference for this page.
@@ -27,7 +226,7 @@ abstract class PagedBTreeFinder {
 
 			final int numEntries = context.getNumEntries();
 			Object[] children;
-			final boolean fLeaf = context.isLeafNode();
+			fLeaf = context.isLeafNode();
 
 			if (fLeaf)
 				children = new BTreeLeaf[numEntries];
@@ -51,6 +250,11 @@ abstract class PagedBTreeFinder {
 					entryStream.position(entryStream.position() + skip);
 			}
 			this.children = children;
+
+			final long[] keys = new long[numEntries];
+			for (int i = 0; i < numEntries; ++i)
+				keys[i] = fLeaf ? ((BTreeLeaf)children[i]).key() : ((PagedBTree.BTEntry)children[i]).key();
+			this.keys = BTree.ascending(keys) ? keys : null;
 		}
 
 		/**	Create a B-tree context to use when creating child nodes.
@@ -83,13 +287,77 @@ abstract class PagedBTreeFinder {
 	/**	The underlying PST file data stream, header, etc. */
 	protected PSTFile pstFile;
 
+	/**	The cached intermediate pages, keyed by block ID key; these are never removed. */
+	private final java.util.HashMap<Long, BTreePage> intermediatePages;
+
+	/**	The cached leaf pages, keyed by block ID key, in order of access from least- to most-recently used. */
+	private final java.util.LinkedHashMap<Long, BTreePage> leafPages;
+
+	/**	The maximum number of leaf pages to hold in the cache. */
+	private int maximumLeafPages;
+
+	/**	The softly-held leaf pages, keyed by block ID key, in lazy mode; null otherwise. */
+	private final java.util.HashMap<Long, PageReference> softLeafPages;
+
+	/**	The queue on which references to collected leaf pages are placed, in lazy mode; null otherwise. */
+	private final java.lang.ref.ReferenceQueue<BTreePage> collectedPages;
+
+	/**	The number of requests for pages which were found in the cache. */
+	private long hits;
+
+	/**	The number of requests for pages which were not found in the cache. */
+	private long misses;
+
 	/**	Construct a BlockFinder object.
 	*
 	*	@param	pstFile	The PST file data stream, header, etc.
 	*/
 	protected PagedBTreeFinder(PSTFile pstFile)
+	{
+		this(pstFile, false);
+	}
+
+	/**	Construct a PagedBTreeFinder object, optionally in lazy mode.
+	*
+	*	@param	pstFile	The PST file data stream, header, etc.
+	*	@param	fLazy	If true, keep all leaf pages read until the memory is needed; otherwise keep a fixed number.
+	*/
+	protected PagedBTreeFinder(PSTFile pstFile, final boolean fLazy)
 	{
 		this.pstFile = pstFile;
+		intermediatePages = new java.util.HashMap<Long, BTreePage>();
+		leafPages = new java.util.LinkedHashMap<Long, BTreePage>(16, 0.75f, true);
+		maximumLeafPages = DEFAULT_MAXIMUM_LEAF_PAGES;
+		softLeafPages = fLazy ? new java.util.HashMap<Long, PageReference>() : null;
+		collectedPages = fLazy ? new java.lang.ref.ReferenceQueue<BTreePage>() : null;
+	}
+
+	/**	Retrieve the number of page requests which were satisfied from the page cache.
+	*
+	*	@return	The number of page cache hits.
+	*/
+	synchronized long cacheHits()
+	{
+		return hits;
+	}
+
+	/**	Retrieve the number of page requests which required the page to be read from the PST file.
+	*
+	*	@return	The number of page cache misses.
+	*/
+	synchronized long cacheMisses()
+	{
+		return misses;
+	}
+
+	/**	Retrieve the number of pages currently held in the page cache.
+	*
+	*	@return	The number of intermediate and leaf pages in the cache.
+	*/
+	synchronized int cachedPages()
+	{
+		removeCollectedPages();
+		return intermediatePages.size() + leafPages.size() + (softLeafPages != null ? softLeafPages.size() : 0);
 	}
 
 	/**	Return the requested block, or null if the block was not found.
@@ -105,10 +373,19 @@ abstract class PagedBTreeFinder {
 	throws
 		java.io.IOException
 	{
-		final BTreePage btp = bTreePageFactory(bref);
+		final BTreePage btp = page(bref);
 		if (btp.children.length == 0)
 			return null;
-		if (btp.children[0] instanceof BTreeLeaf) {
+		if (btp.keys != null) {
+			final int i = BTree.childIndex(btp.keys, keyedItem.key());
+			if (i < 0)
+				return null;
+			if (!btp.fLeaf)
+				return find(keyedItem, ((PagedBTree.BTEntry)btp.children[i]).bref);
+			return btp.keys[i] == keyedItem.key() ? (BTreeLeaf)btp.children[i] : null;
+		}
+
+		if (btp.fLeaf) {
 			for (Object o : btp.children) {
 				final BTreeLeaf entry = (BTreeLeaf)o;
 				if (keyedItem.key() == entry.key())
@@ -128,6 +405,85 @@ abstract class PagedBTreeFinder {
 		return null;
 	}
 
+	/**	Retrieve the given page from the page cache, reading it from the PST file and adding it to the cache if necessary.
+	*
+	*	@param	bref	The block reference of the B-tree page.
+	*
+	*	@return	The BTreePage for this block reference.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading in the B-tree page.
+	*/
+	private BTreePage page(final BREF bref)
+	throws
+		java.io.IOException
+	{
+		final Long key = bref.bid.key();
+		synchronized (this) {
+			BTreePage page = intermediatePages.get(key);
+			if (page == null)
+				page = leafPages.get(key);
+			if (page == null && softLeafPages != null) {
+				final PageReference reference = softLeafPages.get(key);
+				if (reference != null)
+					page = reference.get();
+			}
+			if (page != null) {
+				++hits;
+				return page;
+			}
+			++misses;
+		}
+
+		final BTreePage page = bTreePageFactory(bref);
+		synchronized (this) {
+			if (!page.fLeaf) {
+				intermediatePages.put(key, page);
+			} else if (softLeafPages != null) {
+				removeCollectedPages();
+				softLeafPages.put(key, new PageReference(key, page, collectedPages));
+			} else if (maximumLeafPages > 0) {
+				leafPages.put(key, page);
+				trimLeafPages();
+			}
+		}
+		return page;
+	}
+
+	/**	Remove the cache entries of softly-held leaf pages which have been collected. */
+	private void removeCollectedPages()
+	{
+		if (collectedPages == null)
+			return;
+
+		java.lang.ref.Reference<? extends BTreePage> reference;
+		while ((reference = collectedPages.poll()) != null) {
+			final PageReference pageReference = (PageReference)reference;
+			if (softLeafPages.get(pageReference.key) == pageReference)
+				softLeafPages.remove(pageReference.key);
+		}
+	}
+
+	/**	Change the maximum number of leaf pages held in the page cache, removing the least-recently used leaf pages if
+	*	necessary. Intermediate pages are always cached. This has no effect in lazy mode.
+	*
+	*	@param	maximumLeafPages	The new maximum number of leaf pages to cache; if this is 0, leaf pages are not cached.
+	*/
+	synchronized void setMaximumLeafPages(final int maximumLeafPages)
+	{
+		this.maximumLeafPages = maximumLeafPages;
+		trimLeafPages();
+	}
+
+	/**	Remove the least-recently used leaf pages until there are no more than the maximum number in the cache. */
+	private void trimLeafPages()
+	{
+		final java.util.Iterator<Long> iterator = leafPages.keySet().iterator();
+		while (leafPages.size() > maximumLeafPages && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+		}
+	}
+
 	/**	Return a BTreePage to read the next child level of the B-tree.
 	*
 	*	@param	bref	The block reference of the B-tree page block to start searching in.
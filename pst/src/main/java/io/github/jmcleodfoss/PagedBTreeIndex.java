@@ -0,0 +1,130 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The PagedBTreeIndex class contains code shared by the {@link io.github.jmcleodfoss.pst.BlockIndex} and
+*	{@link io.github.jmcleodfoss.pst.NodeIndex} classes, which hold the leaf entries of a paged B-tree in sorted arrays of
+*	primitive values rather than as objects.
+*/
+abstract class PagedBTreeIndex {
+
+	/**	The initial capacity of the arrays, which grow as required while the B-tree is read. */
+	protected static final int INITIAL_CAPACITY = 1024;
+
+	/**	The number of leaf entries in the index. */
+	protected int size;
+
+	/**	Read the leaf entries in the given page of the B-tree, and in all the pages below it, and ensure they are in key order.
+	*
+	*	@param	bref	The block reference of the root page of the B-tree.
+	*	@param	pstFile	The PST file's data stream, header, etc.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the B-tree.
+	*/
+	protected void read(final BREF bref, PSTFile pstFile)
+	throws
+		java.io.IOException
+	{
+		readPage(bref, pstFile);
+		trim();
+
+		boolean sorted = true;
+		for (int i = 1; i < size && sorted; ++i)
+			sorted = sortKey(i-1) <= sortKey(i);
+		if (sorted)
+			return;
+
+		final Integer[] order = new Integer[size];
+		for (int i = 0; i < size; ++i)
+			order[i] = i;
+		java.util.Arrays.sort(order, new java.util.Comparator<Integer>() {
+			public int compare(final Integer a, final Integer b)
+			{
+				final long keyA = sortKey(a);
+				final long keyB = sortKey(b);
+				return keyA < keyB ? -1 : keyA == keyB ? 0 : 1;
+			}
+		});
+
+		final int[] permutation = new int[size];
+		for (int i = 0; i < size; ++i)
+			permutation[i] = order[i];
+		reorder(permutation);
+	}
+
+	/**	Read the leaf entries in the given page of the B-tree, and in all the pages below it.
+	*
+	*	@param	bref	The block reference of the page to read.
+	*	@param	pstFile	The PST file's data stream, header, etc.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the page.
+	*/
+	private void readPage(final BREF bref, PSTFile pstFile)
+	throws
+		java.io.IOException
+	{
+		final PagedBTree.PageContext<BTree, BTreeLeaf> context = contextFactory(bref, pstFile);
+		final java.nio.ByteBuffer entryStream = context.entryDataStream();
+		final int numEntries = context.getNumEntries();
+		final int entrySize = context.getEntrySize();
+
+		if (context.isLeafNode()) {
+			final boolean fUnicode = pstFile.unicode();
+			for (int i = 0; i < numEntries; ++i) {
+				entryStream.position(i * entrySize);
+				addLeaf(entryStream, fUnicode);
+			}
+			return;
+		}
+
+		for (int i = 0; i < numEntries; ++i) {
+			entryStream.position(i * entrySize);
+			final PagedBTree.BTEntry entry = new PagedBTree.BTEntry(context, entryStream);
+			readPage(entry.bref, pstFile);
+		}
+	}
+
+	/**	Read a leaf entry from the given stream and add it to the end of the index, growing the arrays if necessary.
+	*
+	*	@param	entryStream	The stream from which to read the leaf entry.
+	*	@param	fUnicode	true if the PST file is a Unicode PST file, false if it is an ANSI PST file.
+	*/
+	protected abstract void addLeaf(java.nio.ByteBuffer entryStream, boolean fUnicode);
+
+	/**	Create a B-tree context with which to read the given page.
+	*
+	*	@param	bref	The block reference of the page of the B-tree.
+	*	@param	pstFile	The PST file data stream, header, etc.
+	*
+	*	@return	A context describing the page.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading in the B-tree page context.
+	*/
+	protected abstract PagedBTree.PageContext<BTree, BTreeLeaf> contextFactory(final BREF bref, PSTFile pstFile)
+	throws
+		java.io.IOException;
+
+	/**	Rearrange the arrays holding the leaf entries.
+	*
+	*	@param	permutation	The position of the entry to place at each position of the rearranged arrays.
+	*/
+	protected abstract void reorder(int[] permutation);
+
+	/**	Retrieve the number of leaf entries in the index.
+	*
+	*	@return	The number of leaf entries in the B-tree.
+	*/
+	int size()
+	{
+		return size;
+	}
+
+	/**	Retrieve the key by which the entries are ordered.
+	*
+	*	@param	i	The position of the entry in the index.
+	*
+	*	@return	The B-tree search key for the entry.
+	*/
+	protected abstract long sortKey(int i);
+
+	/**	Shrink the arrays holding the leaf entries to the number of entries read. */
+	protected abstract void trim();
+}
@@ -26,6 +26,12 @@ public class PropertyContext {
 		/**	The PST file's input stream, etc. */
 		final PSTFile pstFile;
 
+		/**	The data, once it has been read, kept until the garbage collector needs the memory.
+		*
+		*	@see	ValueCache
+		*/
+		private java.lang.ref.SoftReference<Object> value;
+
 		/**	Create a reference which may be used to retreive information from a PST file at a later time.
 		*
 		*	@param	propertyType	The type of the property to read.
@@ -41,19 +47,47 @@ public class PropertyContext {
 			this.pstFile = pstFile;
 		}
 
-		/**	Retrieve the data we deferred reading.
+		/**	Retrieve the data we deferred reading. The data is read from the PST file the first time it is requested, and
+		*	afterwards only if the garbage collector has reclaimed it. Data larger than the {@link ValueCache} budget is not
+		*	kept, so it is read again each time it is requested and each caller receives its own copy.
 		*
 		*	@return	The data read in from the given reference to the PST file.
+		*
+		*	@see	ValueCache
 		*/
-		Object data()
+		synchronized Object data()
 		{
+			Object o = value == null ? null : value.get();
+			if (o != null) {
+				ValueCache.accessed(value);
+				return o;
+			}
+
 			try {
 				BlockBase block = BlockBase.read(entry, bbt, pstFile);
-				return reader.read(block.dataStream());
+				o = reader.read(block.dataStream());
 			} catch (final java.io.IOException e) {
+				return null;
 			}
 
-			return null;
+			if (o != null && ValueCache.size(o) <= ValueCache.maximumBytes()) {
+				value = new java.lang.ref.SoftReference<Object>(o);
+				ValueCache.retain(value);
+			}
+			return o;
+		}
+
+		/**	Open a stream through the raw data we deferred reading, which reads the data one block at a time.
+		*
+		*	@return	A stream through the data.
+		*
+		*	@throws	java.io.IOException	An I/O error was encountered while reading the data tree.
+		*/
+		DataTreeInputStream openStream()
+		throws
+			java.io.IOException
+		{
+			return new DataTreeInputStream(entry, bbt, pstFile);
 		}
 	}
 
@@ -99,12 +133,12 @@ public class PropertyContext {
 	}
 
 	/**	The location in which to store the properties. */
-	protected final java.util.HashMap<Integer, Object> properties;
+	protected final PropertyMap properties;
 
 	/**	Create an empty PropertyContext object. */
 	private PropertyContext()
 	{
-		properties = new java.util.HashMap<Integer, Object>();
+		properties = new PropertyMap();
 	}
 
 	/**	Create a PropertyContext from the node ID, node database, and basic PST file object.
@@ -131,6 +165,67 @@ public class PropertyContext {
 	{
 		this();
 
+		HeapOnNode hon = heapOnNode(node, bbt, pstFile);
+		BTreeOnHeap bth = new BTreeOnHeap(hon, pstFile);
+
+		read(node, hon, bth, bbt, pstFile);
+	}
+
+	/**	Create a PropertyContext containing only the given properties from the node ID, node database, and basic PST file
+	*	object. Each property is found by binary search of the property context's B-tree-on-heap, and the other properties are
+	*	neither read nor decoded. A property is stored under the tag found in the PST file, which may have a different
+	*	property type than the tag requested.
+	*
+	*	@param	node	The node containing the property context.
+	*	@param	bbt	The PST file's block B-tree.
+	*	@param	pstFile	The PST file data stream, etc.
+	*	@param	tags	The tags of the properties to read.
+	*
+	*	@throws	NotHeapNodeException			A node which was not a heap node was found while bulding the property context.
+	*	@throws	NotPropertyContextNodeException		A node which is not part of a property context was found while building the property context.
+	*	@throws	NullDataBlockException			A null data block was found while building the property context.
+	*	@throws UnparseablePropertyContextException	A bad / corrupt property context block was found while building the property context.
+	*	@throws	UnknownClientSignatureException		An unknown client signature was found while building the property context.
+	*	@throws	java.io.IOException			An I/O error was encountered while reading in the data for the property context.
+	*/
+	PropertyContext(final LPTLeaf node, final BlockMap bbt, PSTFile pstFile, final int[] tags)
+	throws
+		NotHeapNodeException,
+		NotPropertyContextNodeException,
+		NullDataBlockException,
+		UnparseablePropertyContextException,
+		UnknownClientSignatureException,
+		java.io.IOException
+	{
+		this();
+
+		HeapOnNode hon = heapOnNode(node, bbt, pstFile);
+
+		read(node, hon, tags, bbt, pstFile);
+	}
+
+	/**	Read the heap-on-node for the given property context node.
+	*
+	*	@param	node	The node containing the property context.
+	*	@param	bbt	The PST file's block B-tree.
+	*	@param	pstFile	The PST file data stream, etc.
+	*
+	*	@return	The heap-on-node containing the property context.
+	*
+	*	@throws	NotHeapNodeException			A node which was not a heap node was found while bulding the property context.
+	*	@throws	NotPropertyContextNodeException		A node which is not part of a property context was found while building the property context.
+	*	@throws	NullDataBlockException			A null data block was found while building the property context.
+	*	@throws	UnknownClientSignatureException		An unknown client signature was found while building the property context.
+	*	@throws	java.io.IOException			An I/O error was encountered while reading in the data for the property context.
+	*/
+	private static HeapOnNode heapOnNode(final LPTLeaf node, final BlockMap bbt, PSTFile pstFile)
+	throws
+		NotHeapNodeException,
+		NotPropertyContextNodeException,
+		NullDataBlockException,
+		UnknownClientSignatureException,
+		java.io.IOException
+	{
 		if (node == null)
 			throw new RuntimeException("node " + node + " not found");
 
@@ -142,9 +237,7 @@ public class PropertyContext {
 		if (!hon.clientSignature().equals(ClientSignature.PropertyContext))
 			throw new NotPropertyContextNodeException(node, hon.clientSignature());
 
-		BTreeOnHeap bth = new BTreeOnHeap(hon, pstFile);
-
-		read(node, hon, bth, bbt, pstFile);
+		return hon;
 	}
 
 	/**	Determine whether this property context contains the given tag.
@@ -158,11 +251,15 @@ public class PropertyContext {
 		return properties.containsKey(tag);
 	}
 
-	/**	Retrieve a value from the property context.
+	/**	Retrieve a value from the property context. Values such as byte arrays are shared by every caller which retrieves
+	*	them (except for values read from sub-nodes which are too large to keep, which are read afresh for each caller), so
+	*	they must not be modified; callers which need to change a value must copy it first.
 	*
 	*	@param	tag	The tag to look for.
 	*
 	*	@return	The object stored under the given tag.
+	*
+	*	@see	ValueCache
 	*/
 	Object get(final int tag)
 	{
@@ -173,6 +270,78 @@ public class PropertyContext {
 		return o;
 	}
 
+	/**	Open a stream through the raw data of a binary or object property, such as attachment data. If the data is stored in a
+	*	sub-node, it is read from the PST file a block at a time as the stream is read, rather than all at once.
+	*
+	*	@param	tag	The tag of the property to read.
+	*
+	*	@return	A stream through the property's data, or null if there is no such property or it is neither stored in a sub-node
+	*		nor binary data.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the data.
+	*
+	*	@see	#get
+	*/
+	public DataTreeInputStream openStream(final int tag)
+	throws
+		java.io.IOException
+	{
+		final Object o = properties.get(tag);
+		if (o instanceof PSTDataPointer)
+			return ((PSTDataPointer)o).openStream();
+		if (o instanceof byte[])
+			return new DataTreeInputStream((byte[])o);
+		return null;
+	}
+
+	/**	Retrieve a 16- or 32-bit integer value from the property context without boxing it.
+	*
+	*	@param	tag		The tag to look for.
+	*	@param	defaultValue	The value to return if the property context does not contain an integer value for the tag.
+	*
+	*	@return	The integer value stored under the given tag, or defaultValue if there is none.
+	*/
+	int getInt(final int tag, final int defaultValue)
+	{
+		return properties.getInt(tag, defaultValue);
+	}
+
+	/**	Retrieve an integer value from the property context without boxing it.
+	*
+	*	@param	tag		The tag to look for.
+	*	@param	defaultValue	The value to return if the property context does not contain an integer value for the tag.
+	*
+	*	@return	The integer value stored under the given tag, or defaultValue if there is none.
+	*/
+	long getLong(final int tag, final long defaultValue)
+	{
+		return properties.getLong(tag, defaultValue);
+	}
+
+	/**	Retrieve a Boolean value from the property context without boxing it.
+	*
+	*	@param	tag		The tag to look for.
+	*	@param	defaultValue	The value to return if the property context does not contain a Boolean value for the tag.
+	*
+	*	@return	The Boolean value stored under the given tag, or defaultValue if there is none.
+	*/
+	boolean getBoolean(final int tag, final boolean defaultValue)
+	{
+		return properties.getBoolean(tag, defaultValue);
+	}
+
+	/**	Retrieve a time from the property context without creating a Date object.
+	*
+	*	@param	tag		The tag to look for.
+	*	@param	defaultValue	The value to return if the property context does not contain a time for the tag.
+	*
+	*	@return	The time stored under the given tag, in milliseconds since January 1, 1970, or defaultValue if there is none.
+	*/
+	long getTimeMillis(final int tag, final long defaultValue)
+	{
+		return properties.getTimeMillis(tag, defaultValue);
+	}
+
 	/**	Return a ByteBuffer holding the data for the given tag, taken from HeapOnNode hon if the data is stored in an HNID.
 	*
 	*
@@ -199,8 +368,11 @@ public class PropertyContext {
 		if (storedInHNID(type)) {
 			final DataType hidReader = DataType.hidReader;
 			final HeapOnNode.HID hid = (HeapOnNode.HID)hidReader.read(dataBuffer);
-			if (hon.validHID(hid) && hid.isHID() && hon.heapData(hid) != null)
-				return java.nio.ByteBuffer.wrap(hon.heapData(hid)).asReadOnlyBuffer();
+			if (hon.validHID(hid) && hid.isHID()) {
+				final java.nio.ByteBuffer heapData = hon.heapData(hid);
+				if (heapData != null)
+					return heapData;
+			}
 		}
 
 		return java.nio.ByteBuffer.wrap(data).asReadOnlyBuffer();
@@ -212,11 +384,13 @@ public class PropertyContext {
 	*/
 	public java.util.Iterator<java.util.Map.Entry<Integer, Object>> iterator()
 	{
-		return properties.entrySet().iterator();
+		return properties.iterator();
 	}
 
-	/**	Retrieve the property corresponding to the given B-tree-on-heap leaf entry in a Property Context.
+	/**	Read the property corresponding to the given B-tree-on-heap leaf entry in a Property Context and store it under the
+	*	given tag. Values of fixed-width types are stored as primitive values.
 	*
+	*	@param	tag		The tag under which to store the property.
 	*	@param	lr		The B-tree-on-heap record from which to read the property value.
 	*	@param	propertyType	The data type of the property to read.
 	*	@param	bData		A ByteBuffer containing the data to read.
@@ -227,17 +401,21 @@ public class PropertyContext {
 	*
 	*	@throws	UnparseablePropertyContextException	A bad / corrupt property context node was encountered while reading this property.
 	*	@throws java.io.IOException			An I/O exception was encoutered while reading this property.
-	*
-	*	@return	The object read in.
 	*/
-	private Object property(final BTreeOnHeap.LeafRecord lr, final short propertyType, final java.nio.ByteBuffer bData, final SubnodeBTree sbt, final HeapOnNode hon, final BlockMap bbt, PSTFile pstFile)
+	private void readProperty(final int tag, final BTreeOnHeap.LeafRecord lr, final short propertyType, final java.nio.ByteBuffer bData, final SubnodeBTree sbt, final HeapOnNode hon, final BlockMap bbt, PSTFile pstFile)
 	throws
 		UnparseablePropertyContextException,
 		java.io.IOException
 	{
+		final boolean fPrimitive = PropertyMap.isPrimitive(propertyType);
 		DataType dataReader = DataType.definitionFactory(propertyType);
-		if ((dataReader.size() != 0 && dataReader.size() < lr.data.length) && (!storedInHNID(propertyType) || lr.data.length < 4))
-			return dataReader.read(bData);
+		if ((dataReader.size() != 0 && dataReader.size() < lr.data.length) && (!storedInHNID(propertyType) || lr.data.length < 4)) {
+			if (fPrimitive)
+				properties.putPrimitive(tag, PropertyMap.readPrimitive(propertyType, bData));
+			else
+				properties.put(tag, dataReader.read(bData));
+			return;
+		}
 
 		final DataType hidReader = DataType.hidReader;
 		final HeapOnNode.HID hnid = (HeapOnNode.HID)hidReader.read(bData);
@@ -249,14 +427,25 @@ public class PropertyContext {
 			final BBTEntry bbtEntry = bbt.find(slEntry.bidData);
 			assert bbtEntry != null;
 
-			return new PSTDataPointer(propertyType, bbtEntry, bbt, pstFile);
+			properties.put(tag, new PSTDataPointer(propertyType, bbtEntry, bbt, pstFile));
+			return;
 		}
 
 		// This seems to usually mean the HID is 0x00000000, and I think it makes sense to treat this as null, since this is either an array of objects or a binary object or string.
-		if (!hon.validHID(hnid))
-			return null;
+		if (!hon.validHID(hnid)) {
+			properties.put(tag, null);
+			return;
+		}
+
+		if (fPrimitive) {
+			final java.nio.ByteBuffer heapData = hon.heapData(hnid);
+			if (heapData != null && heapData.remaining() >= dataReader.size()) {
+				properties.putPrimitive(tag, PropertyMap.readPrimitive(propertyType, heapData));
+				return;
+			}
+		}
 
-		final Object o = dataReader.read(PSTFile.makeByteBuffer(hon.heapData(hnid)));
+		final Object o = dataReader.read(hon.heapData(hnid));
 
 		if (logger.isLoggable(java.util.logging.Level.INFO)) {
 			StringBuilder s = new StringBuilder();
@@ -274,7 +463,7 @@ public class PropertyContext {
 				s.append(o);
 		}
 
-		return o;
+		properties.put(tag, o);
 	}
 
 	/**	Read in a property context.
@@ -301,8 +490,40 @@ public class PropertyContext {
 			java.nio.ByteBuffer bData = PSTFile.makeByteBuffer(lr.data);
 			final short propertyType = bData.getShort();
 			final int tag = (int)lr.key() << 16 | propertyType;
-			final Object property = property(lr, propertyType, bData, sbt, hon, bbt, pstFile);
-			properties.put(tag, property);
+			readProperty(tag, lr, propertyType, bData, sbt, hon, bbt, pstFile);
+		}
+	}
+
+	/**	Read in the given properties of a property context, looking up each one in the B-tree-on-heap.
+	*
+	*	@param	node	The node from which to read the property context.
+	*	@param	hon	The heap-on-node containing the property context.
+	*	@param	tags	The tags of the properties to read.
+	*	@param	bbt	The PST file block B-tree.
+	*	@param	pstFile	The PST file data stream, etc.
+	*
+	*	@throws UnparseablePropertyContextException	A bad / corrupt property context block was found while reading the property context.
+	*	@throws	java.io.IOException			An I/O error was encountered while reading in the data for the property context.
+	*/
+	private void read(final LPTLeaf node, final HeapOnNode hon, final int[] tags, final BlockMap bbt, PSTFile pstFile)
+	throws
+		UnparseablePropertyContextException,
+		java.io.IOException
+	{
+		final SubnodeBTree sbt = node.bidSubnode.key() != 0 ? new SubnodeBTree(node.bidSubnode, bbt, pstFile) : null;
+
+		for (final int requestedTag : tags) {
+			final BTreeOnHeap.LeafRecord lr = BTreeOnHeap.lookup(hon, requestedTag >>> 16);
+			if (lr == null)
+				continue;
+
+			java.nio.ByteBuffer bData = PSTFile.makeByteBuffer(lr.data);
+			final short propertyType = bData.getShort();
+			final int tag = (int)lr.key() << 16 | propertyType;
+			if (properties.containsKey(tag))
+				continue;
+
+			readProperty(tag, lr, propertyType, bData, sbt, hon, bbt, pstFile);
 		}
 	}
 
@@ -315,7 +536,7 @@ public class PropertyContext {
 @SuppressWarnings("unchecked") 
 	LPTTableModel tableModel(final NameToIDMap namedProperties)
 	{
-		return new TableModel(properties, namedProperties);
+		return new TableModel(properties.toMap(), namedProperties);
 	}
 
 	/**	Are objects of the given property type stored within the tree itself, or in an HID denoted by the leaf element?
@@ -0,0 +1,385 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The PropertyMap class holds the properties of a {@link PropertyContext}, keyed by property tag, in an open-addressing hash
+*	table with linear probing. Values of fixed-width property types (16-, 32-, and 64-bit integers, Booleans, times, and 64-bit
+*	floating point values) may be stored as primitive values, which are boxed only if they are retrieved through {@link #get};
+*	the typed accessors such as {@link #getInt} return them without boxing. Times are stored as milliseconds since the Java
+*	epoch.
+*
+*	@see	PropertyContext
+*/
+class PropertyMap {
+
+	/**	The slot state for an unused slot. */
+	private static final byte EMPTY = 0;
+
+	/**	The slot state for a slot holding an object in {@link #objects}. */
+	private static final byte OBJECT = 1;
+
+	/**	The slot state for a slot holding a primitive value in {@link #primitives}. */
+	private static final byte PRIMITIVE = 2;
+
+	/**	The initial number of slots in the table; this must be a power of two. */
+	private static final int INITIAL_CAPACITY = 32;
+
+	/**	The state of each slot in the table. */
+	private byte[] state;
+
+	/**	The property tag stored in each used slot. */
+	private int[] tags;
+
+	/**	The value stored in each slot holding an object. */
+	private Object[] objects;
+
+	/**	The value stored in each slot holding a primitive value. */
+	private long[] primitives;
+
+	/**	The number of properties in the table. */
+	private int size;
+
+	/**	Create an empty property map. */
+	PropertyMap()
+	{
+		allocate(INITIAL_CAPACITY);
+	}
+
+	/**	Allocate the arrays making up the table.
+	*
+	*	@param	capacity	The number of slots in the table, which must be a power of two.
+	*/
+	private void allocate(final int capacity)
+	{
+		state = new byte[capacity];
+		tags = new int[capacity];
+		objects = new Object[capacity];
+		primitives = new long[capacity];
+	}
+
+	/**	Determine whether the given property type may be stored as a primitive value.
+	*
+	*	@param	propertyType	The property type to check.
+	*
+	*	@return	true if properties of the given type may be stored as primitive values, false otherwise.
+	*/
+	static boolean isPrimitive(final short propertyType)
+	{
+		switch (propertyType) {
+		case DataType.INTEGER_16:
+		case DataType.INTEGER_32:
+		case DataType.INTEGER_64:
+		case DataType.BOOLEAN:
+		case DataType.TIME:
+		case DataType.FLOATING_64:
+			return true;
+		}
+
+		return false;
+	}
+
+	/**	Read a value of a fixed-width property type from the given data stream as a primitive value.
+	*
+	*	@param	propertyType	The property type to read; this must be a type for which {@link #isPrimitive} returns true.
+	*	@param	byteBuffer	The data stream from which to read the value.
+	*
+	*	@return	The value read, as it would be stored by {@link #putPrimitive}.
+	*/
+	static long readPrimitive(final short propertyType, final java.nio.ByteBuffer byteBuffer)
+	{
+		switch (propertyType) {
+		case DataType.INTEGER_16:
+			return byteBuffer.getShort();
+
+		case DataType.INTEGER_32:
+			return byteBuffer.getInt();
+
+		case DataType.BOOLEAN:
+			return byteBuffer.get() != 0 ? 1 : 0;
+
+		case DataType.TIME:
+			return DataType.timeMillis(byteBuffer.getLong());
+
+		default:
+			return byteBuffer.getLong();
+		}
+	}
+
+	/**	Find the slot for the given tag.
+	*
+	*	@param	tag	The property tag to look for.
+	*
+	*	@return	The slot holding the given tag, or the empty slot at which it would be stored.
+	*/
+	private int slot(final int tag)
+	{
+		final int mask = state.length - 1;
+		final int h = tag * 0x9e3779b9;
+		int i = (h ^ (h >>> 16)) & mask;
+		while (state[i] != EMPTY && tags[i] != tag)
+			i = (i + 1) & mask;
+		return i;
+	}
+
+	/**	Obtain the slot at which to store the given tag, growing the table if necessary.
+	*
+	*	@param	tag	The property tag to be stored.
+	*
+	*	@return	The slot at which to store the value for the given tag.
+	*/
+	private int slotForPut(final int tag)
+	{
+		int i = slot(tag);
+		if (state[i] != EMPTY)
+			return i;
+
+		if (2 * (size + 1) > state.length) {
+			final byte[] oldState = state;
+			final int[] oldTags = tags;
+			final Object[] oldObjects = objects;
+			final long[] oldPrimitives = primitives;
+			allocate(2 * oldState.length);
+			for (int j = 0; j < oldState.length; ++j) {
+				if (oldState[j] == EMPTY)
+					continue;
+				final int k = slot(oldTags[j]);
+				state[k] = oldState[j];
+				tags[k] = oldTags[j];
+				objects[k] = oldObjects[j];
+				primitives[k] = oldPrimitives[j];
+			}
+			i = slot(tag);
+		}
+
+		++size;
+		tags[i] = tag;
+		return i;
+	}
+
+	/**	Store an object under the given tag.
+	*
+	*	@param	tag	The property tag.
+	*	@param	value	The value of the property.
+	*/
+	void put(final int tag, final Object value)
+	{
+		final int i = slotForPut(tag);
+		state[i] = OBJECT;
+		objects[i] = value;
+	}
+
+	/**	Store a primitive value under the given tag.
+	*
+	*	@param	tag	The property tag, whose property type must be one for which {@link #isPrimitive} returns true.
+	*	@param	value	The value of the property, as returned by {@link #readPrimitive}.
+	*/
+	void putPrimitive(final int tag, final long value)
+	{
+		final int i = slotForPut(tag);
+		state[i] = PRIMITIVE;
+		objects[i] = null;
+		primitives[i] = value;
+	}
+
+	/**	Determine whether there is a value for the given tag.
+	*
+	*	@param	tag	The property tag to look for.
+	*
+	*	@return	true if there is a value for the given tag, false otherwise.
+	*/
+	boolean containsKey(final int tag)
+	{
+		return state[slot(tag)] != EMPTY;
+	}
+
+	/**	Retrieve the value stored under the given tag, boxing it if it is stored as a primitive value.
+	*
+	*	@param	tag	The property tag to look for.
+	*
+	*	@return	The value stored under the given tag, or null if there is none.
+	*/
+	Object get(final int tag)
+	{
+		return value(slot(tag));
+	}
+
+	/**	Retrieve the value in the given slot, boxing it if it is stored as a primitive value.
+	*
+	*	@param	i	The slot from which to retrieve the value.
+	*
+	*	@return	The value in the given slot, or null if the slot is empty.
+	*/
+	private Object value(final int i)
+	{
+		if (state[i] != PRIMITIVE)
+			return objects[i];
+
+		final long value = primitives[i];
+		switch ((short)tags[i]) {
+		case DataType.INTEGER_16:
+			return (Short)(short)value;
+
+		case DataType.INTEGER_32:
+			return (Integer)(int)value;
+
+		case DataType.BOOLEAN:
+			return (Boolean)(value != 0);
+
+		case DataType.TIME:
+			return new java.util.Date(value);
+
+		case DataType.FLOATING_64:
+			return (Double)Double.longBitsToDouble(value);
+
+		default:
+			return (Long)value;
+		}
+	}
+
+	/**	Retrieve the value stored under the given tag as a long, without boxing it.
+	*
+	*	@param	tag		The property tag to look for.
+	*	@param	defaultValue	The value to return if there is no numeric value for the given tag.
+	*
+	*	@return	The value stored under the given tag, or defaultValue if there is none.
+	*/
+	long getLong(final int tag, final long defaultValue)
+	{
+		final int i = slot(tag);
+		if (state[i] == PRIMITIVE && (short)tag != DataType.FLOATING_64)
+			return primitives[i];
+		if (state[i] == OBJECT && objects[i] instanceof Number)
+			return ((Number)objects[i]).longValue();
+		return defaultValue;
+	}
+
+	/**	Retrieve the value stored under the given tag as an int, without boxing it.
+	*
+	*	@param	tag		The property tag to look for.
+	*	@param	defaultValue	The value to return if there is no numeric value for the given tag.
+	*
+	*	@return	The value stored under the given tag, or defaultValue if there is none.
+	*/
+	int getInt(final int tag, final int defaultValue)
+	{
+		return (int)getLong(tag, defaultValue);
+	}
+
+	/**	Retrieve the value stored under the given tag as a boolean, without boxing it.
+	*
+	*	@param	tag		The property tag to look for.
+	*	@param	defaultValue	The value to return if there is no Boolean value for the given tag.
+	*
+	*	@return	The value stored under the given tag, or defaultValue if there is none.
+	*/
+	boolean getBoolean(final int tag, final boolean defaultValue)
+	{
+		final int i = slot(tag);
+		if (state[i] == PRIMITIVE)
+			return primitives[i] != 0;
+		if (state[i] == OBJECT && objects[i] instanceof Boolean)
+			return (Boolean)objects[i];
+		return defaultValue;
+	}
+
+	/**	Retrieve the time stored under the given tag, in milliseconds since the Java epoch, without creating a Date object.
+	*
+	*	@param	tag		The property tag to look for.
+	*	@param	defaultValue	The value to return if there is no time for the given tag.
+	*
+	*	@return	The time stored under the given tag, or defaultValue if there is none.
+	*/
+	long getTimeMillis(final int tag, final long defaultValue)
+	{
+		final int i = slot(tag);
+		if (state[i] == PRIMITIVE && (short)tag == DataType.TIME)
+			return primitives[i];
+		if (state[i] == OBJECT && objects[i] instanceof java.util.Date)
+			return ((java.util.Date)objects[i]).getTime();
+		return defaultValue;
+	}
+
+	/**	Obtain the number of properties in the map.
+	*
+	*	@return	The number of properties stored.
+	*/
+	int size()
+	{
+		return size;
+	}
+
+	/**	Obtain the tags of all properties in the map, in no particular order.
+	*
+	*	@return	An array containing the tag of each property in the map.
+	*/
+	int[] tags()
+	{
+		final int[] keys = new int[size];
+		int n = 0;
+		for (int i = 0; i < state.length; ++i) {
+			if (state[i] != EMPTY)
+				keys[n++] = tags[i];
+		}
+		return keys;
+	}
+
+	/**	Obtain an iterator through the properties in the map, boxing the tags and any primitive values as they are reached.
+	*
+	*	@return	An iterator through the properties in the map, in no particular order.
+	*/
+	java.util.Iterator<java.util.Map.Entry<Integer, Object>> iterator()
+	{
+		return new java.util.Iterator<java.util.Map.Entry<Integer, Object>>() {
+
+			/**	The next slot to examine. */
+			private int i = nextSlot(0);
+
+			/**	Find the next used slot.
+			*
+			*	@param	start	The slot from which to start looking.
+			*
+			*	@return	The next used slot, or the number of slots if there are no more.
+			*/
+			private int nextSlot(int start)
+			{
+				while (start < state.length && state[start] == EMPTY)
+					++start;
+				return start;
+			}
+
+			/**	{@inheritDoc} */
+			public boolean hasNext()
+			{
+				return i < state.length;
+			}
+
+			/**	{@inheritDoc} */
+			public java.util.Map.Entry<Integer, Object> next()
+			{
+				if (i >= state.length)
+					throw new java.util.NoSuchElementException();
+				final java.util.Map.Entry<Integer, Object> entry = new java.util.AbstractMap.SimpleImmutableEntry<Integer, Object>(tags[i], value(i));
+				i = nextSlot(i + 1);
+				return entry;
+			}
+
+			/**	The remove function is not supported by the property map iterator. */
+			public void remove()
+			{
+				throw new UnsupportedOperationException("remove not suported");
+			}
+		};
+	}
+
+	/**	Copy the properties into a java.util.Map, e.g. for display.
+	*
+	*	@return	A map containing all the properties, with primitive values boxed.
+	*/
+	java.util.Map<Integer, Object> toMap()
+	{
+		final java.util.Map<Integer, Object> map = new java.util.HashMap<Integer, Object>(2 * size);
+		for (java.util.Iterator<java.util.Map.Entry<Integer, Object>> iterator = iterator(); iterator.hasNext(); ) {
+			final java.util.Map.Entry<Integer, Object> entry = iterator.next();
+			map.put(entry.getKey(), entry.getValue());
+		}
+		return map;
+	}
+}
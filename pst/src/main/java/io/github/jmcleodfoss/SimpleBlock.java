@@ -38,7 +38,7 @@ class SimpleBlock extends BlockBase {
 		public java.nio.ByteBuffer next()
 		{
 			fNext = false;
-			return PSTFile.makeByteBuffer(data);
+			return dataStream();
 		}
 
 		/**	The remove function is not supported by the SimpleBlock iterator. */
@@ -54,8 +54,11 @@ class SimpleBlock extends BlockBase {
 	/**	The number of bytes used to calculate the block's CRC. */
 	private static final int CRC_BYTES = 236;
 
-	/**	The block data. */
-	final byte[] data;
+	/**	The decoded block data, or null if the block data is used directly from the PST file. */
+	private final byte[] data;
+
+	/**	A read-only view of the block data, either within the decoded data or within the PST file itself. */
+	private final java.nio.ByteBuffer payload;
 
 	/**	Create a SimpleBlock object from the given block B-tree leaf entry and basic PST file object.
 	*
@@ -90,7 +93,11 @@ class SimpleBlock extends BlockBase {
 	}
 
 	/**	Create a SimpleBlock object from the given block B-tree leaf entry with the given block size from the given PST file,
-	*	using the given encryption method.
+	*	using the given encryption method. The decoded data is taken from the PST file's {@link BlockCache block cache} if it
+	*	is there, and added to it if it is not. Blocks read from the file are checked according to the PST file's
+	*	{@link CRCPolicy CRC policy}. If {@link PSTFile#zeroCopy zero-copy} reads are enabled, a block which needs neither
+	*	decryption nor a CRC check is used in place in the PST file instead; blocks which are checked always go through the
+	*	cache, so that each is checked only when it is first read.
 	*
 	*	@param	entry		The block B-tree leaf entry describing the block.
 	*	@param	blockSize	The size of the block (including the {@link BlockTrailer BLOCKTRAILER})
@@ -103,33 +110,58 @@ class SimpleBlock extends BlockBase {
 	throws
 		java.io.IOException
 	{
-		pstFile.position(entry.bref.ib.ib);
-
-		DataDefinition dataField = new DataDefinition(nm_data, new DataType.SizedByteArray(entry.numBytes), true);
-		DataContainer dc = new DataContainer();
-		dc.read(pstFile.mbb, dataField);
-		data = (byte[])dc.get(nm_data);
-		int crcCalculated = 0;
-		if (Options.checkCRC)
-			crcCalculated = CRC.crc(PST.makeByteBuffer(data), 0, data.length);
-		encryption.translate(data, (int)(entry.bref.bid.key() & 0xffffffff));
-		if (logger.isLoggable(java.util.logging.Level.FINER))
-			logger.log(java.util.logging.Level.FINER, "decoded data " + ByteUtil.createHexByteString(data));
+		if (encryption.isNone() && pstFile.zeroCopy() && !pstFile.crcPolicy().shouldCheck(entry.bref.bid)) {
+			data = null;
+			payload = readPayload(entry, pstFile);
+			return;
+		}
 
-		final int bytesToSkip = blockSize-entry.numBytes-BlockTrailer.size(pstFile);
-		pstFile.mbb.position(pstFile.mbb.position() + bytesToSkip);
-		final BlockTrailer trailer = new BlockTrailer(pstFile);
-		if (Options.checkCRC && crcCalculated != trailer.crc)
-			throw new RuntimeException("Block CRC "  + Integer.toHexString(trailer.crc) + " does not match calculated value " + Integer.toHexString(crcCalculated));
+		final BlockCache cache = pstFile.blockCache();
+		byte[] data = cache.get(entry.bref.bid);
+		if (data == null) {
+			pstFile.crcPolicy().verify(entry, blockSize, pstFile);
+			data = readData(entry, encryption, pstFile);
+			cache.put(entry.bref.bid, data);
+		}
+		this.data = data;
+		payload = PSTFile.makeByteBuffer(data);
 	}
 
-	/**	Retrieve the data from this SimpleBlock.
+	/**	Retrieve the data from this SimpleBlock. If the block data is used directly from the PST file, this is a copy.
 	*
 	*	@return	The array of data bytes from this SimpleBlock object.
 	*/
 	byte[] data()
 	{
-		return data;
+		if (data != null)
+			return data;
+
+		final byte[] copy = new byte[payload.limit()];
+		dataStream().get(copy);
+		return copy;
+	}
+
+	/**	Return the data within this block as a read-only ByteBuffer, without copying it.
+	*
+	*	@return	A ByteBuffer object from which the data in this block may be read.
+	*/
+	@Override
+	java.nio.ByteBuffer dataStream()
+	{
+		return payload.duplicate().order(java.nio.ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**	Return the data within this block as a read-only ByteBuffer; as a SimpleBlock has only one data block, the index
+	*	is ignored.
+	*
+	*	@param	i	The index of the data block, which must be 0.
+	*
+	*	@return	A ByteBuffer object from which the data in this block may be read.
+	*/
+	@Override
+	java.nio.ByteBuffer dataStream(final int i)
+	{
+		return dataStream();
 	}
 
 	/**	Obtain an interator over the (one) block.
@@ -142,6 +174,25 @@ class SimpleBlock extends BlockBase {
 		return new Iterator();
 	}
 
+	/**	Obtain the number of data blocks, which is always 1 for a SimpleBlock.
+	*
+	*	@return	1
+	*/
+	@Override
+	int numBlocks()
+	{
+		return 1;
+	}
+
+	/**	Retrieve the number of data bytes in this SimpleBlock.
+	*
+	*	@return	The number of data bytes in the block.
+	*/
+	int size()
+	{
+		return payload.limit();
+	}
+
 	/**	Retrieve the required block specified by BlockBTree leaf entry.
 	*
 	*	@param	entry		The block B-tree leaf entry describing the block.
@@ -158,6 +209,53 @@ class SimpleBlock extends BlockBase {
 		return new SimpleBlock(entry, entry.bref.bid.fInternal ? Encryption.NONE : pstFile.encryption(), pstFile);
 	}
 
+	/**	Read and decrypt the data for the block described by the given block B-tree leaf entry.
+	*
+	*	@param	entry		The block B-tree leaf entry describing the block.
+	*	@param	encryption	The encryption method to use to decrypt the data.
+	*	@param	pstFile		The PST file's header, input data stream, etc.
+	*
+	*	@return	The decoded data for the block.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered when reading the data for this block.
+	*/
+	private static byte[] readData(final BBTEntry entry, final Encryption encryption, PSTFile pstFile)
+	throws
+		java.io.IOException
+	{
+		java.nio.ByteBuffer stream = pstFile.dataStream(entry.bref.ib.ib, entry.numBytes);
+
+		DataDefinition dataField = new DataDefinition(nm_data, new DataType.SizedByteArray(entry.numBytes), true);
+		DataContainer dc = new DataContainer();
+		dc.read(stream, dataField);
+		final byte[] data = (byte[])dc.get(nm_data);
+		encryption.translate(data, (int)(entry.bref.bid.key() & 0xffffffff));
+		if (logger.isLoggable(java.util.logging.Level.FINER))
+			logger.log(java.util.logging.Level.FINER, "decoded data " + ByteUtil.createHexByteString(data));
+		return data;
+	}
+
+	/**	Obtain a read-only view of the data for the block described by the given block B-tree leaf entry directly from the
+	*	PST file. This may only be used for blocks which do not need to be decrypted.
+	*
+	*	@param	entry		The block B-tree leaf entry describing the block.
+	*	@param	pstFile		The PST file's header, input data stream, etc.
+	*
+	*	@return	A read-only view of the data in the block.
+	*
+	*	@throws	java.io.IOException	An I/O error was encountered when reading the data for this block.
+	*/
+	private static java.nio.ByteBuffer readPayload(final BBTEntry entry, PSTFile pstFile)
+	throws
+		java.io.IOException
+	{
+		final java.nio.ByteBuffer payload = pstFile.dataStream(entry.bref.ib.ib, entry.numBytes).slice().asReadOnlyBuffer();
+		payload.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+		if (logger.isLoggable(java.util.logging.Level.FINER))
+			logger.log(java.util.logging.Level.FINER, "block data at " + entry.bref.ib.ib + ", " + entry.numBytes + " bytes");
+		return payload;
+	}
+
 	/**	Test this class by printing out blocks in the block B-tree.
 	*
 	*	@param	args	The command line arguments to thee test application.
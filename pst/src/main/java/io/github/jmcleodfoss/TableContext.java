@@ -3,6 +3,10 @@ package io.github.jmcleodfoss.pst;
 /**	The TableContext class represents a PST Table Context, which is a structure on a B-tree-on-heap. The class itself is not
 *	publicly available, but it extends javax.swing.table.AbstractTableModel, which provides a usable public interface.
 *
+*	The row matrix is kept in its raw form, and each cell is decoded only when it is requested, so opening a table costs the
+*	same however many rows it has, and memory is used only for the cells actually read. A row matrix stored in a sub-node is
+*	read a block at a time, as rows in each block are first requested.
+*
 *	@see	"[MS-PST] Outlook Personal Folders (.pst) File Format v20110608, section 2.3.4"
 *	@see	<a href="http://msdn.microsoft.com/en-us/library/ff386198(v=office.12).aspx">Table Context (TC) (MSDN)</a>
 */
@@ -69,6 +73,17 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 		/**	The data types of the columns stored in HNIDs. */
 		private final DataType[] hnidTypes;
 
+		/**	The hash table giving the column index for each tag, using open addressing with linear probing. Each slot holds
+		*	the column index plus one, or 0 if the slot is unused. The number of slots is a power of two.
+		*/
+		private final int[] columnSlots;
+
+		/**	The offset within a row of the byte of the cell existence bitmap which holds the bit for each column. */
+		private final int[] cebOffset;
+
+		/**	The mask for the bit for each column within its byte of the cell existence bitmap. */
+		private final byte[] cebMask;
+
 		/**	Create a TCInfo object by reading in the required information from the data inputstream.
 		*
 		*	@param	stream	The input data stream from which to read the TCINFO structure.
@@ -112,6 +127,110 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 					rowFields[i] = new DataDefinition(fieldName(i), DataType.definitionFactory(columnDescription[i].propertyType()), true);
 			}
 			rowFields[numColumns] = new DataDefinition(cellExistenceBitmapFieldName(), new DataType.SizedByteArray((numColumns+7)/8), true);
+
+			int numSlots = 2;
+			while (numSlots < 2 * numColumns)
+				numSlots <<= 1;
+			columnSlots = new int[numSlots];
+			cebOffset = new int[numColumns];
+			cebMask = new byte[numColumns];
+			for (int i = 0; i < numColumns; ++i) {
+				int slot = slot(columnDescription[i].tag);
+				while (columnSlots[slot] != 0)
+					slot = (slot + 1) & (numSlots - 1);
+				columnSlots[slot] = i + 1;
+
+				final int cebIndex = columnDescription[i].cellExistenceBitmapIndex & 0xff;
+				cebOffset[i] = endingOffsets[TCI_1b] + cebIndex/8;
+				cebMask[i] = (byte)(1 << (7 - cebIndex % 8));
+			}
+		}
+
+		/**	Determine whether the cell existence bitmap of the given row indicates that the given column is present.
+		*
+		*	@param	rowMatrix	The row matrix, or the block of the row matrix, containing the row.
+		*	@param	rowStart	The offset of the row in rowMatrix.
+		*	@param	column		The column to check.
+		*
+		*	@return	true if the cell existence bitmap indicates that the cell is present, false if it indicates that it is
+		*		absent.
+		*/
+		private boolean cellExists(final java.nio.ByteBuffer rowMatrix, final int rowStart, final int column)
+		{
+			return (rowMatrix.get(rowStart + cebOffset[column]) & cebMask[column]) != 0;
+		}
+
+		/**	Find the column for the given tag.
+		*
+		*	@param	tag	The tag to look for.
+		*
+		*	@return	The index of the first column with the given tag, or -1 if there is no such column.
+		*/
+		private int columnIndex(final int tag)
+		{
+			for (int slot = slot(tag); columnSlots[slot] != 0; slot = (slot + 1) & (columnSlots.length - 1)) {
+				final int column = columnSlots[slot] - 1;
+				if (columnDescription[column].tag == tag)
+					return column;
+			}
+			return -1;
+		}
+
+		/**	Read the value stored in the row for the given column. Values of fixed-width types are read directly from their
+		*	offsets in the row; for columns stored in HNIDs, this is the HNID.
+		*
+		*	@param	rowMatrix	The row matrix, or the block of the row matrix, containing the row.
+		*	@param	rowStart	The offset of the row in rowMatrix.
+		*	@param	column		The column to read.
+		*
+		*	@return	The value stored in the row for the given column, or its HNID.
+		*
+		*	@throws	java.io.UnsupportedEncodingException	An unsupported text encoding was found while reading the value.
+		*/
+		private Object readCell(final java.nio.ByteBuffer rowMatrix, final int rowStart, final int column)
+		throws
+			java.io.UnsupportedEncodingException
+		{
+			final int position = rowStart + columnDescription[column].columnOffset;
+			if (hnidTypes[column] != null)
+				return new HeapOnNode.HID(rowMatrix.getInt(position));
+
+			switch (columnDescription[column].propertyType()) {
+			case DataType.INTEGER_16:
+				return (Short)rowMatrix.getShort(position);
+
+			case DataType.INTEGER_32:
+				return (Integer)rowMatrix.getInt(position);
+
+			case DataType.INTEGER_64:
+				return (Long)rowMatrix.getLong(position);
+
+			case DataType.BOOLEAN:
+				return (Boolean)(rowMatrix.get(position) != 0);
+
+			case DataType.TIME:
+				return new java.util.Date(DataType.timeMillis(rowMatrix.getLong(position)));
+
+			case DataType.FLOATING_64:
+				return (Double)rowMatrix.getDouble(position);
+
+			default:
+				final java.nio.ByteBuffer cellData = rowMatrix.duplicate().order(java.nio.ByteOrder.LITTLE_ENDIAN);
+				cellData.position(position);
+				return rowFields[column].description.read(cellData);
+			}
+		}
+
+		/**	Find the first slot to examine in the column hash table for the given tag.
+		*
+		*	@param	tag	The tag to look up.
+		*
+		*	@return	The slot at which to start looking for the tag.
+		*/
+		private int slot(final int tag)
+		{
+			final int h = tag * 0x9e3779b9;
+			return (h ^ (h >>> 16)) & (columnSlots.length - 1);
 		}
 
 		/**	Create the name of the field containing the Cell Existence Bitmap (which is the last field in the row). Note
@@ -288,7 +407,7 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 		*/
 		public boolean hasNext()
 		{
-			return !isEmpty() && row < rows.length;
+			return !isEmpty() && row < numRows;
 		}
 
 		/**	Return the next row.
@@ -297,7 +416,9 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 		*/
 		public Object next()
 		{
-			return rows[row++];
+			if (row >= numRows)
+				throw new java.util.NoSuchElementException();
+			return row(row++);
 		}
 
 		/**	The remove function is not supported by the TableContext iterator. */
@@ -310,11 +431,47 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 	/**	The TCINFO (Table Context Info) structure for this table context */
 	private final TCInfo info;
 
-	/**	The RowIndex for this table context. */
-	private final BTreeOnHeap rowIndex;
+	/**	The RowIndex for this table context, which is only built when it is needed for display.
+	*
+	*	@see	#rowIndex()
+	*/
+	private BTreeOnHeap rowIndex;
+
+	/**	The indices into the TCInfo column descriptions of the columns made available by this table context. */
+	private final int[] columns;
+
+	/**	Whether each column in the TCInfo column descriptions is made available by this table context. */
+	private final boolean[] available;
+
+	/**	The number of rows in the table. */
+	private final int numRows;
+
+	/**	The heap-on-node containing this table context, in which cells stored in HIDs are found. */
+	private final HeapOnNode hon;
+
+	/**	The sub-node B-tree for this table context, in which cells stored in sub-nodes are found, or null if there is none. */
+	private final SubnodeBTree sbt;
+
+	/**	The PST file's block B-tree. */
+	private final BlockMap bbt;
+
+	/**	The PST file data stream, header, etc. */
+	private final PSTFile pstFile;
+
+	/**	The number of bytes in each row of the row matrix. */
+	private final int rowWidth;
+
+	/**	The number of rows in each block of a row matrix stored in a sub-node. */
+	private final int rowsPerBlock;
+
+	/**	The raw row matrix, if it is stored in an HID, otherwise null. */
+	private final java.nio.ByteBuffer rowMatrix;
 
-	/**	The row data */
-	private Object[][] rows;
+	/**	The data tree holding the raw row matrix, if it is stored in a sub-node, otherwise null. */
+	private final BlockBase rowMatrixBlocks;
+
+	/**	The blocks of a row matrix stored in a sub-node which have been read so far. */
+	private final java.nio.ByteBuffer[] rowMatrixBlockData;
 
 	/**	Create a table context from the given BID.
 	*
@@ -336,7 +493,32 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 		UnparseableTableContextException,
 		java.io.IOException
 	{
-		this(nodeDescr, new HeapOnNode(bbt.find(nodeDescr.bidData), bbt, pstFile), bbt, pstFile);
+		this(nodeDescr, bbt, pstFile, null);
+	}
+
+	/**	Create a table context from the given BID which makes available only the columns for the given tags. The other
+	*	columns are neither decoded nor returned by {@link #get}, {@link #getValueAt}, or the row iterator.
+	*
+	*	@param	nodeDescr	Description of the node as found in the block or sub-node B-tree.
+	*	@param	bbt		The PST file's block B-tree.
+	*	@param	pstFile		The PST file data stream, header, etc.
+	*	@param	tags		The tags of the columns to make available, or null for all columns.
+	*
+	* 	@throws	NotHeapNodeException			The leaf is not a heap node
+	* 	@throws NotTableContextNodeException		A node without the Table Context client signature was found while building the table context.
+	* 	@throws UnknownClientSignatureException		The Client Signature was not recognized
+	* 	@throws UnparseableTableContextException	The table content could not be interpreted
+	* 	@throws java.io.IOException			There was an I/O error reading the table.
+	*/
+	TableContext(LPTLeaf nodeDescr, BlockMap bbt, PSTFile pstFile, final int[] tags)
+	throws
+		NotHeapNodeException,
+		NotTableContextNodeException,
+		UnknownClientSignatureException,
+		UnparseableTableContextException,
+		java.io.IOException
+	{
+		this(nodeDescr, new HeapOnNode(bbt.find(nodeDescr.bidData), bbt, pstFile), bbt, pstFile, tags);
 	}
 
 	/**	Create a TableContext object from the given heap-on-node. This should only be used when the Heap-On-Node has already
@@ -359,28 +541,63 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 		UnparseableTableContextException,
 		java.io.IOException
 	{
-		info = new TCInfo(PSTFile.makeByteBuffer(hon.userRootHeapData()));
+		this(nodeDescr, hon, bbt, pstFile, null);
+	}
+
+	/**	Create a TableContext object from the given heap-on-node which makes available only the columns for the given tags.
+	*
+	*	@param	nodeDescr	Description of the node as found in the block or sub-node B-tree.
+	*	@param	hon		The heap-on-node on which this table context is defined.
+	*	@param	bbt		The PST file's block B-tree.
+	*	@param	pstFile		The PST file data stream, header, etc.
+	*	@param	tags		The tags of the columns to make available, or null for all columns.
+	*
+	* 	@throws NotTableContextNodeException		A node without the Table Context client signature was found while building the table context.
+	* 	@throws UnknownClientSignatureException		The Client Signature was not recognized
+	* 	@throws UnparseableTableContextException	The table content could not be interpreted
+	* 	@throws java.io.IOException			There was an I/O error reading the table.
+	*
+	*	@see	#TableContext(LPTLeaf, BlockMap, PSTFile, int[])
+	*/
+	TableContext(LPTLeaf nodeDescr, HeapOnNode hon, BlockMap bbt, PSTFile pstFile, final int[] tags)
+	throws
+		NotTableContextNodeException,
+		UnknownClientSignatureException,
+		UnparseableTableContextException,
+		java.io.IOException
+	{
+		info = new TCInfo(hon.userRootHeapData());
+		columns = columns(tags);
+		available = new boolean[info.columnDescription.length];
+		for (int c : columns)
+			available[c] = true;
 
 		// Note that TCInfo.toString is relatively expensive. Only call it if we really need it.
 		if (logger.isLoggable(java.util.logging.Level.INFO))
 			logger.log(java.util.logging.Level.INFO, "TC Info\n-------\n" + info);
 
-		rowIndex = new BTreeOnHeap(hon, info.hidRowIndex, pstFile);
-		int numRows = rowIndex.numLeafNodes();
-		rows = new Object[numRows][];
-
-		if (numRows == 0)
-			return;
-
-		if (info.columnDescription.length == 0)
-			return;
-
-		SubnodeBTree sbt = nodeDescr.bidSubnode.isNull() ? null : new SubnodeBTree(nodeDescr.bidSubnode, bbt, pstFile);
-		if (info.hnidRows.type == NID.HID) {
-			if (hon.heapData(info.hnidRows).length != expectedSize())
-				throw new UnparseableTableContextException("Not enough bytes for row data: found " + hon.heapData(info.hnidRows).length + ", expected " + expectedSize());
-
-			readRows(hon, info.columnDescription.length, hon.heapData(info.hnidRows), sbt, bbt, pstFile);
+		this.hon = hon;
+		this.bbt = bbt;
+		this.pstFile = pstFile;
+
+		rowWidth = info.endingOffsets[TCInfo.TCI_bm];
+		rowsPerBlock = rowWidth == 0 ? 0 : (BlockBase.MAX_BLOCK_BYTES - BlockTrailer.size(pstFile))/rowWidth;
+
+		// The number of rows is found from the size of the row matrix rather than by counting the entries in the row index.
+		sbt = nodeDescr.bidSubnode.isNull() ? null : new SubnodeBTree(nodeDescr.bidSubnode, bbt, pstFile);
+		if (rowWidth == 0) {
+			rowMatrix = null;
+			rowMatrixBlocks = null;
+			rowMatrixBlockData = null;
+			numRows = 0;
+		} else if (info.hnidRows.type == NID.HID) {
+			rowMatrix = hon.validHID(info.hnidRows) ? hon.heapData(info.hnidRows) : null;
+			if (rowMatrix != null && rowMatrix.remaining() % rowWidth != 0)
+				throw new UnparseableTableContextException("Row data is not a whole number of rows: found " + rowMatrix.remaining() + " bytes, row width " + rowWidth);
+
+			rowMatrixBlocks = null;
+			rowMatrixBlockData = null;
+			numRows = rowMatrix == null ? 0 : rowMatrix.remaining() / rowWidth;
 		} else if (info.hnidRows.type == NID.LTP) {
 			SLEntry slEntry = (SLEntry)sbt.find(info.hnidRows.key());
 			assert slEntry != null;
@@ -388,25 +605,55 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 			BBTEntry bbtEntry = bbt.find(slEntry.bidData);
 			assert bbtEntry != null;
 
-			BlockBase b = BlockBase.read(bbtEntry, bbt, pstFile);
-			readRows(hon, info.columnDescription.length, b.iterator(), sbt, bbt, pstFile);
+			rowMatrix = null;
+			rowMatrixBlocks = BlockBase.read(bbtEntry, bbt, pstFile, true);
+			rowMatrixBlockData = new java.nio.ByteBuffer[rowMatrixBlocks.numBlocks()];
+
+			// Every block but the last holds rowsPerBlock rows, so only the last block need be read to count them.
+			final int lastBlock = rowMatrixBlockData.length - 1;
+			numRows = lastBlock < 0 ? 0 : lastBlock * rowsPerBlock + rowMatrixBlock(lastBlock).remaining() / rowWidth;
 		} else {
 			assert false: "Unknown HNID node type " + info.hnidRows;
+			rowMatrix = null;
+			rowMatrixBlocks = null;
+			rowMatrixBlockData = null;
+			numRows = 0;
 		}
 	}
 
-	/**	Returns true if the Cell Existence Bitmap indicates this column exists, and false otherwise.
+	/**	Decode the value of the given cell from the raw data for its row.
 	*
-	*	@param	ceb	The cell existence block for the row currently being processed.
-	*	@param	column	The column of the table in which the field being processed lies.
+	*	@param	rowBuffer	The row matrix, or the block of the row matrix, containing the row, as returned by {@link #rowBuffer}.
+	*	@param	rowStart	The offset of the row in rowBuffer, as returned by {@link #rowStart}.
+	*	@param	column		The column of the cell to decode.
 	*
-	*	@return	true if the cell existence bitmap indicates that the field is present, false if the cell existens bitmap
-	*			indicates it is absent.
+	*	@return	The value of the cell, or null if the cell existence bitmap indicates that the cell is empty.
 	*/
-	private boolean cellExists(byte[] ceb, int column)
+	private Object cell(final java.nio.ByteBuffer rowBuffer, final int rowStart, final int column)
 	{
-		int cebIndex = info.columnDescription[column].cellExistenceBitmapIndex;
-		return (ceb[cebIndex/8] & (1 << (7 - cebIndex % 8))) != 0;
+		if (!info.cellExists(rowBuffer, rowStart, column))
+			return null;
+
+		try {
+			final Object fieldData = info.readCell(rowBuffer, rowStart, column);
+			if (!(fieldData instanceof HeapOnNode.HID))
+				return fieldData;
+
+			final HeapOnNode.HID hid = (HeapOnNode.HID)fieldData;
+			if (!hon.validHID(hid))
+				return null;
+
+			if (!hid.isHID()) {
+				final SLEntry slEntry = (SLEntry)sbt.find(((NID)hid).key());
+				final BBTEntry bbtEntry = bbt.find(slEntry.bidData);
+				return info.hnidTypes[column].read(BlockBase.read(bbtEntry, bbt, pstFile).dataStream());
+			}
+
+			final java.nio.ByteBuffer bHeapData = hon.heapData(hid);
+			return bHeapData != null ? info.hnidTypes[column].read(bHeapData) : null;
+		} catch (final java.io.IOException e) {
+			throw new RuntimeException("Error reading column " + column + " of " + info.columnDescription[column], e);
+		}
 	}
 
 	/**	Get the column index for the given tag, if present.
@@ -417,21 +664,42 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 	*/
 	private int columnIndex(int tag)
 	{
-		for (int i = 0; i < info.columnDescription.length; ++i) {
-			if (tag == info.columnDescription[i].tag)
-				return i;
+		final int column = info.columnIndex(tag);
+		return column != -1 && available[column] ? column : -1;
+	}
+
+	/**	Find the columns to make available for the given tags.
+	*
+	*	@param	tags	The tags of the columns to make available, or null for all columns.
+	*
+	*	@return	The indices into the TCInfo column descriptions of the columns for the given tags which are present in the
+	*		table, in the order in which they are stored in each row.
+	*/
+	private int[] columns(final int[] tags)
+	{
+		int[] columns = new int[info.columnDescription.length];
+		int n = 0;
+		for (int i = 0; i < columns.length; ++i) {
+			if (tags == null || contains(tags, info.columnDescription[i].tag))
+				columns[n++] = i;
 		}
-		return -1;
+		return n == columns.length ? columns : java.util.Arrays.copyOf(columns, n);
 	}
 
-	/**	The expected number of bytes in the row data heap entry.
+	/**	Determine whether the given tag is in the given list of tags.
 	*
-	*	@return	The expected number of bytes in a row data heap entry, based on the number of rows and the number of sum of the
-	*		number of bytes in all columns.
+	*	@param	tags	The list of tags to search.
+	*	@param	tag	The tag to look for.
+	*
+	*	@return	true if the tag is in the list, false otherwise.
 	*/
-	private int expectedSize()
+	private static boolean contains(final int[] tags, final int tag)
 	{
-		return rows.length * DataDefinition.size(info.rowFields);
+		for (int t : tags) {
+			if (t == tag)
+				return true;
+		}
+		return false;
 	}
 
 	/**	Get the value for the given tag, if it exists, for the given row.
@@ -443,23 +711,25 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 	*/
 	public Object get(int row, int tag)
 	{
-		if (row > getRowCount())
+		if (row >= getRowCount())
 			return null;
 
 		final int column = columnIndex(tag);
 		if (column == -1)
 			return null;
-		return rows[row][column];
+
+		final java.nio.ByteBuffer rowBuffer = rowBuffer(row);
+		return rowBuffer == null ? null : cell(rowBuffer, rowStart(row), column);
 	}
 
 	/**	Get the number of data columns in the table.
 	*
-	*	@return	The number of data columns (i.e. excluding the cell existence bitmap) in this table context.
+	*	@return	The number of data columns made available by this table context, which is 0 if none of the requested tags are
+	*		in the table.
 	*/
 	public int getColumnCount()
 	{
-		// Note: don't include the Cell Existence Bitmap!
-		return (info == null || info.columnDescription == null) ? 0 : info.columnDescription.length - 1;
+		return columns == null ? 0 : columns.length;
 	}
 
 	/**	Get the name of the given column for use as a table header.
@@ -470,7 +740,7 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 	*/
 	public String getColumnName(int column)
 	{
-		return PropertyTagName.name(info.columnDescription[column].tag);
+		return PropertyTagName.name(info.columnDescription[columns[column]].tag);
 	}
 
 	/**	Obtain a ByteBuffer from which the raw data for the given propertyID may be read.
@@ -498,12 +768,8 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 			if (!hon.validHID(hid))
 				return null;
 
-			if (hid.isHID()) {
-				if (hon.heapData(hid) == null)
-					return null;
-
-				return java.nio.ByteBuffer.wrap(hon.heapData(hid)).asReadOnlyBuffer();
-			}
+			if (hid.isHID())
+				return hon.heapData(hid);
 		}
 
 		return java.nio.ByteBuffer.wrap(data).asReadOnlyBuffer();
@@ -515,7 +781,7 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 	*/
 	public int getRowCount()
 	{
-		return rows.length;
+		return numRows;
 	}
 
 	/**	Return the value of the specified cell.
@@ -527,7 +793,8 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 	*/
 	public Object getValueAt(int row, int column)
 	{
-		return rows[row] == null ? null : rows[row][column];
+		final java.nio.ByteBuffer rowBuffer = rowBuffer(row);
+		return rowBuffer == null ? null : cell(rowBuffer, rowStart(row), columns[column]);
 	}
 
 
@@ -549,7 +816,7 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 	*/
 	private boolean isEmpty()
 	{
-		return rows.length == 0;
+		return numRows == 0;
 	}
 
 	/**	Obtain an iterator for the rows of this TableContext which returns all columns. cf specifiedColumnIterator
@@ -562,132 +829,118 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 		return isEmpty() ? EmptyIterator.iterator : new Iterator();
 	}
 
-	/**	Read data for all rows from a block of bytes of raw data. This is used to read HID table contexts.
+	/**	Decode all the available cells in the given row. Cells which the cell existence bitmap shows to be empty are not
+	*	decoded.
 	*
-	*	@param	hon		The heap-on-node containing this table context.
-	*	@param	numColumns	The number of columns in this table context (excluding the cell existence bitmap).
-	*	@param	data		The raw row data.
-	*	@param	sbt		The sub-node B-tree for the table context (where the HID data is to be found).
-	*	@param	bbt		The PST file's block B-tree.
-	*	@param	pstFile		The PST file's input data stream, header, etc.
+	*	@param	row	The row to decode.
 	*
-	*	@throws	java.io.IOException	An I/O error was encountered while reading in the rows for the table context.
+	*	@return	The values of the available cells in the given row, in column order, or null if there is no data for the row.
 	*/
-	private void readRows(HeapOnNode hon, int numColumns, byte[] data, SubnodeBTree sbt, BlockMap bbt, PSTFile pstFile)
-	throws
-		java.io.IOException
+	private Object[] row(final int row)
 	{
-		java.nio.ByteBuffer rowStream = PSTFile.makeByteBuffer(data);
-
-		int rowWidth = info.endingOffsets[TCInfo.TCI_bm];
-		final int rowsPerBlock = (BlockBase.MAX_BLOCK_BYTES - BlockTrailer.size(pstFile))/rowWidth;
-		final int nPaddingBytes = BlockBase.MAX_BLOCK_BYTES - BlockTrailer.size(pstFile) - rowsPerBlock*rowWidth;
-		logger.log(java.util.logging.Level.INFO, String.format("Rows/Block %d padding at end of block %d", rowsPerBlock, nPaddingBytes));
-		int r;
-		for (r = 0; r < rows.length; ++r) {
-			if (r > 0 && r % rowsPerBlock == 0)
-				rowStream.position(rowStream.position() + nPaddingBytes);
-			rows[r] = readRow(rowStream, numColumns, r, sbt, bbt, hon, pstFile);
+		final java.nio.ByteBuffer rowBuffer = rowBuffer(row);
+		if (rowBuffer == null)
+			return null;
 
+		final int rowStart = rowStart(row);
+		if (logger.isLoggable(java.util.logging.Level.INFO)) {
+			byte[] cellExistenceBitmap = new byte[rowWidth - info.endingOffsets[TCInfo.TCI_1b]];
+			for (int i = 0; i < cellExistenceBitmap.length; ++i)
+				cellExistenceBitmap[i] = rowBuffer.get(rowStart + info.endingOffsets[TCInfo.TCI_1b] + i);
+			logger.log(java.util.logging.Level.INFO, String.format("%d: CEB %s", row, ByteUtil.createHexByteString(cellExistenceBitmap)));
 		}
+
+		Object[] values = new Object[columns.length];
+		for (int c = 0; c < values.length; ++c)
+			values[c] = cell(rowBuffer, rowStart, columns[c]);
+		return values;
 	}
 
-	/**	Read data for all rows from blocks of bytes returned by an iterator. This is used to read LTP table contexts.
+	/**	Obtain the buffer holding the raw data for the given row, reading the block of the row matrix which contains it if
+	*	necessary. The buffer is shared, and must be read only at absolute positions.
 	*
-	*	@param	hon		The heap-on-node containing this table context.
-	*	@param	numColumns	The number of columns in this table context (excluding the cell existence bitmap).
-	*	@param	iterator	An iterator through the blocks which comprise an LTP table context.
-	*	@param	sbt		The sub-node B-tree for the table context (where the HID data is to be found).
-	*	@param	bbt		The PST file's block B-tree.
-	*	@param	pstFile		The PST file's input data stream, header, etc.
+	*	@param	row	The row to retrieve the data for.
 	*
-	*	@throws	java.io.IOException	An I/O error was encountered while reading in the rows for the table context.
+	*	@return	A little-endian ByteBuffer containing the data for the given row at {@link #rowStart}, or null if there is no
+	*		data for the row.
 	*/
-	private void readRows(HeapOnNode hon, int numColumns, java.util.Iterator<java.nio.ByteBuffer> iterator, SubnodeBTree sbt, BlockMap bbt, PSTFile pstFile)
-	throws
-		java.io.IOException
+	private java.nio.ByteBuffer rowBuffer(final int row)
 	{
-		int rowWidth = info.endingOffsets[TCInfo.TCI_bm];
-		int r = 0;
-
-		while (iterator.hasNext()) {
-			java.nio.ByteBuffer rowStream = iterator.next();
-			while (rowStream.remaining() >= rowWidth) {
-				if (r >= rows.length)
-					throw new RuntimeException("Too much data for " + rows.length + " rows");
-				rows[r++] = readRow(rowStream, numColumns, r, sbt, bbt, hon, pstFile);
-			}
-		}
+		java.nio.ByteBuffer rowBuffer;
+		if (rowMatrix != null)
+			rowBuffer = rowMatrix;
+		else if (rowMatrixBlocks != null)
+			rowBuffer = rowMatrixBlock(row / rowsPerBlock);
+		else
+			return null;
+
+		return rowStart(row) + rowWidth <= rowBuffer.limit() ? rowBuffer : null;
 	}
 
-	/**	Read a single row from the TableContext
+	/**	Obtain the offset of the given row in the buffer returned by {@link #rowBuffer}.
 	*
-	*	@param	rowStream	The raw data for this row, as a ByteBuffer with the correct endianness.
-	*	@param	numColumns	The number of columns in this table context (excluding the cell existence bitmap)
-	*	@param	r		The index of this row (used only for diagnostic logging).
-	*	@param	sbt		This table context's sub-node B-tree.
-	*	@param	bbt		The PST file's block B-tree.
-	*	@param	hon		The heap-on-node containing this table context.
-	*	@param	pstFile		The PST file input data stream, header, etc.
+	*	@param	row	The row to find.
+	*
+	*	@return	The offset of the row's data in its row matrix buffer.
+	*/
+	private int rowStart(final int row)
+	{
+		return rowMatrix != null ? row * rowWidth : (row % rowsPerBlock) * rowWidth;
+	}
+
+	/**	Obtain the given block of a row matrix stored in a sub-node, reading it if it has not already been read.
 	*
-	*	@return	The data in the row given by rowStream, parsed into the appropriate PST data types.
+	*	@param	i	The index of the block to retrieve.
 	*
-	*	@throws	java.io.IOException	An I/O error was encountered while reading the data for this table context row.
+	*	@return	A little-endian ByteBuffer containing the data in the given block, starting at position 0.
 	*/
-	private Object[] readRow(java.nio.ByteBuffer rowStream, int numColumns, int r, SubnodeBTree sbt, BlockMap bbt, HeapOnNode hon, PSTFile pstFile)
+	private synchronized java.nio.ByteBuffer rowMatrixBlock(final int i)
+	{
+		if (rowMatrixBlockData[i] == null)
+			rowMatrixBlockData[i] = rowMatrixBlocks.dataStream(i).slice().order(java.nio.ByteOrder.LITTLE_ENDIAN);
+		return rowMatrixBlockData[i];
+	}
+
+	/**	Obtain the row index for this table context, building it if it has not already been built. The row index is not
+	*	needed to read the table, so it is only built for display.
+	*
+	*	@return	The B-tree-on-heap mapping row IDs to rows.
+	*
+	*	@throws	java.io.IOException	There was an I/O error reading the row index.
+	*/
+	private synchronized BTreeOnHeap rowIndex()
 	throws
 		java.io.IOException
 	{
-		DataContainer dc = new DataContainer(info.rowFields.length);
-
-		dc.read(rowStream, info.rowFields);
-		byte[] cellExistenceBitmap = (byte[])dc.get(info.rowFields[info.rowFields.length-1].name);
-
-		if (logger.isLoggable(java.util.logging.Level.INFO))
-			logger.log(java.util.logging.Level.INFO, String.format("%d: CEB %s", r, ByteUtil.createHexByteString(cellExistenceBitmap)));
-
-		Object[] row = new Object[numColumns];
-		for (int c = 0; c < numColumns; ++c) {
-			Object fieldData = dc.get(info.rowFields[c].name);
-
-			if (!cellExists(cellExistenceBitmap, c)) {
-				if (logger.isLoggable(java.util.logging.Level.INFO))
-					logger.log(java.util.logging.Level.INFO, String.format("(%d, %d): empty %s", r, c, fieldData.toString()));
-				continue;
-			}
-
-			if (logger.isLoggable(java.util.logging.Level.INFO))
-				logger.log(java.util.logging.Level.INFO, String.format("(%d, %d) %s 0x%08x: %s", r, c, info.fieldName(c), info.columnDescription[c].tag, fieldData.toString()));
-
-			if (!(fieldData instanceof HeapOnNode.HID)) {
-				row[c] = fieldData;
-				continue;
-			}
-
-			HeapOnNode.HID hid =  (HeapOnNode.HID)fieldData;
-
-			if (!hon.validHID(hid)) {
-				row[c] = null;
-				continue;
-			}
-
-			if (!hid.isHID()) {
-				BBTEntry bbtEntry = (BBTEntry)sbt.find(((NID)hid).key());
-				BlockBase block = BlockBase.read(bbtEntry, bbt, pstFile);
-				java.nio.ByteBuffer bBlock = PSTFile.makeByteBuffer(block.data());
-				row[c] = info.rowFields[c].description.read(bBlock);
-				continue;
-			}
+		if (rowIndex == null)
+			rowIndex = new BTreeOnHeap(hon, info.hidRowIndex, pstFile);
+		return rowIndex;
+	}
 
-			if (hon.heapData(hid) == null) {
-				row[c] = null;
-				continue;
-			}
+	/**	Find the row with the given row ID by binary search of the row index, without decoding any rows.
+	*
+	*	@param	ltpRowId	The row ID to look for. This is the value of the row's LtpRowId column, which, for a folder
+	*				contents or hierarchy table, is the node ID of the message or sub-folder.
+	*
+	*	@return	The index of the row with the given row ID, or -1 if there is no such row.
+	*/
+	public int rowForId(int ltpRowId)
+	{
+		if (isEmpty())
+			return -1;
 
-			java.nio.ByteBuffer bHeapData = PSTFile.makeByteBuffer(hon.heapData(hid));
-			row[c] = info.hnidTypes[c].read(bHeapData);
+		try {
+			final BTreeOnHeap.LeafRecord lr = BTreeOnHeap.lookup(hon, info.hidRowIndex, ltpRowId & 0xffffffffL);
+			if (lr == null)
+				return -1;
+
+			int row = 0;
+			for (int i = lr.data.length - 1; i >= 0; --i)
+				row = row << 8 | (lr.data[i] & 0xff);
+			return row < numRows ? row : -1;
+		} catch (final java.io.IOException e) {
+			throw new RuntimeException("Error reading row index for row ID " + Integer.toHexString(ltpRowId), e);
 		}
-		return row;
 	}
 
 	/**	Are objects of the given property type stored within the tree itself, or in an HID denoted by the leaf element?
@@ -724,11 +977,17 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 		if (isEmpty())
 			return "Empty TableContext";
 
-		StringBuilder s = new StringBuilder(info + "\n" + rowIndex + "\n");
-		for (Object[] row : rows) {
+		StringBuilder s;
+		try {
+			s = new StringBuilder(info + "\n" + rowIndex() + "\n");
+		} catch (final java.io.IOException e) {
+			throw new RuntimeException("Error reading row index", e);
+		}
+		for (int r = 0; r < numRows; ++r) {
+			final Object[] row = row(r);
 			if (row != null)
 			for (int c = 0; c < row.length; ++c) {
-				s.append("\n" + PropertyTagName.name(info.columnDescription[c].tag) + ": ");
+				s.append("\n" + PropertyTagName.name(info.columnDescription[columns[c]].tag) + ": ");
 				if (row[c] == null)
 					s.append("empty");
 				else if (row[c] instanceof Byte)
@@ -800,7 +1059,7 @@ public class TableContext extends javax.swing.table.AbstractTableModel {
 //									System.out.printf("0x%08x %s\n", entry.getKey(), pst.propertyName(entry.getKey()));
 //								}
 								if (!logger.isLoggable(java.util.logging.Level.FINE))
-									tc.rowIndex.outputString(System.out, new StringBuilder("rowIndex"));
+									tc.rowIndex().outputString(System.out, new StringBuilder("rowIndex"));
 							}
 						}
 					} catch (final NotHeapNodeException e) {
@@ -49,6 +49,17 @@ public class Task extends MessageObject {
 		dueDate = (java.util.Date)contentsTable.get(row, TaskDueDateID);
 	}
 
+	/**	Obtain the tags of the contents table columns read when creating a task.
+	*
+	*	@return	The tags of the task columns used from the folder contents table.
+	*
+	*	@see	MessageObject#contentsTableTags
+	*/
+	static int[] contentsTableTags()
+	{
+		return new int[]{TaskDueDateID};
+	}
+
 	/**	Save named property IDs for IDs of interest.
 	*
 	*	@param	namedProperties	The list of named properties.
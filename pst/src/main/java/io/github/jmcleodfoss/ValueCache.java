@@ -0,0 +1,149 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The ValueCache class limits the memory used by property values which are read on demand from sub-nodes, such as message
+*	bodies and attachment data, and then kept so that they need not be read again.
+*
+*	Each such value is kept by the property context entry it was read through, behind a soft reference, so that the
+*	garbage collector may reclaim it when memory runs short. In addition, the most recently-used values are held strongly here,
+*	up to a single byte budget shared by all PST files; when a value is added which would exceed the budget, the least-recently
+*	used values are released to the garbage collector (they remain available until it reclaims them). Values larger than the
+*	budget, such as large attachments, are not kept at all, and are read again each time they are requested.
+*
+*	A kept value is returned to every caller which asks for it, and must not be modified.
+*
+*	@see	PropertyContext#get
+*/
+public class ValueCache {
+
+	/**	The default maximum number of bytes of values held strongly by the cache. */
+	public static final long DEFAULT_MAXIMUM_BYTES = 32 * 1024 * 1024;
+
+	/**	The approximate size of a value whose size is not otherwise estimated. */
+	private static final int OBJECT_BYTES = 16;
+
+	/**	The values held strongly by the cache, keyed by the soft reference through which each is kept, in order of access,
+	*	from least- to most-recently used. The key is the reference rather than the object which holds it so that the cache
+	*	does not keep anything other than the values themselves.
+	*/
+	private static final java.util.LinkedHashMap<java.lang.ref.Reference<Object>, Object> values = new java.util.LinkedHashMap<java.lang.ref.Reference<Object>, Object>(16, 0.75f, true);
+
+	/**	The maximum number of bytes of values to hold strongly. */
+	private static long maximumBytes = DEFAULT_MAXIMUM_BYTES;
+
+	/**	The number of bytes of values currently held strongly. */
+	private static long currentBytes;
+
+	/**	This class is not instantiated. */
+	private ValueCache()
+	{
+	}
+
+	/**	Note that the value kept by the given reference has been used again, so that it is the last to be released.
+	*
+	*	@param	reference	The reference through which the value is kept.
+	*/
+	static synchronized void accessed(final java.lang.ref.Reference<Object> reference)
+	{
+		values.get(reference);
+	}
+
+	/**	Release all values held strongly by the cache. */
+	public static synchronized void clear()
+	{
+		values.clear();
+		currentBytes = 0;
+	}
+
+	/**	Retrieve the number of bytes of values currently held strongly by the cache.
+	*
+	*	@return	The estimated size of the values held, in bytes.
+	*/
+	public static synchronized long currentBytes()
+	{
+		return currentBytes;
+	}
+
+	/**	Retrieve the maximum number of bytes of values which may be held strongly by the cache.
+	*
+	*	@return	The maximum size of the values held, in bytes.
+	*/
+	public static synchronized long maximumBytes()
+	{
+		return maximumBytes;
+	}
+
+	/**	Hold the value kept by the given reference, releasing the least-recently used values if necessary to make room for it.
+	*	Values larger than the budget are not held.
+	*
+	*	@param	reference	The reference through which the value is kept.
+	*/
+	static synchronized void retain(final java.lang.ref.Reference<Object> reference)
+	{
+		final Object value = reference.get();
+		if (value == null)
+			return;
+
+		final int size = size(value);
+		if (size > maximumBytes || values.containsKey(reference))
+			return;
+
+		values.put(reference, value);
+		currentBytes += size;
+		trim();
+	}
+
+	/**	Change the maximum number of bytes of values which may be held strongly by the cache, releasing values if necessary.
+	*	If this is 0, values are kept only by their soft references.
+	*
+	*	@param	maximumBytes	The new maximum size of the values held, in bytes.
+	*/
+	public static synchronized void setMaximumBytes(final long maximumBytes)
+	{
+		ValueCache.maximumBytes = maximumBytes;
+		trim();
+	}
+
+	/**	Estimate the number of bytes used by the given property value.
+	*
+	*	@param	value	The value whose size is to be estimated.
+	*
+	*	@return	The approximate size of the value, in bytes.
+	*/
+	static int size(final Object value)
+	{
+		if (value instanceof byte[])
+			return ((byte[])value).length;
+		if (value instanceof String)
+			return 2 * ((String)value).length();
+		if (value instanceof Object[]) {
+			int size = 0;
+			for (final Object o : (Object[])value)
+				size += size(o);
+			return size;
+		}
+		if (value instanceof int[])
+			return 4 * ((int[])value).length;
+		if (value instanceof long[])
+			return 8 * ((long[])value).length;
+		return OBJECT_BYTES;
+	}
+
+	/**	Release the least-recently used values until the values held are no larger than the budget. */
+	private static void trim()
+	{
+		java.util.Iterator<Object> iterator = values.values().iterator();
+		while (currentBytes > maximumBytes && iterator.hasNext()) {
+			currentBytes -= size(iterator.next());
+			iterator.remove();
+		}
+	}
+
+	/**	Provide a summary of the cache state.
+	*
+	*	@return	A string describing the cache contents.
+	*/
+	public static synchronized String summary()
+	{
+		return String.format("%d values, %d of %d bytes", values.size(), currentBytes, maximumBytes);
+	}
+}
@@ -13,36 +13,32 @@ package io.github.jmcleodfoss.pst;
 */
 class XBlock extends BlockBase {
 
-	/**	An iterator which returns a ByteBuffer view of the underlying data block. */
+	/**	An iterator which returns a ByteBuffer view of each underlying data block, reading the block if it has not yet
+	*	been read.
+	*/
 	private class Iterator implements java.util.Iterator<java.nio.ByteBuffer> {
 
-		/**	The underlying iterator - this class is just a thin wrapper around it to return the SimpleBlock's data as a
-		*	ByteBuffer rather than the SimpleBlock itself.
-		*/
-		private java.util.Iterator<SimpleBlock> blockIterator;
-
-		/**	Construct an iterator from the XBlock blockList vector. */
-		Iterator()
-		{
-			blockIterator = blockList.iterator();
-		}
+		/**	The index of the next block to return. */
+		private int i;
 
 		/**	Is there another value to return?
 		*
-		*	@return	true if there is another SimpleBlock in the list, false otherwise.
+		*	@return	true if there is another data block, false otherwise.
 		*/
 		public boolean hasNext()
 		{
-			return blockIterator.hasNext();
+			return i < leaf.length;
 		}
 
 		/**	Retrieve the next value.
 		*
-		*	@return	The data for the next SimpleBlock in the list, as a ByteBuffer.
+		*	@return	The data for the next data block, as a ByteBuffer.
 		*/
 		public java.nio.ByteBuffer next()
 		{
-			return PSTFile.makeByteBuffer(blockIterator.next().data());
+			if (i >= leaf.length)
+				throw new java.util.NoSuchElementException();
+			return blockData(i++).dataStream();
 		}
 
 		/**	The remove function is not supported by the XBlock iterator. */
@@ -72,10 +68,16 @@ class XBlock extends BlockBase {
 	/**	The total amount of data in all sub-blocks */
 	private final int dataBytes;
 
-	/**	The sub-blocks in this multi-block structure. */
-	final java.util.Vector<SimpleBlock> blockList;
+	/**	The block B-tree entries of the data blocks in this multi-block structure. */
+	private final BBTEntry[] leaf;
+
+	/**	The data blocks in this multi-block structure, or null if the data blocks are read each time they are needed. */
+	private final SimpleBlock[] blocks;
 
-	/**	Create an XBlock/XXBlock from the given block B-tree entry.
+	/**	The PST file from which the data blocks are read. */
+	private final PSTFile pstFile;
+
+	/**	Create an XBlock/XXBlock from the given block B-tree entry, reading all the data blocks.
 	*
 	*	@param	entry	The block B-tree entry describing the root of this XBLOCK/XXBLOCK tree structure.
 	*	@param	bbt	The PST file's block B-tree (required to find the child blocks).
@@ -87,10 +89,30 @@ class XBlock extends BlockBase {
 	throws
 		java.io.IOException
 	{
-		pstFile.position(entry.bref.ib.ib);
+		this(entry, bbt, pstFile, false);
+	}
+
+	/**	Create an XBlock/XXBlock from the given block B-tree entry. The XBLOCK and any child XBLOCKs are always read, but
+	*	if fLazy is set, each data block is read only when it is needed by {@link #iterator} or {@link #data}, and is not kept
+	*	afterwards, so that the data may be processed one block at a time.
+	*
+	*	@param	entry	The block B-tree entry describing the root of this XBLOCK/XXBLOCK tree structure.
+	*	@param	bbt	The PST file's block B-tree (required to find the child blocks).
+	*	@param	pstFile	The PST file's input stream, etc.
+	*	@param	fLazy	If true, read the data blocks as they are needed, otherwise read them all now.
+	*
+	*	@throws	java.io.IOException	An I/O exception was encountered when reading the XBLOCK / XXBLOCK data.
+	*/
+	XBlock(final BBTEntry entry, final BlockMap bbt, PSTFile pstFile, boolean fLazy)
+	throws
+		java.io.IOException
+	{
+		this.pstFile = pstFile;
+		final int blockSize = blockSize(entry.numBytes, pstFile);
+		java.nio.ByteBuffer stream = pstFile.dataStream(entry.bref.ib.ib, blockSize);
 
 		DataContainer dc = new DataContainer();
-		dc.read(pstFile.mbb, data_fields);
+		dc.read(stream, data_fields);
 
 		final byte type = (Byte)dc.get(nm_btype);
 		if (type != 0x01)
@@ -105,38 +127,79 @@ class XBlock extends BlockBase {
 		DataDefinition bidField = new DataDefinition(nm_data, DataType.BIDFactory(pstFile.unicode()), true);
 		BID[] bid = new BID[numEntries];
 		for (int i = 0; i < numEntries; ++i) {
-			dc.read(pstFile.mbb, bidField);
+			dc.read(stream, bidField);
 			bid[i] = (BID)dc.get(nm_data);
 		}
 		this.bid = bid;
 
-		final int blockSize = blockSize(entry.numBytes, pstFile);
 		DataDefinition paddingField = new DataDefinition(nm_padding, new DataType.SizedByteArray(blockSize-entry.numBytes-BlockTrailer.size(pstFile)), false);
-		dc.read(pstFile.mbb, paddingField);
-		final BlockTrailer trailer = new BlockTrailer(pstFile);
+		dc.read(stream, paddingField);
+		final BlockTrailer trailer = new BlockTrailer(stream, pstFile);
 
 		if (level == 1) {
-			blockList = readXBlock(numEntries, bid, bbt, pstFile);
+			leaf = readXBlock(numEntries, bid, bbt);
 		} else {
 			java.util.Vector<XBlock> xblockList = readXXBlock(numEntries, bid, bbt, pstFile);
 
 			int nBlocks = 0;
 			for (java.util.Iterator<XBlock> xIter = xblockList.iterator(); xIter.hasNext(); )
-				nBlocks += xIter.next().blockList.size();
+				nBlocks += xIter.next().leaf.length;
 
-			java.util.Vector<SimpleBlock> blockList = new java.util.Vector<SimpleBlock>(nBlocks);
+			BBTEntry[] leaf = new BBTEntry[nBlocks];
+			int i = 0;
 			for (java.util.Iterator<XBlock> xIter = xblockList.iterator(); xIter.hasNext(); ) {
 				final XBlock xblock = xIter.next();
-				for (java.util.Iterator<SimpleBlock> blockIter = xblock.blockList.iterator(); blockIter.hasNext(); )
-					blockList.add(blockIter.next());
+				System.arraycopy(xblock.leaf, 0, leaf, i, xblock.leaf.length);
+				i += xblock.leaf.length;
 			}
-			this.blockList = blockList;
+			this.leaf = leaf;
+		}
+
+		if (fLazy) {
+			blocks = null;
+			dataBytes = (Integer)dc.get(nm_lcbTotal);
+		} else {
+			blocks = new SimpleBlock[leaf.length];
+			int size = 0;
+			for (int i = 0; i < leaf.length; ++i)
+				size += readBlock(i).size();
+			dataBytes = size;
+		}
+	}
+
+	/**	Obtain the given data block, reading it if it has not already been read. An I/O error is reported as a
+	*	RuntimeException, as the callers cannot throw java.io.IOException.
+	*
+	*	@param	i	The index of the data block to retrieve.
+	*
+	*	@return	The requested data block.
+	*/
+	private SimpleBlock blockData(final int i)
+	{
+		try {
+			return readBlock(i);
+		} catch (final java.io.IOException e) {
+			throw new RuntimeException("Error reading block " + leaf[i], e);
 		}
+	}
 
-		int size = 0;
-		for (java.util.Iterator<SimpleBlock> bIter = blockList.iterator(); bIter.hasNext(); )
-			size += bIter.next().data.length;
-		dataBytes = size;
+	/**	Obtain the given data block, reading it if it has not already been read or if data blocks are not kept.
+	*
+	*	@param	i	The index of the data block to retrieve.
+	*
+	*	@return	The requested data block.
+	*
+	*	@throws	java.io.IOException	An I/O exception was encountered when reading the data block.
+	*/
+	private SimpleBlock readBlock(final int i)
+	throws
+		java.io.IOException
+	{
+		if (blocks == null)
+			return new SimpleBlock(leaf[i], pstFile);
+		if (blocks[i] == null)
+			blocks[i] = new SimpleBlock(leaf[i], pstFile);
+		return blocks[i];
 	}
 
 	/**	Retrieve the consolidated data array for this data tree.
@@ -147,16 +210,28 @@ class XBlock extends BlockBase {
 	{
 		byte[] data = new byte[dataBytes];
 		int destOffset = 0;
-		java.util.Iterator<SimpleBlock> blockIterator = blockList.iterator();
-		while (blockIterator.hasNext()) {
-			final SimpleBlock block = blockIterator.next();
-			System.arraycopy(block.data, 0, data, destOffset, block.data.length);
-			destOffset += block.data.length;
+		for (int i = 0; i < leaf.length; ++i) {
+			final SimpleBlock block = blockData(i);
+			final int size = block.size();
+			block.dataStream().get(data, destOffset, size);
+			destOffset += size;
 		}
 		
 		return data;
 	}
 
+	/**	Return the data within the given data block, reading the block if it has not already been read.
+	*
+	*	@param	i	The index of the data block to retrieve.
+	*
+	*	@return	A ByteBuffer object from which the data in the requested data block may be read.
+	*/
+	@Override
+	java.nio.ByteBuffer dataStream(final int i)
+	{
+		return blockData(i).dataStream();
+	}
+
 	/**	Obtain an iterator to iterate through the child blocks.
 	*
 	*	@return	An iterator through the SimpleBlock objects making up the leaf nodes of this XBLOCK/XXBLOCK structure.
@@ -166,29 +241,36 @@ class XBlock extends BlockBase {
 		return new Iterator();
 	}
 
-	/**	Read in an XBLOCK.
+	/**	Obtain the number of data blocks in this data tree.
+	*
+	*	@return	The number of leaf data blocks in this XBLOCK/XXBLOCK structure.
+	*/
+	@Override
+	int numBlocks()
+	{
+		return leaf.length;
+	}
+
+	/**	Find the block B-tree entries for the data blocks in an XBLOCK.
 	*
 	*	@param	numEntries	The number of child block entries in this XBlock.
 	*	@param	bid		The array of BIDs of the blocks.
 	*	@param	bbt		The PST file's block B-tree.
-	*	@param	pstFile		The underlying PST file's data stream, header, etc.
 	*
-	*	@return	A vector of SimpleBlock objects.
+	*	@return	An array of block B-tree entries for the data blocks.
 	*
-	*	@throws	java.io.IOException	An I/O exception was encountered while reading in the requested XBlocks.
+	*	@throws	java.io.IOException	An I/O exception was encountered while looking up the data blocks.
 	*/
-	static java.util.Vector<SimpleBlock> readXBlock(final int numEntries, final BID[] bid, final BlockMap bbt, PSTFile pstFile)
+	static BBTEntry[] readXBlock(final int numEntries, final BID[] bid, final BlockMap bbt)
 	throws
 		java.io.IOException
 	{
-		java.util.Vector<SimpleBlock> blockList = new java.util.Vector<SimpleBlock>(numEntries);
-		for (BID b : bid) {
-			final BBTEntry blockEntry = bbt.find(b);
-			assert blockEntry != null;
-			final SimpleBlock block = new SimpleBlock(blockEntry, pstFile);
-			blockList.add(block);
+		BBTEntry[] leaf = new BBTEntry[numEntries];
+		for (int i = 0; i < numEntries; ++i) {
+			leaf[i] = bbt.find(bid[i]);
+			assert leaf[i] != null;
 		}
-		return blockList;
+		return leaf;
 	}
 
 	/**	Read in an XXBLOCK.
@@ -198,7 +280,7 @@ class XBlock extends BlockBase {
 	*	@param	bbt		The PST file's block B-tree.
 	*	@param	pstFile		The underlying PST file's data stream, header, etc.
 	*
-	*	@return	A vector of XBlock objects.
+	*	@return	A vector of XBlock objects, whose data blocks have not yet been read.
 	*
 	*	@throws	java.io.IOException	An I/O exception was encountered while reading in the requested XXBlocks.
 	*/
@@ -210,7 +292,7 @@ class XBlock extends BlockBase {
 		for (BID b : bid) {
 			final BBTEntry blockEntry = bbt.find(b);
 			assert blockEntry != null;
-			final XBlock xBlock = new XBlock(blockEntry, bbt, pstFile);
+			final XBlock xBlock = new XBlock(blockEntry, bbt, pstFile, true);
 			xblockList.add(xBlock);
 		}
 
@@ -226,7 +308,7 @@ class XBlock extends BlockBase {
 	@Override
 	public String toString()
 	{
-		String s = String.format("%d bytes in %d data blocks:\n", dataBytes, blockList.size());
+		String s = String.format("%d bytes in %d data blocks:\n", dataBytes, leaf.length);
 		for (int i = 0; i < bid.length; ++i) {
 			if (i > 0)
 				s += "\n";
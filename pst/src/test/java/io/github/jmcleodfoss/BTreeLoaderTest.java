@@ -0,0 +1,69 @@
+package io.github.jmcleodfoss.pst;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.lang.reflect.InvocationTargetException;
+import junit.extensions.PrivilegedAccessor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Check that the B-trees read in parallel match those read on a single thread. */
+public class BTreeLoaderTest extends TestFrame {
+	@Test public void pst()
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		test(ExtensionFileFilter.pstFileFilter);
+	}
+
+	protected void test(File file)
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		try {
+			PSTFile pstFile = new PSTFile(new java.io.FileInputStream(file));
+			final BTreeLoader sequential = new BTreeLoader(pstFile, 1);
+			final BTreeLoader parallel = new BTreeLoader(pstFile, 4);
+
+			java.util.Iterator s = sequential.blockBTree.iterator();
+			java.util.Iterator p = parallel.blockBTree.iterator();
+			while (s.hasNext())
+				Assert.assertEquals(s.next().toString(), p.next().toString());
+			Assert.assertFalse(p.hasNext());
+
+			s = sequential.nodeBTree.iterator();
+			p = parallel.nodeBTree.iterator();
+			while (s.hasNext())
+				Assert.assertEquals(s.next().toString(), p.next().toString());
+			Assert.assertFalse(p.hasNext());
+		} catch (IOException e) {
+			if (e.toString().equals("java.io.IOException: Cannot allocate memory")) {
+				throw new InsufficientMemoryException(e);
+			}
+			throw e;
+		}
+	}
+}
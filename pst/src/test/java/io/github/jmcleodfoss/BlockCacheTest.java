@@ -0,0 +1,135 @@
+package io.github.jmcleodfoss.pst;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Check block cache eviction, size limits, and statistics using synthetic blocks. */
+public class BlockCacheTest {
+
+	@Test public void evictsLeastRecentlyUsed()
+	{
+		BlockCache cache = new BlockCache(300, new BlockCache.LRUPolicy());
+		cache.put(bid(1), new byte[100]);
+		cache.put(bid(2), new byte[100]);
+		cache.put(bid(3), new byte[100]);
+		Assert.assertEquals(300, cache.currentBytes());
+
+		Assert.assertNotNull(cache.get(bid(1)));
+		cache.put(bid(4), new byte[100]);
+
+		Assert.assertNull(cache.get(bid(2)));
+		Assert.assertNotNull(cache.get(bid(1)));
+		Assert.assertNotNull(cache.get(bid(3)));
+		Assert.assertNotNull(cache.get(bid(4)));
+		Assert.assertEquals(300, cache.currentBytes());
+		Assert.assertEquals(1, cache.evictions());
+
+		cache.put(bid(5), new byte[250]);
+		Assert.assertNull(cache.get(bid(1)));
+		Assert.assertNull(cache.get(bid(3)));
+		Assert.assertNull(cache.get(bid(4)));
+		Assert.assertNotNull(cache.get(bid(5)));
+		Assert.assertEquals(250, cache.currentBytes());
+		Assert.assertEquals(4, cache.evictions());
+	}
+
+	@Test public void refusesOversizedBlocks()
+	{
+		BlockCache cache = new BlockCache(100, new BlockCache.LRUPolicy());
+		cache.put(bid(1), new byte[60]);
+		cache.put(bid(2), new byte[101]);
+
+		Assert.assertEquals(60, cache.currentBytes());
+		Assert.assertNull(cache.get(bid(2)));
+		Assert.assertNotNull(cache.get(bid(1)));
+		Assert.assertEquals(0, cache.evictions());
+
+		BlockCache disabled = new BlockCache(0, new BlockCache.LRUPolicy());
+		disabled.put(bid(1), new byte[1]);
+		Assert.assertEquals(0, disabled.currentBytes());
+		Assert.assertNull(disabled.get(bid(1)));
+	}
+
+	@Test public void counters()
+	{
+		BlockCache cache = new BlockCache(200, new BlockCache.LRUPolicy());
+		byte[] first = new byte[100];
+		cache.put(bid(1), first);
+		cache.put(bid(1), new byte[50]);
+		Assert.assertEquals(100, cache.currentBytes());
+		Assert.assertSame(first, cache.get(bid(1)));
+
+		Assert.assertNull(cache.get(bid(2)));
+		Assert.assertSame(first, cache.get(bid(1)));
+		Assert.assertEquals(2, cache.hits());
+		Assert.assertEquals(1, cache.misses());
+
+		cache.put(bid(2), new byte[100]);
+		cache.put(bid(3), new byte[100]);
+		Assert.assertEquals(1, cache.evictions());
+
+		cache.setMaximumBytes(100);
+		Assert.assertEquals(100, cache.maximumBytes());
+		Assert.assertEquals(100, cache.currentBytes());
+		Assert.assertEquals(2, cache.evictions());
+
+		cache.clear();
+		Assert.assertEquals(0, cache.currentBytes());
+		Assert.assertEquals(2, cache.hits());
+		Assert.assertEquals(1, cache.misses());
+		Assert.assertEquals(2, cache.evictions());
+	}
+
+	@Test public void customPolicy()
+	{
+		MostRecentPolicy policy = new MostRecentPolicy();
+		BlockCache cache = new BlockCache(200, policy);
+		cache.put(bid(1), new byte[100]);
+		cache.put(bid(2), new byte[100]);
+		cache.put(bid(3), new byte[100]);
+
+		Assert.assertNotNull(cache.get(bid(1)));
+		Assert.assertNotNull(cache.get(bid(2)));
+		Assert.assertNull(cache.get(bid(3)));
+		Assert.assertEquals(1, cache.evictions());
+		Assert.assertEquals(1, policy.victims);
+
+		cache.clear();
+		Assert.assertTrue(policy.keys.isEmpty());
+	}
+
+	/** An eviction policy which removes the block added most recently. */
+	private static class MostRecentPolicy implements BlockCache.EvictionPolicy {
+
+		private final List<Long> keys = new ArrayList<Long>();
+		private int victims;
+
+		public void added(long key, int size)
+		{
+			keys.add(key);
+		}
+
+		public void accessed(long key)
+		{
+		}
+
+		public void removed(long key)
+		{
+			keys.remove(Long.valueOf(key));
+		}
+
+		public long victim()
+		{
+			++victims;
+			return keys.get(keys.size() - 1);
+		}
+	}
+
+	/** Create a synthetic external block ID. */
+	private static BID bid(long id)
+	{
+		return new BID(id << 2);
+	}
+}
@@ -54,6 +54,15 @@ public class BlockFinderTest extends TestFrame {
 				final BBTEntry findEntry = bf.find(treeEntry.bref.bid);
 				Assert.assertEquals(treeEntry.key(), findEntry.key());
 			}
+
+			bf.setMaximumLeafPages(1);
+			iterator = bbt.iterator();
+			while (iterator.hasNext()) {
+				final BBTEntry treeEntry = (BBTEntry)iterator.next();
+				final BBTEntry findEntry = bf.find(treeEntry.bref.bid);
+				Assert.assertEquals(treeEntry.key(), findEntry.key());
+			}
+			Assert.assertTrue(bf.cacheHits() > 0);
 		} catch (IOException e) {
 			if (e.toString().equals("java.io.IOException: Cannot allocate memory")) {
 				throw new InsufficientMemoryException(e);
@@ -0,0 +1,67 @@
+package io.github.jmcleodfoss.pst;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.lang.reflect.InvocationTargetException;
+import junit.extensions.PrivilegedAccessor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** TBD */
+public class BlockIndexTest extends TestFrame {
+	@Test public void pst()
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		test(ExtensionFileFilter.pstFileFilter);
+	}
+
+	protected void test(File file)
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		try {
+			PSTFile pstFile = new PSTFile(new java.io.FileInputStream(file));
+			final BlockBTree bbt = new BlockBTree(0, pstFile.header.bbtRoot, pstFile);
+			BlockIndex index = new BlockIndex(pstFile);
+
+			int blocks = 0;
+			java.util.Iterator iterator = bbt.iterator();
+			while (iterator.hasNext()) {
+				final BBTEntry treeEntry = (BBTEntry)iterator.next();
+				final BBTEntry findEntry = index.find(treeEntry.bref.bid);
+				Assert.assertEquals(treeEntry.toString(), findEntry.toString());
+				++blocks;
+			}
+			Assert.assertEquals(blocks, index.size());
+		} catch (IOException e) {
+			if (e.toString().equals("java.io.IOException: Cannot allocate memory")) {
+				throw new InsufficientMemoryException(e);
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package io.github.jmcleodfoss.pst;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.lang.reflect.InvocationTargetException;
+import junit.extensions.PrivilegedAccessor;
+import org.junit.Assert;
+import org.junit.Test;
+/** Check that every block passes a deferred CRC check. */
+public class CRCPolicyTest extends TestFrame {
+	@Test public void pst()
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		test(ExtensionFileFilter.pstFileFilter);
+	}
+
+	protected void test(File file)
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		java.util.concurrent.Executor inline = new java.util.concurrent.Executor() {
+			public void execute(Runnable r)
+			{
+				r.run();
+			}
+		};
+		CRCPolicy.Deferred policy = CRCPolicy.deferred(inline);
+
+		PSTFile pstFile = new PSTFile(new java.io.FileInputStream(file), policy);
+		final BlockBTree bbt = new BlockBTree(0, pstFile.header.bbtRoot, pstFile);
+		long blocks = 0;
+		java.util.Iterator iterator = bbt.iterator();
+		while (iterator.hasNext()) {
+			final BBTEntry entry = (BBTEntry)iterator.next();
+			new SimpleBlock(entry, pstFile);
+			++blocks;
+		}
+		Assert.assertEquals(blocks, policy.blocksChecked());
+		Assert.assertTrue(policy.failures().toString(), policy.failures().isEmpty());
+		pstFile.close();
+	}
+}
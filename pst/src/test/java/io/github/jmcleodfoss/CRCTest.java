@@ -0,0 +1,40 @@
+package io.github.jmcleodfoss.pst;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Check that the slicing-by-8 CRC implementations agree with the original byte-at-a-time implementation. */
+public class CRCTest {
+
+	@Test public void crc()
+	{
+		Random random = new Random(1);
+		byte[] data = new byte[BlockBase.MAX_BLOCK_BYTES + 13];
+		random.nextBytes(data);
+
+		ByteBuffer heap = PSTFile.makeByteBuffer(data);
+		ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+		direct.put(data);
+		direct.position(5);
+
+		for (int size = 0; size <= 40; ++size) {
+			for (int start = 0; start < 9; ++start)
+				check(data, heap, direct, start, size);
+		}
+		check(data, heap, direct, 0, data.length);
+		check(data, heap, direct, 3, BlockBase.MAX_BLOCK_BYTES);
+
+		Assert.assertEquals(0, heap.position());
+		Assert.assertEquals(5, direct.position());
+	}
+
+	private static void check(byte[] data, ByteBuffer heap, ByteBuffer direct, int start, int size)
+	{
+		int expected = CRC.crcBytewise(heap, start, size);
+		Assert.assertEquals(expected, CRC.crc(data, start, size));
+		Assert.assertEquals(expected, CRC.crc(heap, start, size));
+		Assert.assertEquals(expected, CRC.crc(direct, start, size));
+	}
+}
@@ -0,0 +1,90 @@
+package io.github.jmcleodfoss.pst;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.lang.reflect.InvocationTargetException;
+import junit.extensions.PrivilegedAccessor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Check that the child index lists the same children for each node as a pass through the whole node B-tree. */
+public class ChildIndexTest extends TestFrame {
+	@Test public void pst()
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		test(ExtensionFileFilter.pstFileFilter);
+	}
+
+	protected void test(File file)
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		try {
+			PSTFile pstFile = new PSTFile(new java.io.FileInputStream(file));
+			final NodeBTree nbt = new NodeBTree(0, pstFile.header.nbtRoot, pstFile);
+			final ChildIndex index = new ChildIndex(nbt);
+
+			java.util.TreeMap<Integer, java.util.TreeSet<Integer>> expected = new java.util.TreeMap<Integer, java.util.TreeSet<Integer>>();
+			java.util.Iterator iterator = nbt.iterator();
+			while (iterator.hasNext()) {
+				final NBTEntry entry = (NBTEntry)iterator.next();
+				final int nid = (int)entry.key();
+				final int nidParent = (int)entry.nidParent.key();
+				if (nidParent == 0 || nidParent == nid)
+					continue;
+				if (!expected.containsKey(nidParent))
+					expected.put(nidParent, new java.util.TreeSet<Integer>());
+				expected.get(nidParent).add(nid);
+			}
+
+			Assert.assertEquals(expected.size(), index.numberOfParents());
+			final int messages = ChildIndex.typeMask(NID.NORMAL_MESSAGE);
+			for (java.util.Map.Entry<Integer, java.util.TreeSet<Integer>> e : expected.entrySet()) {
+				final int[] children = index.children(e.getKey());
+				Assert.assertEquals(e.getValue().size(), children.length);
+				Assert.assertEquals(children.length, index.numberOfChildren(e.getKey()));
+				int i = 0;
+				for (int child : e.getValue())
+					Assert.assertEquals(child, children[i++]);
+
+				i = 0;
+				final int[] messageChildren = index.children(e.getKey(), messages);
+				for (int child : e.getValue()) {
+					if ((child & NID.TYPE_MASK) == NID.NORMAL_MESSAGE)
+						Assert.assertEquals(child, messageChildren[i++]);
+				}
+				Assert.assertEquals(i, messageChildren.length);
+			}
+			Assert.assertEquals(0, index.children(0).length);
+		} catch (IOException e) {
+			if (e.toString().equals("java.io.IOException: Cannot allocate memory")) {
+				throw new InsufficientMemoryException(e);
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package io.github.jmcleodfoss.pst;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.lang.reflect.InvocationTargetException;
+import junit.extensions.PrivilegedAccessor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Check that streaming each data tree returns the same data as reading it all at once. */
+public class DataTreeInputStreamTest extends TestFrame {
+	@Test public void pst()
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		test(ExtensionFileFilter.pstFileFilter);
+	}
+
+	protected void test(File file)
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		PSTFile pstFile = new PSTFile(new java.io.FileInputStream(file));
+		final BlockBTree bbt = new BlockBTree(0, pstFile.header.bbtRoot, pstFile);
+		final NodeBTree nbt = new NodeBTree(0, pstFile.header.nbtRoot, pstFile);
+
+		java.util.Iterator iterator = nbt.iterator();
+		while (iterator.hasNext()) {
+			final NBTEntry node = (NBTEntry)iterator.next();
+			final BBTEntry dataBlock = bbt.find(node.bidData);
+			if (dataBlock == null)
+				continue;
+
+			final byte[] expected = BlockBase.read(dataBlock, bbt, pstFile).data();
+
+			java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+			DataTreeInputStream stream = new DataTreeInputStream(dataBlock, bbt, pstFile);
+			Assert.assertEquals(expected.length, stream.transferTo(java.nio.channels.Channels.newChannel(bytes)));
+			Assert.assertEquals(-1, stream.read());
+			stream.close();
+			Assert.assertArrayEquals(expected, bytes.toByteArray());
+		}
+		pstFile.close();
+	}
+}
@@ -11,6 +11,7 @@ import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.lang.reflect.InvocationTargetException;
 import junit.extensions.PrivilegedAccessor;
+import org.junit.Assert;
 import org.junit.Test;
 
 /** TBD */
@@ -44,6 +45,8 @@ public class HeapOnNodeTest extends TestFrame {
 	{
 		try {
 			PSTFile pstFile = new PSTFile(new java.io.FileInputStream(file));
+			PSTFile lazyPSTFile = new PSTFile(new java.io.FileInputStream(file));
+			lazyPSTFile.setLazyHeaps(true);
 			final BlockBTree bbt = new BlockBTree(0, pstFile.header.bbtRoot, pstFile);
 			final NodeBTree nbt = new NodeBTree(0, pstFile.header.nbtRoot, pstFile);
 
@@ -56,7 +59,15 @@ public class HeapOnNodeTest extends TestFrame {
 				final BBTEntry dataBlock = bbt.find(node.bidData);
 				if (dataBlock != null) {
 					try {
-						new HeapOnNode(dataBlock, bbt, pstFile);
+						final HeapOnNode hon = new HeapOnNode(dataBlock, bbt, pstFile);
+						final ByteBuffer userRoot = hon.userRootHeapData();
+						Assert.assertTrue(userRoot == null || userRoot.isReadOnly() && userRoot.position() == 0);
+						for (int i = 0; i < hon.getSize(); ++i)
+							hon.getElementAt(i);
+
+						final HeapOnNode lazyHon = new HeapOnNode(dataBlock, bbt, lazyPSTFile);
+						Assert.assertEquals(userRoot, lazyHon.userRootHeapData());
+						Assert.assertEquals(hon.toString(), lazyHon.toString());
 					} catch (NotHeapNodeException e) {
 					} catch (UnknownClientSignatureException e) {
 					}
@@ -0,0 +1,89 @@
+package io.github.jmcleodfoss.pst;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.lang.reflect.InvocationTargetException;
+import junit.extensions.PrivilegedAccessor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Check that an index file is saved, read back in, and rejected once damaged. */
+public class IndexFileTest extends TestFrame {
+	@Test public void pst()
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		test(ExtensionFileFilter.pstFileFilter);
+	}
+
+	protected void test(File file)
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		File indexFile = File.createTempFile("pst", ".idx");
+		indexFile.delete();
+		try {
+			PSTFile pstFile = new PSTFile(new java.io.FileInputStream(file));
+			Assert.assertNull(IndexFile.read(indexFile, pstFile));
+
+			final IndexFile built = IndexFile.open(indexFile, pstFile);
+			final IndexFile saved = IndexFile.read(indexFile, pstFile);
+			Assert.assertNotNull(saved);
+			Assert.assertEquals(built.blockIndex.size(), saved.blockIndex.size());
+			Assert.assertEquals(built.nodeIndex.size(), saved.nodeIndex.size());
+
+			java.util.Iterator iterator = built.nodeIndex.iterator();
+			while (iterator.hasNext()) {
+				final NBTEntry entry = (NBTEntry)iterator.next();
+				Assert.assertEquals(entry.toString(), saved.nodeIndex.find(entry.nid).toString());
+				final BBTEntry block = built.blockIndex.find(entry.bidData);
+				if (block != null)
+					Assert.assertEquals(block.toString(), saved.blockIndex.find(entry.bidData).toString());
+			}
+
+			java.util.Iterator<java.util.Map.Entry<Short, String>> names = built.namedProperties.iterator();
+			while (names.hasNext()) {
+				final java.util.Map.Entry<Short, String> name = names.next();
+				Assert.assertEquals(name.getValue(), saved.namedProperties.name(name.getKey()));
+			}
+
+			java.io.RandomAccessFile raf = new java.io.RandomAccessFile(indexFile, "rw");
+			raf.seek(raf.length() / 2);
+			final int b = raf.read();
+			raf.seek(raf.length() / 2);
+			raf.write(b ^ 0xff);
+			raf.close();
+			Assert.assertNull(IndexFile.read(indexFile, pstFile));
+		} catch (IOException e) {
+			if (e.toString().equals("java.io.IOException: Cannot allocate memory")) {
+				throw new InsufficientMemoryException(e);
+			}
+			throw e;
+		} finally {
+			indexFile.delete();
+		}
+	}
+}
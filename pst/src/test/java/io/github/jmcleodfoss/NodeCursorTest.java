@@ -0,0 +1,88 @@
+package io.github.jmcleodfoss.pst;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.lang.reflect.InvocationTargetException;
+import junit.extensions.PrivilegedAccessor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Check that node cursors return the same nodes as a filtered pass through the whole node B-tree. */
+public class NodeCursorTest extends TestFrame {
+	@Test public void pst()
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		test(ExtensionFileFilter.pstFileFilter);
+	}
+
+	protected void test(File file)
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		try {
+			PSTFile pstFile = new PSTFile(new java.io.FileInputStream(file));
+			final NodeBTree nbt = new NodeBTree(0, pstFile.header.nbtRoot, pstFile);
+			final NodeMap[] maps = { nbt, new NodeFinder(pstFile), new NodeIndex(pstFile) };
+
+			java.util.ArrayList<Integer> keys = new java.util.ArrayList<Integer>();
+			java.util.Iterator iterator = nbt.iterator();
+			while (iterator.hasNext())
+				keys.add((int)((NBTEntry)iterator.next()).key());
+			final int fromKey = keys.get(keys.size() / 4);
+			final int toKey = keys.get(keys.size() * 3 / 4) + 1;
+
+			for (NodeMap map : maps) {
+				for (byte type = 0; type <= NID.TYPE_MASK; ++type) {
+					NodeCursor cursor = map.cursor(type);
+					for (int key : keys) {
+						if ((key & NID.TYPE_MASK) == type) {
+							Assert.assertTrue(cursor.next());
+							Assert.assertEquals(key, cursor.nidKey());
+							Assert.assertEquals(key, (int)cursor.entry().key());
+						}
+					}
+					Assert.assertFalse(cursor.next());
+				}
+
+				NodeCursor cursor = map.cursor(fromKey, toKey);
+				for (int key : keys) {
+					if (key >= fromKey && key <= toKey) {
+						Assert.assertTrue(cursor.next());
+						Assert.assertEquals(key, cursor.nidKey());
+					}
+				}
+				Assert.assertFalse(cursor.next());
+				Assert.assertFalse(map.cursor(toKey, fromKey).next());
+			}
+		} catch (IOException e) {
+			if (e.toString().equals("java.io.IOException: Cannot allocate memory")) {
+				throw new InsufficientMemoryException(e);
+			}
+			throw e;
+		}
+	}
+}
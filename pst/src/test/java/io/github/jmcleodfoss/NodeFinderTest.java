@@ -54,5 +54,16 @@ public class NodeFinderTest extends TestFrame {
 			final NBTEntry findEntry = nf.find(treeEntry.nid);
 			Assert.assertEquals(treeEntry.key(), findEntry.key());
 		}
+
+		NodeFinder lazy = new NodeFinder(pstFile, true);
+		for (int pass = 0; pass < 2; ++pass) {
+			iterator = nbt.iterator();
+			while (iterator.hasNext()) {
+				final NBTEntry treeEntry = (NBTEntry)iterator.next();
+				final NBTEntry findEntry = lazy.find(treeEntry.nid);
+				Assert.assertEquals(treeEntry.key(), findEntry.key());
+			}
+		}
+		Assert.assertTrue(lazy.cacheHits() > 0);
 	}
 }
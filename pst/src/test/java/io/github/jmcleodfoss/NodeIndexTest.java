@@ -0,0 +1,79 @@
+package io.github.jmcleodfoss.pst;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.lang.reflect.InvocationTargetException;
+import junit.extensions.PrivilegedAccessor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** TBD */
+public class NodeIndexTest extends TestFrame {
+	@Test public void pst()
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		test(ExtensionFileFilter.pstFileFilter);
+	}
+
+	protected void test(File file)
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		try {
+			PSTFile pstFile = new PSTFile(new java.io.FileInputStream(file));
+			final NodeBTree nbt = new NodeBTree(0, pstFile.header.nbtRoot, pstFile);
+			NodeIndex index = new NodeIndex(pstFile);
+
+			int nodes = 0;
+			java.util.Iterator iterator = nbt.iterator();
+			while (iterator.hasNext()) {
+				final NBTEntry treeEntry = (NBTEntry)iterator.next();
+				final NBTEntry findEntry = index.find(treeEntry.nid);
+				Assert.assertEquals(treeEntry.toString(), findEntry.toString());
+				++nodes;
+			}
+			Assert.assertEquals(nodes, index.size());
+
+			int typed = 0;
+			for (byte type = 0; type < 0x20; ++type) {
+				for (int n = 0; n < index.numberOfType(type); ++n) {
+					final int i = index.positionOfType(type, n);
+					Assert.assertEquals(type, index.type(i));
+					if (n > 0)
+						Assert.assertTrue(index.nid(index.positionOfType(type, n-1)) < index.nid(i));
+					++typed;
+				}
+			}
+			Assert.assertEquals(nodes, typed);
+		} catch (IOException e) {
+			if (e.toString().equals("java.io.IOException: Cannot allocate memory")) {
+				throw new InsufficientMemoryException(e);
+			}
+			throw e;
+		}
+	}
+}
@@ -11,6 +11,7 @@ import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.lang.reflect.InvocationTargetException;
 import junit.extensions.PrivilegedAccessor;
+import org.junit.Assert;
 import org.junit.Test;
 
 /** TBD */
@@ -65,7 +66,15 @@ public class PropertyContextTest extends TestFrame {
 					if (!hon.clientSignature().equals(ClientSignature.PropertyContext))
 						continue;
 
-					new PropertyContext(node, bbt, pstFile);
+					final PropertyContext pc = new PropertyContext(node, bbt, pstFile);
+
+					final int[] tags = pc.properties.tags();
+					final PropertyContext projected = new PropertyContext(node, bbt, pstFile, tags);
+					Assert.assertEquals(tags.length, projected.properties.size());
+					for (final int tag : tags) {
+						Assert.assertTrue(projected.containsKey(tag));
+						Assert.assertEquals(pc.getLong(tag, -1), projected.getLong(tag, -1));
+					}
 				} catch (final NotHeapNodeException e) {
 				} catch (final NullDataBlockException e) {
 				} catch (final UnknownClientSignatureException e) {
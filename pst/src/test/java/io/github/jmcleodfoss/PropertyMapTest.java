@@ -0,0 +1,170 @@
+package io.github.jmcleodfoss.pst;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Check the property map's hash table, boxing, and typed accessors without reading a PST file. */
+public class PropertyMapTest {
+
+	@Test public void growth()
+	{
+		PropertyMap map = new PropertyMap();
+		final int n = 200;
+		for (int id = 0; id < n; ++id) {
+			if (id % 2 == 0)
+				map.putPrimitive(tag(id, DataType.INTEGER_32), id);
+			else
+				map.put(tag(id, DataType.STRING), "value " + id);
+		}
+		Assert.assertEquals(n, map.size());
+
+		for (int id = 0; id < n; ++id) {
+			if (id % 2 == 0)
+				Assert.assertEquals(id, map.getInt(tag(id, DataType.INTEGER_32), -1));
+			else
+				Assert.assertEquals("value " + id, map.get(tag(id, DataType.STRING)));
+		}
+		Assert.assertFalse(map.containsKey(tag(n, DataType.INTEGER_32)));
+
+		map.put(tag(1, DataType.STRING), "replaced");
+		map.putPrimitive(tag(2, DataType.INTEGER_32), -2);
+		Assert.assertEquals(n, map.size());
+		Assert.assertEquals("replaced", map.get(tag(1, DataType.STRING)));
+		Assert.assertEquals(-2, map.getInt(tag(2, DataType.INTEGER_32), 0));
+
+		int[] tags = map.tags();
+		Assert.assertEquals(n, tags.length);
+		Assert.assertEquals(n, map.toMap().size());
+
+		int count = 0;
+		for (Iterator<Map.Entry<Integer, Object>> iterator = map.iterator(); iterator.hasNext(); iterator.next())
+			++count;
+		Assert.assertEquals(n, count);
+	}
+
+	@Test public void collisions()
+	{
+		final int first = tag(0x3001, DataType.INTEGER_64);
+		int second = 0;
+		for (int id = 0x3002; second == 0; ++id) {
+			final int candidate = tag(id, DataType.STRING);
+			if (bucket(candidate) == bucket(first))
+				second = candidate;
+		}
+
+		PropertyMap map = new PropertyMap();
+		map.putPrimitive(first, 0x123456789aL);
+		map.put(second, "object");
+		Assert.assertEquals(2, map.size());
+		Assert.assertEquals(0x123456789aL, map.getLong(first, 0));
+		Assert.assertEquals((Long)0x123456789aL, map.get(first));
+		Assert.assertEquals("object", map.get(second));
+
+		map.putPrimitive(first, 7);
+		Assert.assertEquals(2, map.size());
+		Assert.assertEquals(7, map.getLong(first, 0));
+		Assert.assertEquals("object", map.get(second));
+	}
+
+	@Test public void boxing()
+	{
+		PropertyMap map = new PropertyMap();
+		final long millis = 1234567890123L;
+		map.putPrimitive(tag(1, DataType.INTEGER_16), -5);
+		map.putPrimitive(tag(2, DataType.INTEGER_32), -6);
+		map.putPrimitive(tag(3, DataType.INTEGER_64), -7);
+		map.putPrimitive(tag(4, DataType.BOOLEAN), 1);
+		map.putPrimitive(tag(5, DataType.TIME), millis);
+		map.putPrimitive(tag(6, DataType.FLOATING_64), Double.doubleToLongBits(2.5));
+
+		Assert.assertEquals((Short)(short)-5, map.get(tag(1, DataType.INTEGER_16)));
+		Assert.assertEquals((Integer)(-6), map.get(tag(2, DataType.INTEGER_32)));
+		Assert.assertEquals((Long)(-7L), map.get(tag(3, DataType.INTEGER_64)));
+		Assert.assertEquals(Boolean.TRUE, map.get(tag(4, DataType.BOOLEAN)));
+		Assert.assertEquals(new Date(millis), map.get(tag(5, DataType.TIME)));
+		Assert.assertEquals((Double)2.5, map.get(tag(6, DataType.FLOATING_64)));
+		Assert.assertNull(map.get(tag(7, DataType.INTEGER_32)));
+	}
+
+	@Test public void readPrimitive()
+	{
+		ByteBuffer data = ByteBuffer.allocate(15).order(ByteOrder.LITTLE_ENDIAN);
+		data.putShort((short)-3);
+		data.putInt(0x12345678);
+		data.put((byte)2);
+		data.putLong(-4);
+		data.flip();
+
+		Assert.assertEquals(-3, PropertyMap.readPrimitive(DataType.INTEGER_16, data));
+		Assert.assertEquals(0x12345678, PropertyMap.readPrimitive(DataType.INTEGER_32, data));
+		Assert.assertEquals(1, PropertyMap.readPrimitive(DataType.BOOLEAN, data));
+		Assert.assertEquals(-4, PropertyMap.readPrimitive(DataType.INTEGER_64, data));
+
+		Assert.assertTrue(PropertyMap.isPrimitive(DataType.TIME));
+		Assert.assertFalse(PropertyMap.isPrimitive(DataType.STRING));
+		Assert.assertFalse(PropertyMap.isPrimitive(DataType.BINARY));
+	}
+
+	@Test public void typedAccessors()
+	{
+		PropertyMap map = new PropertyMap();
+		final int missing = tag(1, DataType.INTEGER_32);
+		Assert.assertEquals(-1, map.getInt(missing, -1));
+		Assert.assertEquals(-1L, map.getLong(missing, -1L));
+		Assert.assertTrue(map.getBoolean(missing, true));
+		Assert.assertEquals(-1L, map.getTimeMillis(missing, -1L));
+
+		final int string = tag(2, DataType.STRING);
+		map.put(string, "text");
+		Assert.assertEquals(-1, map.getInt(string, -1));
+		Assert.assertFalse(map.getBoolean(string, false));
+		Assert.assertEquals(-1L, map.getTimeMillis(string, -1L));
+
+		final int floating = tag(3, DataType.FLOATING_64);
+		map.putPrimitive(floating, Double.doubleToLongBits(1.5));
+		Assert.assertEquals(-1L, map.getLong(floating, -1L));
+		Assert.assertEquals(-1L, map.getTimeMillis(floating, -1L));
+
+		final int integer = tag(4, DataType.INTEGER_32);
+		map.putPrimitive(integer, 42);
+		Assert.assertEquals(42, map.getInt(integer, -1));
+		Assert.assertTrue(map.getBoolean(integer, false));
+		Assert.assertEquals(-1L, map.getTimeMillis(integer, -1L));
+
+		final int time = tag(5, DataType.TIME);
+		map.putPrimitive(time, 1000L);
+		Assert.assertEquals(1000L, map.getTimeMillis(time, -1L));
+
+		final int boxedTime = tag(6, DataType.TIME);
+		map.put(boxedTime, new Date(2000L));
+		Assert.assertEquals(2000L, map.getTimeMillis(boxedTime, -1L));
+
+		final int boxedInteger = tag(7, DataType.INTEGER_32);
+		map.put(boxedInteger, 99);
+		Assert.assertEquals(99, map.getInt(boxedInteger, -1));
+		Assert.assertFalse(map.getBoolean(boxedInteger, false));
+
+		final int boxedBoolean = tag(8, DataType.BOOLEAN);
+		map.put(boxedBoolean, Boolean.TRUE);
+		Assert.assertTrue(map.getBoolean(boxedBoolean, false));
+		Assert.assertEquals(-1, map.getInt(boxedBoolean, -1));
+	}
+
+	/** Build a property tag from a property ID and type. */
+	private static int tag(int id, short type)
+	{
+		return (id << 16) | (type & 0xffff);
+	}
+
+	/** Calculate the initial slot for a tag in an empty property map, as PropertyMap.slot does. */
+	private static int bucket(int tag)
+	{
+		final int h = tag * 0x9e3779b9;
+		return (h ^ (h >>> 16)) & 31;
+	}
+}
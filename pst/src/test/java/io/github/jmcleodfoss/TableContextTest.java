@@ -11,10 +11,14 @@ import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.lang.reflect.InvocationTargetException;
 import junit.extensions.PrivilegedAccessor;
+import org.junit.Assert;
 import org.junit.Test;
 
 /** TBD */
 public class TableContextTest extends TestFrame {
+	/** A tag which is not used in any table: an integer property with an ID in the reserved range. */
+	private static final int ABSENT_TAG = 0x7ffe0003;
+
 	@Test public void pst()
 	throws
 		BufferUnderflowException,
@@ -58,8 +62,31 @@ public class TableContextTest extends TestFrame {
 						HeapOnNode hon = new HeapOnNode(dataBlock, bbt, pstFile);
 						if (!hon.containsData())
 							continue;
-						if (hon.clientSignature().equals(ClientSignature.TableContext))
-							new TableContext(nodeDescr, hon, bbt, pstFile);
+						if (hon.clientSignature().equals(ClientSignature.TableContext)) {
+							TableContext tc = new TableContext(nodeDescr, hon, bbt, pstFile);
+							boolean hasRowId = false;
+							for (int c = 0; c < tc.getColumnCount(); ++c)
+								hasRowId |= tc.getColumnName(c).equals(PropertyTagName.name(PropertyTag.LtpRowId));
+
+							TableContext missing = new TableContext(nodeDescr, hon, bbt, pstFile, new int[]{ABSENT_TAG});
+							Assert.assertEquals(0, missing.getColumnCount());
+							Assert.assertEquals(tc.getRowCount(), missing.getRowCount());
+
+							TableContext projected = new TableContext(nodeDescr, hon, bbt, pstFile, new int[]{ABSENT_TAG, PropertyTag.LtpRowId});
+							Assert.assertEquals(hasRowId ? 1 : 0, projected.getColumnCount());
+							Assert.assertEquals(tc.getRowCount(), projected.getRowCount());
+							for (int r = 0; r < tc.getRowCount(); ++r) {
+								for (int c = 0; c < tc.getColumnCount(); ++c)
+									tc.getValueAt(r, c);
+								Assert.assertEquals(tc.get(r, PropertyTag.LtpRowId), projected.get(r, PropertyTag.LtpRowId));
+								if (hasRowId)
+									Assert.assertEquals(tc.get(r, PropertyTag.LtpRowId), projected.getValueAt(r, 0));
+								Assert.assertNull(missing.get(r, ABSENT_TAG));
+								Integer rowId = (Integer)tc.get(r, PropertyTag.LtpRowId);
+								if (rowId != null)
+									Assert.assertEquals(r, tc.rowForId(rowId));
+							}
+						}
 					} catch (NotHeapNodeException e) {
 						// This is expected; we have no way to find out whether a node contains a heap-on-node until we start reading it.
 						continue;
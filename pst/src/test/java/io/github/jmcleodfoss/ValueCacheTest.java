@@ -0,0 +1,104 @@
+package io.github.jmcleodfoss.pst;
+
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Check the value cache's byte budget and release order without reading a PST file. */
+public class ValueCacheTest {
+
+	@Before public void setUp()
+	{
+		ValueCache.clear();
+		ValueCache.setMaximumBytes(300);
+	}
+
+	@After public void tearDown()
+	{
+		ValueCache.clear();
+		ValueCache.setMaximumBytes(ValueCache.DEFAULT_MAXIMUM_BYTES);
+	}
+
+	@Test public void releasesLeastRecentlyUsed()
+	{
+		byte[] valueA = new byte[100];
+		byte[] valueB = new byte[90];
+		byte[] valueC = new byte[80];
+		Reference<Object> a = reference(valueA);
+		Reference<Object> b = reference(valueB);
+		Reference<Object> c = reference(valueC);
+		ValueCache.retain(a);
+		ValueCache.retain(b);
+		ValueCache.retain(c);
+		Assert.assertEquals(270, ValueCache.currentBytes());
+
+		// a was used after b, so b is released to make room
+		ValueCache.accessed(a);
+		ValueCache.retain(reference(new byte[60]));
+		Assert.assertEquals(240, ValueCache.currentBytes());
+		Assert.assertEquals("3 values, 240 of 300 bytes", ValueCache.summary());
+
+		// a is still held, so retaining it again changes nothing
+		ValueCache.retain(a);
+		Assert.assertEquals(240, ValueCache.currentBytes());
+
+		// b is not held, so retaining it again adds it and releases c, now the least-recently used value
+		ValueCache.retain(b);
+		Assert.assertEquals(250, ValueCache.currentBytes());
+		Assert.assertEquals("3 values, 250 of 300 bytes", ValueCache.summary());
+	}
+
+	@Test public void budget()
+	{
+		ValueCache.retain(reference(new byte[301]));
+		Assert.assertEquals(0, ValueCache.currentBytes());
+
+		ValueCache.retain(reference(new byte[200]));
+		ValueCache.retain(reference("x"));
+		Assert.assertEquals(202, ValueCache.currentBytes());
+
+		ValueCache.retain(reference(new byte[150]));
+		Assert.assertEquals(152, ValueCache.currentBytes());
+
+		ValueCache.setMaximumBytes(100);
+		Assert.assertEquals(100, ValueCache.maximumBytes());
+		Assert.assertEquals(0, ValueCache.currentBytes());
+		Assert.assertEquals("0 values, 0 of 100 bytes", ValueCache.summary());
+
+		ValueCache.setMaximumBytes(0);
+		ValueCache.retain(reference(new byte[1]));
+		Assert.assertEquals(0, ValueCache.currentBytes());
+	}
+
+	@Test public void clearedReference()
+	{
+		Reference<Object> reference = reference(new byte[10]);
+		reference.clear();
+		ValueCache.retain(reference);
+		Assert.assertEquals(0, ValueCache.currentBytes());
+
+		ValueCache.retain(reference(new byte[10]));
+		ValueCache.clear();
+		Assert.assertEquals(0, ValueCache.currentBytes());
+		Assert.assertEquals(300, ValueCache.maximumBytes());
+	}
+
+	@Test public void size()
+	{
+		Assert.assertEquals(10, ValueCache.size(new byte[10]));
+		Assert.assertEquals(8, ValueCache.size("text"));
+		Assert.assertEquals(12, ValueCache.size(new int[3]));
+		Assert.assertEquals(24, ValueCache.size(new long[3]));
+		Assert.assertEquals(6, ValueCache.size(new Object[]{"ab", new byte[2]}));
+		Assert.assertEquals(16, ValueCache.size(Integer.valueOf(1)));
+	}
+
+	/** Keep a value behind a soft reference, as PSTDataPointer does. */
+	private static Reference<Object> reference(Object value)
+	{
+		return new SoftReference<Object>(value);
+	}
+}